@@ -74,7 +74,7 @@ public abstract class AbstractInvitationsFragment extends Fragment {
 	@Override
 	public void onDestroy() {
 		super.onDestroy();
-		SocialManager.getInstance().removeObserver(adapter);
+		SocialManager.getInstance().getEventBus().unsubscribe(adapter);
 	}
 
 	/**
@@ -0,0 +1,123 @@
+package com.ese2013.mub;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageButton;
+import android.widget.TextView;
+
+import com.ese2013.mub.map.MapButtonListener;
+import com.ese2013.mub.model.DailyMenuplan;
+import com.ese2013.mub.model.Day;
+import com.ese2013.mub.model.Mensa;
+import com.ese2013.mub.model.Menu;
+import com.ese2013.mub.social.LoginService;
+
+/**
+ * Adapter for the ListView of the {@link DailyPlanFragment}. Has a section for
+ * every mensa, showing its menus of the day. The section headers contain the
+ * buttons to favorite the mensa, show it on the map and invite friends.
+ */
+public class DailyPlanAdapter extends MenuSectionAdapter {
+	private List<Mensa> mensas;
+	private List<DailyMenuplan> dailyPlans;
+	private Day day;
+	private DailyPlanFragment target;
+
+	public DailyPlanAdapter(DailyPlanFragment target, List<Mensa> mensas, Day day, boolean showOnlyFavorites) {
+		super(target.getActivity(), mensas.size());
+		this.target = target;
+		this.mensas = new ArrayList<Mensa>(mensas);
+		this.day = day;
+		dailyPlans = new ArrayList<DailyMenuplan>(mensas.size());
+		for (Mensa mensa : mensas)
+			dailyPlans.add(mensa.getMenuplan().getDailymenuplan(day));
+		if (showOnlyFavorites)
+			for (int i = 0; i < mensas.size(); i++)
+				setExpanded(i, true);
+	}
+
+	/**
+	 * Returns if this adapter shows the given Mensas and their current menus.
+	 * 
+	 * @param currentMensas
+	 *            List of the Mensas which should be shown. Must not be null.
+	 * @return true if the same Mensa objects are shown in the same order and
+	 *         none of their menu plans of the day changed.
+	 */
+	public boolean shows(List<Mensa> currentMensas) {
+		if (currentMensas.size() != mensas.size())
+			return false;
+		for (int i = 0; i < mensas.size(); i++) {
+			Mensa mensa = currentMensas.get(i);
+			if (mensa != mensas.get(i))
+				return false;
+			DailyMenuplan dailyPlan = mensa.getMenuplan().getDailymenuplan(day);
+			if (dailyPlan == null ? dailyPlans.get(i) != null : !dailyPlan.equals(dailyPlans.get(i)))
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	protected View newSectionView(LayoutInflater inflater, ViewGroup parent) {
+		View view = inflater.inflate(R.layout.daily_section_title_bar, parent, false);
+		view.setTag(new SectionViewHolder(view));
+		return view;
+	}
+
+	@Override
+	protected void bindSectionView(View view, int section) {
+		SectionViewHolder holder = (SectionViewHolder) view.getTag();
+		Mensa mensa = mensas.get(section);
+		holder.title.setText(mensa.getName());
+		setUpFavoriteButton(holder.favorite, mensa);
+		setUpMapButton(holder.map, mensa);
+		setUpInvitationButton(holder.invitation, mensa);
+	}
+
+	private void setUpFavoriteButton(ImageButton favorite, Mensa mensa) {
+		favorite.setImageResource((mensa.isFavorite()) ? R.drawable.ic_fav : R.drawable.ic_fav_grey);
+		favorite.setOnClickListener(new FavoriteButtonListener(mensa, favorite));
+	}
+
+	private void setUpMapButton(ImageButton map, Mensa mensa) {
+		map.setOnClickListener(new MapButtonListener(mensa, target));
+		map.setImageResource(R.drawable.ic_map);
+	}
+
+	private void setUpInvitationButton(ImageButton invitationButton, Mensa mensa) {
+		if (LoginService.isLoggedIn()) {
+			invitationButton.setVisibility(View.VISIBLE);
+			invitationButton.setOnClickListener(new InvitationButtonListener(mensa, day, target));
+		} else {
+			invitationButton.setVisibility(View.GONE);
+		}
+	}
+
+	@Override
+	protected List<Menu> loadMenus(int section) {
+		DailyMenuplan dailyPlan = dailyPlans.get(section);
+		return dailyPlan != null ? dailyPlan.getMenus() : null;
+	}
+
+	@Override
+	protected Day getDay(int section) {
+		return day;
+	}
+
+	private static class SectionViewHolder {
+		private final TextView title;
+		private final ImageButton favorite, map, invitation;
+
+		private SectionViewHolder(View view) {
+			title = (TextView) view.findViewById(R.id.daily_section_title_text);
+			favorite = (ImageButton) view.findViewById(R.id.section_title_fav_button);
+			map = (ImageButton) view.findViewById(R.id.section_title_map_button);
+			invitation = (ImageButton) view.findViewById(R.id.section_title_invitation_button);
+		}
+	}
+}
@@ -350,19 +350,6 @@ public class DrawerMenuActivity extends FragmentActivity implements LoginTaskCal
 		setDisplayedFragment(frag, true);
 	}
 
-	/**
-	 * Restart the HomeFragment on the FavoriteView.
-	 * 
-	 */
-	public void refreshHomeActivity() {
-		HomeFragment frag = new HomeFragment();
-		frag.setShowDailyPlans(true);
-		frag.setShowOnlyFavorites(false);
-
-		selectItem(HOME_INDEX, false);
-		setDisplayedFragment(frag, true);
-	}
-
 	/**
 	 * Start the map and selects given mensa
 	 * 
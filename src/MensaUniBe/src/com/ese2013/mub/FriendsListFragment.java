@@ -1,6 +1,7 @@
 package com.ese2013.mub;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 
 import android.app.AlertDialog;
@@ -22,9 +23,11 @@ import android.widget.Toast;
 
 import com.ese2013.mub.social.FriendRequest;
 import com.ese2013.mub.social.LoginService;
+import com.ese2013.mub.social.SocialChangeEvent;
+import com.ese2013.mub.social.SocialChangeEvent.Type;
 import com.ese2013.mub.social.SocialManager;
 import com.ese2013.mub.social.User;
-import com.ese2013.mub.util.Observer;
+import com.ese2013.mub.util.Subscriber;
 
 /**
  * 
@@ -101,7 +104,7 @@ public class FriendsListFragment extends Fragment {
 	@Override
 	public void onDestroy() {
 		onDestroyOptionsMenu();
-		SocialManager.getInstance().removeObserver(adapter);
+		SocialManager.getInstance().getEventBus().unsubscribe(adapter);
 		super.onDestroy();
 	}
 
@@ -118,15 +121,15 @@ public class FriendsListFragment extends Fragment {
 	 * FriendRequests
 	 * 
 	 */
-	private class FriendsListAdapter extends BaseAdapter implements Observer {
+	private class FriendsListAdapter extends BaseAdapter implements Subscriber<SocialChangeEvent> {
 		private List<User> friends = new ArrayList<User>();
 		private List<FriendRequest> requests = new ArrayList<FriendRequest>();
 		private LayoutInflater inflater;
 
 		public FriendsListAdapter() {
 			super();
-			SocialManager.getInstance().addObserver(this);
-			onNotifyChanges();
+			SocialManager.getInstance().getEventBus().subscribe(this, EnumSet.of(Type.FRIENDS));
+			notifyDataSetChanged();
 		}
 
 		@Override
@@ -194,11 +197,16 @@ public class FriendsListFragment extends Fragment {
 		}
 
 		@Override
-		public void onNotifyChanges(Object... message) {
-			friends = LoginService.getLoggedInUser().getFriends();
-			requests = LoginService.getLoggedInUser().getFriendRequests();
+		public void onEvent(SocialChangeEvent event) {
 			notifyDataSetChanged();
 			loadingFinished();
 		}
+
+		@Override
+		public void notifyDataSetChanged() {
+			friends = LoginService.getLoggedInUser().getFriends();
+			requests = LoginService.getLoggedInUser().getFriendRequests();
+			super.notifyDataSetChanged();
+		}
 	}
 }
@@ -2,7 +2,10 @@ package com.ese2013.mub;
 
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import android.os.Bundle;
 import android.support.v4.app.Fragment;
@@ -18,12 +21,14 @@ import android.widget.Toast;
 import com.ese2013.mub.model.Day;
 import com.ese2013.mub.model.Mensa;
 import com.ese2013.mub.model.Model;
-import com.ese2013.mub.util.Observer;
+import com.ese2013.mub.model.ModelChangeEvent;
+import com.ese2013.mub.model.ModelChangeEvent.Type;
+import com.ese2013.mub.util.Subscriber;
 
-public class HomeFragment extends Fragment implements Observer {
+public class HomeFragment extends Fragment implements Subscriber<ModelChangeEvent> {
 
 	public static final String POSITION = "com.ese2013.mub.HomeFragment.position";
-	private FragmentStatePagerAdapter sectionsPagerAdapter;
+	private PlanPagerAdapter sectionsPagerAdapter;
 	private ViewPager viewPager;
 
 	private boolean showDailyPlans = true, showOnlyFavorites = true;
@@ -47,23 +52,23 @@ public class HomeFragment extends Fragment implements Observer {
 		if (showDailyPlans && dayOfWeek < 6 && dayOfWeek > 1)
 			viewPager.setCurrentItem(dayOfWeek - 2);
 		handleGivenArguments();
-		Model.getInstance().addObserver(this);
+		Model.getInstance().getEventBus().subscribe(this, EnumSet.allOf(Type.class));
 		getActivity().getActionBar().setDisplayShowCustomEnabled(true);
 		return view;
 	}
 
 	@Override
-	public void onNotifyChanges(Object... message) {
-		if (message.length > 0)
-			Toast.makeText(getActivity(), getActivity().getString((Integer) message[0]), Toast.LENGTH_SHORT).show();
-		sectionsPagerAdapter.notifyDataSetChanged();
+	public void onEvent(ModelChangeEvent event) {
+		if (event.hasStatusMessage())
+			Toast.makeText(getActivity(), getActivity().getString(event.getStatusMessage()), Toast.LENGTH_SHORT).show();
+		sectionsPagerAdapter.onModelChanged(event);
 	}
 
 	@Override
 	public void onDestroy() {
 		super.onDestroy();
 		getActivity().getActionBar().setDisplayShowCustomEnabled(false);
-		Model.getInstance().removeObserver(this);
+		Model.getInstance().getEventBus().unsubscribe(this);
 	}
 
 	public void setShowDailyPlans(boolean showDailyPlans) {
@@ -82,11 +87,69 @@ public class HomeFragment extends Fragment implements Observer {
 		}
 	}
 
+	/**
+	 * A {@link FragmentStatePagerAdapter} for pages which implement
+	 * {@link PlanPage}. When the Model changes, only the pages which moved or
+	 * are no longer up to date are created again, the other pages are
+	 * refreshed in place.
+	 */
+	private abstract class PlanPagerAdapter extends FragmentStatePagerAdapter {
+		private Map<Object, Integer> pagePositions = new HashMap<Object, Integer>();
+
+		public PlanPagerAdapter(FragmentManager fm) {
+			super(fm);
+		}
+
+		/**
+		 * Returns the position where the given page belongs now.
+		 * 
+		 * @return int position of the page, -1 if it is no longer shown.
+		 */
+		protected abstract int getCurrentPosition(Object page);
+
+		/**
+		 * Updates the pages after the Model changed.
+		 * 
+		 * @param event
+		 *            ModelChangeEvent describing the change. Must not be null.
+		 */
+		public void onModelChanged(ModelChangeEvent event) {
+			if (event.contains(Type.MENUS) || event.contains(Type.FAVORITES))
+				notifyDataSetChanged();
+			if (event.contains(Type.RATINGS) || event.contains(Type.TRANSLATION) || event.contains(Type.FAVORITES))
+				for (Object page : pagePositions.keySet())
+					((PlanPage) page).refreshViews();
+		}
+
+		@Override
+		public Object instantiateItem(ViewGroup container, int position) {
+			Object page = super.instantiateItem(container, position);
+			pagePositions.put(page, position);
+			return page;
+		}
+
+		@Override
+		public void destroyItem(ViewGroup container, int position, Object object) {
+			pagePositions.remove(object);
+			super.destroyItem(container, position, object);
+		}
+
+		@Override
+		public int getItemPosition(Object object) {
+			// FragmentStatePagerAdapter keeps the state of the pages by
+			// position, so moved pages are created again as well
+			Integer position = pagePositions.get(object);
+			if (position == null || position != getCurrentPosition(object) || !((PlanPage) object).isUpToDate())
+				return POSITION_NONE;
+			return POSITION_UNCHANGED;
+		}
+	}
+
 	/**
 	 * A {@link FragmentPagerAdapter} that returns a fragment corresponding to
 	 * one of the sections/tabs/pages.
 	 */
-	private class MensaSectionsPagerAdapter extends FragmentStatePagerAdapter {
+	private class MensaSectionsPagerAdapter extends PlanPagerAdapter {
 		private List<Mensa> mensas = Model.getInstance().getMensas();
 
 		public MensaSectionsPagerAdapter(FragmentManager fm) {
@@ -102,8 +165,12 @@ public class HomeFragment extends Fragment implements Observer {
 		}
 
 		@Override
-		public int getItemPosition(Object object) {
-			return POSITION_NONE;
+		protected int getCurrentPosition(Object page) {
+			Mensa mensa = ((WeeklyPlanFragment) page).getMensa();
+			for (int i = 0; i < mensas.size(); i++)
+				if (mensas.get(i) == mensa)
+					return i;
+			return -1;
 		}
 
 		@Override
@@ -124,7 +191,7 @@ public class HomeFragment extends Fragment implements Observer {
 
 	}
 
-	private class MenuSectionsPagerAdapter extends FragmentStatePagerAdapter {
+	private class MenuSectionsPagerAdapter extends PlanPagerAdapter {
 		private ArrayList<Day> days;
 		private Model model = Model.getInstance();
 
@@ -145,8 +212,8 @@ public class HomeFragment extends Fragment implements Observer {
 		}
 
 		@Override
-		public int getItemPosition(Object object) {
-			return POSITION_NONE;
+		protected int getCurrentPosition(Object page) {
+			return days.indexOf(((DailyPlanFragment) page).getDay());
 		}
 
 		@Override
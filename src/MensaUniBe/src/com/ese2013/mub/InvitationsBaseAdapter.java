@@ -3,16 +3,24 @@ package com.ese2013.mub;
 import android.content.Context;
 import android.widget.BaseAdapter;
 
-import com.ese2013.mub.util.Observer;
+import com.ese2013.mub.social.SocialChangeEvent;
+import com.ese2013.mub.social.SocialChangeEvent.Type;
+import com.ese2013.mub.util.Subscriber;
 
 /**
- * This class does only joins the BaseAdapter from Android and our Observer
+ * This class does only joins the BaseAdapter from Android and our Subscriber
  * interface. This class can also take a context which can then be used in the
  * view creation methods of the extending adapters.
  */
-public abstract class InvitationsBaseAdapter extends BaseAdapter implements Observer {
+public abstract class InvitationsBaseAdapter extends BaseAdapter implements Subscriber<SocialChangeEvent> {
 	private Context context;
 
+	/**
+	 * Returns the type of the SocialChangeEvents which change the shown
+	 * invitations.
+	 */
+	public abstract Type getChangeType();
+
 	public void setContext(Context context) {
 		this.context = context;
 	}
@@ -1,5 +1,7 @@
 package com.ese2013.mub;
 
+import java.util.EnumSet;
+
 import android.os.Bundle;
 import android.support.v4.app.Fragment;
 import android.view.LayoutInflater;
@@ -13,14 +15,17 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import com.ese2013.mub.social.LoginService;
+import com.ese2013.mub.social.SocialChangeEvent;
+import com.ese2013.mub.social.SocialChangeEvent.Type;
 import com.ese2013.mub.social.SocialManager;
-import com.ese2013.mub.util.Observer;
+import com.ese2013.mub.util.EventBus;
+import com.ese2013.mub.util.Subscriber;
 
 /**
  * Page of the {@link InvitationBaseFragment}, shows where you are invited or
  * the sent invitations.
  */
-public class InvitedFragment extends Fragment implements Observer {
+public class InvitedFragment extends Fragment implements Subscriber<SocialChangeEvent> {
 
 	private ListView invitedList;
 	private InvitationsBaseAdapter adapter;
@@ -38,13 +43,13 @@ public class InvitedFragment extends Fragment implements Observer {
 	}
 
 	private void setAdapter(InvitationsBaseAdapter adapter) {
-		SocialManager.getInstance().addObserver(adapter);
+		SocialManager.getInstance().getEventBus().subscribe(adapter, EnumSet.of(adapter.getChangeType()));
 		this.adapter = adapter;
 	}
 
 	@Override
 	public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
-		SocialManager.getInstance().addObserver(this);
+		SocialManager.getInstance().getEventBus().subscribe(this, EnumSet.of(adapter.getChangeType()));
 		adapter.setContext(getActivity());
 		View view = inflater.inflate(R.layout.fragment_invited, null);
 		invitedList = (ListView) view.findViewById(R.id.invited_list);
@@ -88,15 +93,15 @@ public class InvitedFragment extends Fragment implements Observer {
 	@Override
 	public void onDestroy() {
 		super.onDestroy();
-		SocialManager socialMgr = SocialManager.getInstance();
-		socialMgr.removeObserver(this);
-		socialMgr.removeObserver(adapter);
+		EventBus<Type, SocialChangeEvent> eventBus = SocialManager.getInstance().getEventBus();
+		eventBus.unsubscribe(this);
+		eventBus.unsubscribe(adapter);
 	}
 
 	@Override
-	public void onNotifyChanges(Object... message) {
-		// the social manager does callbacks only in such cases, so no need to
-		// handle any other case (at the moment),
+	public void onEvent(SocialChangeEvent event) {
+		// only the invitations shown by the adapter are subscribed, which
+		// are posted when loading them finished
 		loadingFinished();
 	}
 
@@ -16,6 +16,8 @@ import com.ese2013.mub.model.Day;
 import com.ese2013.mub.model.Model;
 import com.ese2013.mub.social.Invitation;
 import com.ese2013.mub.social.LoginService;
+import com.ese2013.mub.social.SocialChangeEvent;
+import com.ese2013.mub.social.SocialChangeEvent.Type;
 import com.ese2013.mub.social.SocialManager;
 
 /**
@@ -27,7 +29,7 @@ public class InvitedListAdapter extends InvitationsBaseAdapter {
 	private List<Invitation> invitations = new ArrayList<Invitation>();
 
 	public InvitedListAdapter() {
-		onNotifyChanges();
+		notifyDataSetChanged();
 	}
 
 	@Override
@@ -101,8 +103,18 @@ public class InvitedListAdapter extends InvitationsBaseAdapter {
 	}
 
 	@Override
-	public void onNotifyChanges(Object... message) {
-		invitations = SocialManager.getInstance().getReceivedInvitations();
+	public Type getChangeType() {
+		return Type.RECEIVED_INVITATIONS;
+	}
+
+	@Override
+	public void onEvent(SocialChangeEvent event) {
 		notifyDataSetChanged();
 	}
+
+	@Override
+	public void notifyDataSetChanged() {
+		invitations = SocialManager.getInstance().getReceivedInvitations();
+		super.notifyDataSetChanged();
+	}
 }
\ No newline at end of file
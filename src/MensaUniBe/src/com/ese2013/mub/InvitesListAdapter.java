@@ -16,6 +16,8 @@ import com.ese2013.mub.model.Day;
 import com.ese2013.mub.model.Mensa;
 import com.ese2013.mub.model.Model;
 import com.ese2013.mub.social.Invitation;
+import com.ese2013.mub.social.SocialChangeEvent;
+import com.ese2013.mub.social.SocialChangeEvent.Type;
 import com.ese2013.mub.social.SocialManager;
 
 /**
@@ -29,7 +31,7 @@ public class InvitesListAdapter extends InvitationsBaseAdapter {
 	private List<Invitation> invitations = new ArrayList<Invitation>();
 
 	public InvitesListAdapter() {
-		onNotifyChanges();
+		notifyDataSetChanged();
 	}
 
 	@Override
@@ -91,7 +93,12 @@ public class InvitesListAdapter extends InvitationsBaseAdapter {
 	}
 
 	@Override
-	public void onNotifyChanges(Object... message) {
+	public Type getChangeType() {
+		return Type.SENT_INVITATIONS;
+	}
+
+	@Override
+	public void onEvent(SocialChangeEvent event) {
 		notifyDataSetChanged();
 	}
 
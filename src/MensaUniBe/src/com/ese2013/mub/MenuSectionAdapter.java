@@ -0,0 +1,235 @@
+package com.ese2013.mub;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AdapterView;
+import android.widget.AdapterView.OnItemClickListener;
+import android.widget.BaseAdapter;
+import android.widget.TextView;
+
+import com.ese2013.mub.model.Day;
+import com.ese2013.mub.model.Menu;
+import com.ese2013.mub.model.MenuDisplayCache;
+import com.ese2013.mub.model.Model;
+
+/**
+ * Base adapter for lists of menus grouped in collapsible sections, like the
+ * mensas of the {@link DailyPlanFragment} or the days of the
+ * {@link WeeklyPlanFragment}. Every section consists of a header row followed
+ * by one row per menu, or a single row saying that no menus are available.
+ *
+ * The rows of a collapsed section are not part of the list, and the menus of a
+ * section are only looked up when it is expanded for the first time. Together
+ * with the recycling of the ListView, only the visible rows get a view.
+ *
+ * Clicking a section header expands or collapses the section, for this the
+ * adapter has to be set as OnItemClickListener of the ListView.
+ */
+public abstract class MenuSectionAdapter extends BaseAdapter implements OnItemClickListener {
+	private static final int TYPE_SECTION = 0, TYPE_MENU = 1, TYPE_NO_MENUS = 2, TYPE_COUNT = 3;
+	private static final int NO_MENUS_PADDING = 48;
+
+	private final Context context;
+	private final LayoutInflater inflater;
+	private final boolean[] expanded;
+	private final List<List<Menu>> menus;
+	/** List position of the header of each section. */
+	private final int[] sectionPositions;
+	private int count;
+	private int animatedSection = -1;
+	private final Runnable stopAnimation = new Runnable() {
+		@Override
+		public void run() {
+			animatedSection = -1;
+		}
+	};
+
+	/**
+	 * Creates a MenuSectionAdapter with all sections collapsed.
+	 *
+	 * @param context
+	 *            Context used to inflate the views. Must not be null.
+	 * @param sectionCount
+	 *            int number of sections.
+	 */
+	protected MenuSectionAdapter(Context context, int sectionCount) {
+		this.context = context;
+		this.inflater = (LayoutInflater) context.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
+		this.expanded = new boolean[sectionCount];
+		this.menus = new ArrayList<List<Menu>>(Collections.<List<Menu>> nCopies(sectionCount, null));
+		this.sectionPositions = new int[sectionCount];
+		updatePositions();
+	}
+
+	/**
+	 * Creates a new view for a section header.
+	 */
+	protected abstract View newSectionView(LayoutInflater inflater, ViewGroup parent);
+
+	/**
+	 * Shows the given section in a view created by newSectionView.
+	 */
+	protected abstract void bindSectionView(View view, int section);
+
+	/**
+	 * Looks up the menus of a section, only called once per section.
+	 *
+	 * @return List of the Menus, null or empty if no menus are available.
+	 */
+	protected abstract List<Menu> loadMenus(int section);
+
+	/**
+	 * Returns the Day on which the menus of the given section are served.
+	 */
+	protected abstract Day getDay(int section);
+
+	protected Context getContext() {
+		return context;
+	}
+
+	public int getSectionCount() {
+		return expanded.length;
+	}
+
+	public boolean isExpanded(int section) {
+		return expanded[section];
+	}
+
+	/**
+	 * Expands or collapses a section without animation.
+	 */
+	public void setExpanded(int section, boolean isExpanded) {
+		if (expanded[section] == isExpanded)
+			return;
+		expanded[section] = isExpanded;
+		updatePositions();
+		notifyDataSetChanged();
+	}
+
+	/**
+	 * Expands a collapsed section or collapses an expanded one. The rows of an
+	 * expanded section slide in.
+	 */
+	public void toggle(int section) {
+		animatedSection = expanded[section] ? -1 : section;
+		setExpanded(section, !expanded[section]);
+	}
+
+	@Override
+	public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
+		// header views of the ListView have negative ids
+		if (id >= 0 && getItemViewType((int) id) == TYPE_SECTION)
+			toggle(getSection((int) id));
+	}
+
+	private void updatePositions() {
+		int position = 0;
+		for (int section = 0; section < expanded.length; section++) {
+			sectionPositions[section] = position;
+			position++;
+			if (expanded[section])
+				position += Math.max(getMenus(section).size(), 1);
+		}
+		count = position;
+	}
+
+	private List<Menu> getMenus(int section) {
+		List<Menu> sectionMenus = menus.get(section);
+		if (sectionMenus == null) {
+			sectionMenus = loadMenus(section);
+			if (sectionMenus == null)
+				sectionMenus = Collections.emptyList();
+			menus.set(section, sectionMenus);
+		}
+		return sectionMenus;
+	}
+
+	private int getSection(int position) {
+		int index = Arrays.binarySearch(sectionPositions, position);
+		return index >= 0 ? index : -index - 2;
+	}
+
+	@Override
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the Menu shown at the given position, null for section headers
+	 * and rows without menus.
+	 */
+	@Override
+	public Menu getItem(int position) {
+		if (getItemViewType(position) != TYPE_MENU)
+			return null;
+		int section = getSection(position);
+		return getMenus(section).get(position - sectionPositions[section] - 1);
+	}
+
+	@Override
+	public long getItemId(int position) {
+		return position;
+	}
+
+	@Override
+	public int getViewTypeCount() {
+		return TYPE_COUNT;
+	}
+
+	@Override
+	public int getItemViewType(int position) {
+		int section = getSection(position);
+		if (sectionPositions[section] == position)
+			return TYPE_SECTION;
+		return getMenus(section).isEmpty() ? TYPE_NO_MENUS : TYPE_MENU;
+	}
+
+	@Override
+	public boolean areAllItemsEnabled() {
+		return false;
+	}
+
+	@Override
+	public boolean isEnabled(int position) {
+		return getItemViewType(position) == TYPE_SECTION;
+	}
+
+	@Override
+	public View getView(int position, View convertView, ViewGroup parent) {
+		int section = getSection(position);
+		View view = convertView;
+		switch (getItemViewType(position)) {
+		case TYPE_SECTION:
+			if (view == null)
+				view = newSectionView(inflater, parent);
+			bindSectionView(view, section);
+			return view;
+		case TYPE_MENU:
+			if (view == null)
+				view = new MenuView(context);
+			MenuDisplayCache displays = Model.getInstance().getMenuDisplays();
+			((MenuView) view).setMenu(displays.get(getItem(position), getDay(section)));
+			break;
+		default:
+			if (view == null) {
+				TextView noMenusText = new TextView(context);
+				noMenusText.setText(R.string.dailyplanfragment_no_menus_available);
+				noMenusText.setPadding(NO_MENUS_PADDING, 0, 0, 0);
+				view = noMenusText;
+			}
+		}
+		if (section == animatedSection) {
+			ToggleAnimation.slide_down(context, view);
+			// only the rows shown right after expanding slide in
+			parent.post(stopAnimation);
+		}
+		return view;
+	}
+}
@@ -1,7 +1,5 @@
 package com.ese2013.mub;
 
-import java.util.Locale;
-
 import android.content.Context;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
@@ -14,7 +12,7 @@ import android.widget.Toast;
 
 import com.ese2013.mub.model.Day;
 import com.ese2013.mub.model.Menu;
-import com.ese2013.mub.model.MenuManager;
+import com.ese2013.mub.model.MenuDisplay;
 import com.ese2013.mub.model.Model;
 import com.ese2013.mub.social.CurrentUser;
 import com.ese2013.mub.social.LoginService;
@@ -26,42 +24,65 @@ import com.ese2013.mub.util.parseDatabase.MensaDBHandler;
  *
  */
 public class MenuView extends LinearLayout {
-	private Menu menu;
-	private Day day;
+	private MenuDisplay display;
+	private int[] categoryColors;
+	private TextView titleText, descriptionText, ratingCountText;
+	private RatingBar ratingBar;
 
 	public MenuView(Context context, Menu menu, Day day) {
+		this(context);
+		setMenu(Model.getInstance().getMenuDisplays().get(menu, day));
+	}
+
+	public MenuView(Context context) {
 		super(context);
-		this.menu = menu;
-		this.day = day;
+		init(context);
+	}
+
+	public MenuView(Context context, AttributeSet attrs) {
+		super(context, attrs);
+		init(context);
+	}
+
+	private void init(Context context) {
 		setOrientation(VERTICAL);
 		setPadding(0, 0, 0, dimToPixels(R.dimen.menu_view_bottom_margin));
 
 		LayoutInflater inflater = (LayoutInflater) context.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
 		inflater.inflate(R.layout.menu_view, this);
 
-		MenuManager menuManager = Model.getInstance().getMenuManager();
-		String menuTitle, menuDesc;
-		if (menuManager.isTranslationEnabled() && menuManager.translationsAvailable()) {
-			menuTitle = menu.getTranslatedTitle();
-			menuDesc = menu.getTranslatedDescription();
-		} else {
-			menuTitle = menu.getTitle();
-			menuDesc = menu.getDescription();
-		}
-
-		menuTitle = menuTitle.toUpperCase(Locale.getDefault());
-		setTitle(menuTitle, getTitleColor(menu.getTitle()));
-		setDescription(menuDesc);
+		titleText = (TextView) getChildAt(0);
+		descriptionText = (TextView) findViewById(R.id.menu_description_text);
+		ratingCountText = (TextView) findViewById(R.id.menu_rating_count);
+		initRatingBar();
+		initCategoryColors();
+	}
 
-		setCountDisplay();
+	/**
+	 * Shows the given Menu in this view. Used to recycle a MenuView for
+	 * another Menu, e.g. in a ListView.
+	 * 
+	 * @param display
+	 *            MenuDisplay of the Menu to be shown, see
+	 *            Model.getMenuDisplays(). Must not be null.
+	 */
+	public void setMenu(MenuDisplay display) {
+		this.display = display;
+		titleText.setText(display.getTitle());
+		titleText.setBackgroundColor(categoryColors[display.getCategory().ordinal()]);
+		descriptionText.setText(display.getDescription());
+		setRatingDisplay(display);
+	}
 
-		initRatingBar();
+	private void setRatingDisplay(MenuDisplay display) {
+		this.display = display;
+		ratingCountText.setText(display.getRatingCountText());
+		ratingBar.setIsIndicator(true);
+		ratingBar.setRating(display.getAverageRating());
 	}
 
 	private void initRatingBar() {
-		RatingBar ratingBar = (RatingBar) this.findViewById(R.id.menu_rating_bar);
-		setCountDisplay();
-		ratingBar.setRating(menu.getAverageRating());
+		ratingBar = (RatingBar) this.findViewById(R.id.menu_rating_bar);
 		ratingBar.setIsIndicator(true);
 		RatingBarListener listener = new RatingBarListener();
 		ratingBar.setOnRatingBarChangeListener(listener);
@@ -69,42 +90,15 @@ public class MenuView extends LinearLayout {
 		ratingBar.setId(ViewUtil.generateViewId());
 	}
 
-	private boolean menusIsFromFutureDate() {
-		return day.compareTo(Day.today()) > 0;
-	}
-
-	private void setCountDisplay() {
-		((TextView) findViewById(R.id.menu_rating_count)).setText("" + menu.getRatingCount());
-	}
-
-	public MenuView(Context context) {
-		super(context);
-	}
-
-	public MenuView(Context context, AttributeSet attrs) {
-		super(context, attrs);
-	}
-
-	private void setTitle(String menuTitle, int color) {
-		TextView menuTitleText = (TextView) getChildAt(0);
-		menuTitleText.setText(menuTitle);
-		menuTitleText.setBackgroundColor(color);
-	}
-
-	private void setDescription(String menuDesc) {
-		TextView menuDescView = (TextView) this.findViewById(R.id.menu_description_text);
-		menuDescView.setText(menuDesc);
-	}
-
-	private int getTitleColor(String title) {
-		title = title.toUpperCase(Locale.GERMAN);
-		if (title.contains("VEGI") || title.contains("VEGETARISCH"))
-			return getResources().getColor(R.color.green);
-
-		if (title.contains("EINFACH GUT") || title.contains("TAGESGERICHT") || title.contains("WARMES SCH�SSELGERICHT"))
-			return getResources().getColor(R.color.yellow);
-
-		return getResources().getColor(R.color.blue);
+	/**
+	 * Looks up the title colours of all categories, indexed by the ordinal of
+	 * the category.
+	 */
+	private void initCategoryColors() {
+		categoryColors = new int[MenuDisplay.Category.values().length];
+		categoryColors[MenuDisplay.Category.VEGETARIAN.ordinal()] = getResources().getColor(R.color.green);
+		categoryColors[MenuDisplay.Category.SIMPLE.ordinal()] = getResources().getColor(R.color.yellow);
+		categoryColors[MenuDisplay.Category.STANDARD.ordinal()] = getResources().getColor(R.color.blue);
 	}
 
 	private int dimToPixels(int dim) {
@@ -115,15 +109,14 @@ public class MenuView extends LinearLayout {
 		@Override
 		public void onRatingChanged(RatingBar ratingBar, float rating, boolean fromUser) {
 			if (fromUser) {
-				Menu menu = MenuView.this.menu;
+				Menu menu = display.getMenu();
 				CurrentUser user = LoginService.getLoggedInUser();
 				int userRating = (int) rating;
 				menu.setUserRating(userRating);
 				user.addToRated(menu);
 				new MensaDBHandler().saveMenuRating(user, menu, userRating);
-				ratingBar.setIsIndicator(true);
-				setCountDisplay();
-				ratingBar.setRating(menu.getAverageRating());
+				MenuDisplay updated = Model.getInstance().getMenuDisplays().updateRating(display);
+				setRatingDisplay(updated != null ? updated : display.withCurrentRating());
 			}
 		}
 
@@ -132,9 +125,9 @@ public class MenuView extends LinearLayout {
 			Context context = MenuView.this.getContext();
 			if (LoginService.isLoggedIn()) {
 				RatingBar ratingBar = (RatingBar) v;
-				if (LoginService.getLoggedInUser().hasBeenRated(MenuView.this.menu)) {
+				if (LoginService.getLoggedInUser().hasBeenRated(display.getMenu())) {
 					Toast.makeText(context, R.string.rating_msg_already_rated, Toast.LENGTH_SHORT).show();
-				} else if (menusIsFromFutureDate()) {
+				} else if (!display.isRateable()) {
 					Toast.makeText(context, R.string.rating_msg_from_future, Toast.LENGTH_SHORT).show();
 				} else {
 					ratingBar.setIsIndicator(false);
@@ -1,6 +1,7 @@
 package com.ese2013.mub;
 
 import com.ese2013.mub.model.Model;
+import com.ese2013.mub.service.Scheduler;
 import com.ese2013.mub.social.SocialManager;
 import com.ese2013.mub.util.database.MensaDataSource;
 import com.parse.Parse;
@@ -19,16 +20,19 @@ public class MubApplication extends android.app.Application {
 		super.onCreate();
 		initParseService();
 		initSingletons();
+		new Scheduler(this).scheduleAll();
 	}
 
 	/**
 	 * Initializes the static variables in the singleton classes. No loading is
-	 * done here, just the instances get created and stored.
+	 * done here, just the instances get created and stored. The
+	 * MensaDataSource is bound to the application context, as its database
+	 * connection lives as long as the application.
 	 */
 	private void initSingletons() {
 		Model.getInstance();
 		SocialManager.getInstance();
-		MensaDataSource.getInstance();
+		MensaDataSource.getInstance().init(this);
 	}
 
 	/**
@@ -1,6 +1,7 @@
 package com.ese2013.mub;
 
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
@@ -23,23 +24,24 @@ import com.ese2013.mub.model.Day;
 import com.ese2013.mub.model.Mensa;
 import com.ese2013.mub.model.Menu;
 import com.ese2013.mub.model.Model;
+import com.ese2013.mub.model.ModelChangeEvent;
+import com.ese2013.mub.model.ModelChangeEvent.Type;
 import com.ese2013.mub.service.Criteria;
 import com.ese2013.mub.service.CriteriaMatcher;
-import com.ese2013.mub.util.Observer;
 import com.ese2013.mub.util.SharedPrefsHandler;
+import com.ese2013.mub.util.Subscriber;
 
 /**
  * Fragment which shows the result of the criteria defined in the settings matched with the menus of today.
  * 
  */
-public class NotificationFragment extends Fragment implements Observer {
+public class NotificationFragment extends Fragment implements Subscriber<ModelChangeEvent> {
 	private NotificationAdapter notificationAdapter;
 	private ListView list;
 
 	@Override
 	public void onCreate(Bundle savedInstanceState) {
 		super.onCreate(savedInstanceState);
-		Model.getInstance().addObserver(this);
 		getActivity().setTitle(R.string.notification);
 	}
 
@@ -54,9 +56,17 @@ public class NotificationFragment extends Fragment implements Observer {
 		View emptyView = view.findViewById(R.id.no_crit_text);
 		list.setEmptyView(emptyView);
 		notificationAdapter.fill();
+		Model.getInstance().getEventBus()
+				.subscribe(this, EnumSet.of(Type.MENUS, Type.FAVORITES, Type.RATINGS, Type.TRANSLATION));
 		return view;
 	}
 
+	@Override
+	public void onDestroyView() {
+		Model.getInstance().getEventBus().unsubscribe(this);
+		super.onDestroyView();
+	}
+
 	public void onPause() {
 		super.onPause();
 	};
@@ -72,8 +82,13 @@ public class NotificationFragment extends Fragment implements Observer {
 		super.onDestroy();
 	}
 
-	public void onNotifyChanges(Object... message) {
-		notificationAdapter.notifyDataSetChanged();
+	@Override
+	public void onEvent(ModelChangeEvent event) {
+		// ratings and translations do not change which criteria match
+		if (event.contains(Type.MENUS) || event.contains(Type.FAVORITES))
+			notificationAdapter.notifyDataSetChanged();
+		else
+			notificationAdapter.refreshViews();
 	}
 
 	public void sendListToMenusIntent(Mensa mensa) {
@@ -184,6 +199,13 @@ public class NotificationFragment extends Fragment implements Observer {
 			super.notifyDataSetChanged();
 		}
 
+		/**
+		 * Redraws the rows without matching the criteria again.
+		 */
+		public void refreshViews() {
+			super.notifyDataSetChanged();
+		}
+
 		private List<Criteria> createList() {
 			SharedPrefsHandler pref = new SharedPrefsHandler(
 					NotificationFragment.this.getActivity());
@@ -191,9 +213,9 @@ public class NotificationFragment extends Fragment implements Observer {
 			Set<String> criteria = pref.getNotificationListItems();
 			boolean allMensas = pref.getDoNotificationsForAllMensas();
 
-			List<Mensa> mensas = allMensas ? Model.getInstance().getMensas()
-					: Model.getInstance().getFavoriteMensas();
-			return criteriaMatcher.match(criteria, mensas);
+			Model model = Model.getInstance();
+			List<Mensa> mensas = allMensas ? model.getMensas() : model.getFavoriteMensas();
+			return criteriaMatcher.match(criteria, model.getMenuIndex(), mensas);
 		}
 
 		@Override
@@ -0,0 +1,22 @@
+package com.ese2013.mub;
+
+/**
+ * A page of the {@link HomeFragment} showing menus. When the Model changes,
+ * the HomeFragment only creates the pages again which are no longer up to
+ * date, the other pages are refreshed in place.
+ */
+public interface PlanPage {
+	/**
+	 * Returns if the page still shows the current Mensas and menus of the
+	 * Model, such that it can be kept.
+	 * 
+	 * @return true if the page does not need to be created again.
+	 */
+	public boolean isUpToDate();
+
+	/**
+	 * Shows the current ratings, translations and favorites in the existing
+	 * views of the page.
+	 */
+	public void refreshViews();
+}
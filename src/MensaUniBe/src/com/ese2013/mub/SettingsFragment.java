@@ -28,9 +28,11 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import com.ese2013.mub.model.Model;
+import com.ese2013.mub.service.Scheduler;
 import com.ese2013.mub.social.LoginService;
 import com.ese2013.mub.util.SharedPrefsHandler;
 import com.ese2013.mub.util.TranslationTask;
+import com.ese2013.mub.util.database.MensaDataSource;
 import com.memetix.mst.language.Language;
 
 public class SettingsFragment extends Fragment {
@@ -118,7 +120,7 @@ public class SettingsFragment extends Fragment {
 					Model.getInstance().getMenuManager().setTranslationsEnabled(true);
 					if (!Model.getInstance().getMenuManager().translationsAvailable()) {
 						TranslationTask transTask = new TranslationTask(Model.getInstance().getMenuManager(),
-								Language.ENGLISH, Model.getInstance());
+								Language.ENGLISH, MensaDataSource.getInstance(), Model.getInstance());
 						transTask.execute();
 						Toast.makeText(getActivity(), R.string.translation_started, Toast.LENGTH_SHORT).show();
 					}
@@ -138,6 +140,7 @@ public class SettingsFragment extends Fragment {
 				.getSelectedItemPosition() == 0;
 		prefs.setDoNotificationsForAllMensas(notificationsForAllMensas);
 		prefs.setNotificationListItems(new TreeSet<String>(notificationListItems));
+		new Scheduler(getActivity()).scheduleAll();
 	}
 
 	private class EditCriteriaButtonListener implements OnClickListener {
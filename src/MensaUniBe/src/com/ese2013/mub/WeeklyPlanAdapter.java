@@ -0,0 +1,80 @@
+package com.ese2013.mub;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import com.ese2013.mub.model.DailyMenuplan;
+import com.ese2013.mub.model.Day;
+import com.ese2013.mub.model.Menu;
+import com.ese2013.mub.model.WeeklyMenuplan;
+
+/**
+ * Adapter for the ListView of the {@link WeeklyPlanFragment}. Has a section for
+ * every day of the weekly menu plan of a mensa, only the section of today is
+ * expanded initially.
+ */
+public class WeeklyPlanAdapter extends MenuSectionAdapter {
+	private List<DailyMenuplan> dailyPlans;
+
+	public WeeklyPlanAdapter(Context context, WeeklyMenuplan weeklyPlan) {
+		this(context, toList(weeklyPlan));
+	}
+
+	private WeeklyPlanAdapter(Context context, List<DailyMenuplan> dailyPlans) {
+		super(context, dailyPlans.size());
+		this.dailyPlans = dailyPlans;
+		Day today = Day.today();
+		for (int i = 0; i < dailyPlans.size(); i++)
+			if (dailyPlans.get(i).getDay().equals(today))
+				setExpanded(i, true);
+	}
+
+	/**
+	 * Returns if this adapter shows the current days and menus of the given
+	 * weekly menu plan.
+	 * 
+	 * @param weeklyPlan
+	 *            WeeklyMenuplan which should be shown. Must not be null.
+	 * @return true if none of the days changed since creating this adapter.
+	 */
+	public boolean shows(WeeklyMenuplan weeklyPlan) {
+		int i = 0;
+		for (DailyMenuplan dailyPlan : weeklyPlan)
+			if (i >= dailyPlans.size() || !dailyPlan.equals(dailyPlans.get(i++)))
+				return false;
+		return i == dailyPlans.size();
+	}
+
+	private static List<DailyMenuplan> toList(WeeklyMenuplan weeklyPlan) {
+		List<DailyMenuplan> dailyPlans = new ArrayList<DailyMenuplan>();
+		for (DailyMenuplan dailyPlan : weeklyPlan)
+			dailyPlans.add(dailyPlan);
+		return dailyPlans;
+	}
+
+	@Override
+	protected View newSectionView(LayoutInflater inflater, ViewGroup parent) {
+		return inflater.inflate(R.layout.section_title_text, parent, false);
+	}
+
+	@Override
+	protected void bindSectionView(View view, int section) {
+		((TextView) view).setText(dailyPlans.get(section).getDateString());
+	}
+
+	@Override
+	protected List<Menu> loadMenus(int section) {
+		return dailyPlans.get(section).getMenus();
+	}
+
+	@Override
+	protected Day getDay(int section) {
+		return dailyPlans.get(section).getDay();
+	}
+}
@@ -6,24 +6,22 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageButton;
-import android.widget.LinearLayout;
-import android.widget.TextView;
+import android.widget.ListView;
 
 import com.ese2013.mub.map.MapButtonListener;
-import com.ese2013.mub.model.DailyMenuplan;
-import com.ese2013.mub.model.Day;
 import com.ese2013.mub.model.Mensa;
-import com.ese2013.mub.model.Menu;
 import com.ese2013.mub.model.Model;
 
 /**
  * This fragment displays the weekly menu plan for the given mensa.
  */
-public class WeeklyPlanFragment extends Fragment {
+public class WeeklyPlanFragment extends Fragment implements PlanPage {
 	/**
 	 * The fragment argument representing the section number for this fragment.
 	 */
 	private Mensa mensa;
+	private WeeklyPlanAdapter adapter;
+	private ImageButton favoriteButton;
 
 	public WeeklyPlanFragment() {
 	}
@@ -36,6 +34,10 @@ public class WeeklyPlanFragment extends Fragment {
 		this.mensa = mensa;
 	}
 
+	public Mensa getMensa() {
+		return mensa;
+	}
+
 	public static WeeklyPlanFragment newInstance(Mensa mensa) {
 		WeeklyPlanFragment frag = new WeeklyPlanFragment();
 		frag.setMensa(mensa);
@@ -44,45 +46,26 @@ public class WeeklyPlanFragment extends Fragment {
 
 	@Override
 	public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
-
-		View rootView = inflater.inflate(R.layout.fragment_home_scrollable_content, container, false);
-		LinearLayout layout = (LinearLayout) rootView.findViewById(R.id.section_linear_layout);
+		ListView listView = (ListView) inflater.inflate(R.layout.fragment_home_scrollable_content, container, false);
 
 		if (Model.getInstance().noMensasLoaded())
-			return rootView;
-
-		setUpMapButton(rootView);
-		setUpFavoriteButton(rootView);
-
-		for (DailyMenuplan dailyPlan : mensa.getMenuplan()) {
-			LinearLayout menuLayout = new LinearLayout(container.getContext());
-			menuLayout.setOrientation(LinearLayout.VERTICAL);
+			return listView;
 
-			for (Menu menu : dailyPlan.getMenus()) {
-				menuLayout.addView(new MenuView(container.getContext(), menu, dailyPlan.getDay()));
-				decideToggleState(menuLayout, menu, dailyPlan.getDay());
-			}
-
-			TextView text = (TextView) inflater.inflate(R.layout.section_title_text, null);
-			text.setText(dailyPlan.getDateString());
-
-			text.setOnClickListener(new ToggleListener(menuLayout, getActivity()));
-
-			layout.addView(text);
-			layout.addView(menuLayout);
-
-		}
-		return rootView;
-	}
+		View titleBar = inflater.inflate(R.layout.page_title_bar, listView, false);
+		setUpMapButton(titleBar);
+		setUpFavoriteButton(titleBar);
+		listView.addHeaderView(titleBar, null, false);
 
-	private void decideToggleState(LinearLayout menuLayout, Menu menu, Day day) {
-		menuLayout.setVisibility((day.equals(Day.today()) ? View.VISIBLE : View.GONE));
+		adapter = new WeeklyPlanAdapter(container.getContext(), mensa.getMenuplan());
+		listView.setAdapter(adapter);
+		listView.setOnItemClickListener(adapter);
+		return listView;
 	}
 
 	private void setUpFavoriteButton(View rootView) {
-		ImageButton favorite = (ImageButton) rootView.findViewById(R.id.page_title_favorite_button);
-		favorite.setImageResource((mensa.isFavorite()) ? R.drawable.ic_fav : R.drawable.ic_fav_grey);
-		favorite.setOnClickListener(new FavoriteButtonListener(mensa, favorite));
+		favoriteButton = (ImageButton) rootView.findViewById(R.id.page_title_favorite_button);
+		favoriteButton.setImageResource((mensa.isFavorite()) ? R.drawable.ic_fav : R.drawable.ic_fav_grey);
+		favoriteButton.setOnClickListener(new FavoriteButtonListener(mensa, favoriteButton));
 	}
 
 	private void setUpMapButton(View rootView) {
@@ -91,6 +74,27 @@ public class WeeklyPlanFragment extends Fragment {
 		map.setOnClickListener(new MapButtonListener(mensa, this));
 	}
 
+	@Override
+	public boolean isUpToDate() {
+		// a page without view will show the current menus when it is created
+		return adapter == null || adapter.shows(mensa.getMenuplan());
+	}
+
+	@Override
+	public void refreshViews() {
+		if (adapter == null)
+			return;
+		favoriteButton.setImageResource((mensa.isFavorite()) ? R.drawable.ic_fav : R.drawable.ic_fav_grey);
+		adapter.notifyDataSetChanged();
+	}
+
+	@Override
+	public void onDestroyView() {
+		super.onDestroyView();
+		adapter = null;
+		favoriteButton = null;
+	}
+
 	@Override
 	public void onPause() {
 		super.onPause();
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import android.content.Context;
+import android.graphics.Color;
 import android.location.Criteria;
 import android.location.Location;
 import android.location.LocationListener;
@@ -24,9 +25,13 @@ import android.widget.Spinner;
 import android.widget.Toast;
 
 import com.ese2013.mub.R;
-import com.ese2013.mub.map.util.DirectionsDownloadTask;
 import com.ese2013.mub.map.util.NamedLocation;
 import com.ese2013.mub.map.util.NamedLocationList;
+import com.ese2013.mub.map.util.PolylineBuffer;
+import com.ese2013.mub.map.util.Route;
+import com.ese2013.mub.map.util.RouteCache;
+import com.ese2013.mub.map.util.RouteRequestCallback;
+import com.ese2013.mub.map.util.RouteRequestCoordinator;
 import com.ese2013.mub.model.Mensa;
 import com.ese2013.mub.model.Model;
 import com.google.android.gms.maps.CameraUpdateFactory;
@@ -34,8 +39,11 @@ import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.GoogleMap.OnMarkerClickListener;
 import com.google.android.gms.maps.SupportMapFragment;
 import com.google.android.gms.maps.model.BitmapDescriptorFactory;
+import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.Marker;
+import com.google.android.gms.maps.model.Polyline;
+import com.google.android.gms.maps.model.PolylineOptions;
 
 /**
  * Displays a map showing all the Mensas and, if possible, the location of the
@@ -49,19 +57,24 @@ import com.google.android.gms.maps.model.Marker;
  * will zoom to that mensa.
  * 
  */
-public class MapFragment extends Fragment {
-	private static final String TRAVEL_MODE_WALKING = "walking", TRAVEL_MODE_BICYCLE = "bicycle",
-			TRAVEL_MODE_DRIVING = "driving";
+public class MapFragment extends Fragment implements RouteRequestCallback {
 	public static final String MENSA_ID_LOCATION = "mensa.id";
+	/** Meters per pixel at the equator at zoom level 0. */
+	private static final double EQUATOR_METERS_PER_PIXEL = 156543.03392;
 	private GoogleMap map;
 	private NamedLocationList namedLocations;
 	private ArrayAdapter<NamedLocation> namedLocationsAdapter;
 	private NamedLocation currentLocation;
 	private NamedLocation selectedLocation;
 	private LocationManager locationManager;
+	private LocationListener locationListener;
 	private Spinner locationSpinner;
 	private Model model;
-	private String travelMode = TRAVEL_MODE_WALKING;
+	private RouteRequestCoordinator routeRequests;
+	private Polyline routeLine;
+	private Route drawnRoute;
+	private float drawnZoom;
+	private String travelMode = Route.TRAVEL_MODE_WALKING;
 	@Override
 	public void onCreate(Bundle savedInstanceState) {
 		super.onCreate(savedInstanceState);
@@ -80,11 +93,20 @@ public class MapFragment extends Fragment {
 			return view;
 
 		model = Model.getInstance();
+		routeRequests = new RouteRequestCoordinator(RouteCache.getInstance(getActivity()), this);
 		setLocationListener();
 		setRadioGroupListener(view);
 
+		// the map survives configuration changes, remove what the last view
+		// has added before adding the markers again
+		map.clear();
+		routeLine = null;
+		drawnRoute = null;
+		currentLocation = null;
+		selectedLocation = null;
 		namedLocations = new NamedLocationList();
 		namedLocations.addMensas(model.getMensas());
+		namedLocations.updateMarkers(map);
 
 		namedLocationsAdapter = namedLocations.createAdapter(getActivity(), android.R.layout.simple_spinner_dropdown_item);
 		locationSpinner = (Spinner) view.findViewById(R.id.focus_spinner);
@@ -169,13 +191,13 @@ public class MapFragment extends Fragment {
 				RadioButton radioButton = (RadioButton) getView().findViewById(checkedId);
 				switch (radioButton.getId()) {
 				case R.id.rb_bicycling:
-					travelMode = TRAVEL_MODE_BICYCLE;
+					travelMode = Route.TRAVEL_MODE_BICYCLE;
 					break;
 				case R.id.rb_walking:
-					travelMode = TRAVEL_MODE_WALKING;
+					travelMode = Route.TRAVEL_MODE_WALKING;
 					break;
 				case R.id.rb_driving:
-					travelMode = TRAVEL_MODE_DRIVING;
+					travelMode = Route.TRAVEL_MODE_DRIVING;
 					break;
 				}
 				repaintMap();
@@ -209,7 +231,7 @@ public class MapFragment extends Fragment {
 	 */
 	private void setLocationListener() {
 		String provider = locationManager.getBestProvider(new Criteria(), true);
-		LocationListener locationListener = new LocationListener() {
+		locationListener = new LocationListener() {
 			public void onLocationChanged(Location location) {
 				updateCurrentLocation(location);
 				repaintMap();
@@ -233,7 +255,7 @@ public class MapFragment extends Fragment {
 	}
 
 	/**
-	 * Updates the current location.
+	 * Updates the current location and moves its marker.
 	 * 
 	 * @param location
 	 *            the new current Location. Must not be null.
@@ -244,6 +266,7 @@ public class MapFragment extends Fragment {
 					BitmapDescriptorFactory.HUE_AZURE);
 		else
 			currentLocation.setLocation(location);
+		currentLocation.updateMarker(map);
 	}
 
 	/**
@@ -261,22 +284,28 @@ public class MapFragment extends Fragment {
 	private void updateSelectedLocation(NamedLocation namedLoc) {
 		if (namedLoc == null)
 			return;
-		if (selectedLocation != null)
+		if (selectedLocation != null) {
 			selectedLocation.resetColor();
+			selectedLocation.updateMarker(map);
+		}
 		selectedLocation = namedLoc;
 		selectedLocation.setColorSelected();
+		selectedLocation.updateMarker(map);
 	}
 
 	/**
-	 * Repaints the map, also updates the displayed path to a Mensa if needed
-	 * and the zoom.
+	 * Updates the displayed path to a Mensa if needed and the zoom. The
+	 * markers are not redrawn, they are updated in place when a location or
+	 * the selection changes.
 	 */
 	private void repaintMap() {
-		map.clear();
-		drawAllLocations();
 		if (currentLocationAvailable()) {
-			drawRouteFromTo(currentLocation, selectedLocation);
+			// zoom first, the route is simplified for the new zoom level
 			zoomOnContent();
+			drawRouteFromTo(currentLocation, selectedLocation);
+		} else {
+			routeRequests.cancel();
+			removeRoute();
 		}
 		updateRadioGroup();
 	}
@@ -321,33 +350,91 @@ public class MapFragment extends Fragment {
 	}
 
 	/**
-	 * Calculates and draws the path from the given origin to destination using
-	 * the callback method onDirectionsDownloadFinished
+	 * Calculates and draws the path from the given origin to destination. A
+	 * route from the RouteCache is drawn directly, else the route is requested
+	 * and drawn using the callback method onDirectionsDownloadFinished. Earlier
+	 * requests which have not been answered yet are not drawn any more.
 	 * 
 	 * @param origin
 	 *            Start NamedLocation. Must not be null.
 	 * @param destination
-	 *            Goal NamedLocation. Must not be null.
+	 *            Goal NamedLocation of a Mensa. Must not be null.
 	 */
 	private void drawRouteFromTo(NamedLocation origin, NamedLocation destination) {
-		DirectionsDownloadTask downloadTask = new DirectionsDownloadTask(origin.getLatLng(), destination.getLatLng(),
-				travelMode, this);
-		downloadTask.execute();
+		Route route = routeRequests.request(origin.getLatLng(), destination.getLatLng(), destination.getMensaId(),
+				travelMode);
+		if (route != null)
+			drawRoute(route);
+		else if (drawnRoute != null
+				&& (drawnRoute.getMensaId() != destination.getMensaId() || !drawnRoute.getTravelMode().equals(travelMode)))
+			// the old route leads somewhere else, it is not shown while loading
+			removeRoute();
 	}
 
 	/**
-	 * Callback from DirectionsDownloadTask.
+	 * Callback from RouteRequestCoordinator, only called for the latest
+	 * request.
 	 * 
-	 * @param downloadTask
-	 *            the Task which downloaded the directions.
+	 * @param route
+	 *            the loaded Route, null if it could not be downloaded.
 	 */
-	public void onDirectionsDownloadFinished(DirectionsDownloadTask downloadTask) {
-		if (downloadTask.wasSuccesful())
-			map.addPolyline(downloadTask.getPolyline());
+	@Override
+	public void onDirectionsDownloadFinished(Route route) {
+		if (map == null || getActivity() == null)
+			return;
+		if (route != null)
+			drawRoute(route);
 		else
 			showDirectionsError();
 	}
 
+	/**
+	 * Draws the given Route, simplified such that it differs from the
+	 * original by less than a pixel at the current zoom level. The line of
+	 * the previous Route is reused.
+	 * 
+	 * @param route
+	 *            Route to be drawn. Must not be null.
+	 */
+	private void drawRoute(Route route) {
+		PolylineBuffer path = route.getPath();
+		float zoom = map.getCameraPosition().zoom;
+		if (path.size() == 0 || (route == drawnRoute && zoom == drawnZoom))
+			return;
+		PolylineBuffer simplified = path.simplify(getMetersPerPixel(zoom, path.getLatitude(0)));
+		List<LatLng> points = new ArrayList<LatLng>(simplified.size());
+		for (int i = 0; i < simplified.size(); i++)
+			points.add(new LatLng(simplified.getLatitude(i), simplified.getLongitude(i)));
+		if (routeLine == null) {
+			PolylineOptions lineOptions = new PolylineOptions();
+			lineOptions.addAll(points);
+			lineOptions.width(5);
+			lineOptions.color(Color.RED);
+			routeLine = map.addPolyline(lineOptions);
+		} else {
+			routeLine.setPoints(points);
+		}
+		drawnRoute = route;
+		drawnZoom = zoom;
+	}
+
+	private void removeRoute() {
+		if (routeLine != null) {
+			routeLine.remove();
+			routeLine = null;
+		}
+		drawnRoute = null;
+	}
+
+	/**
+	 * Returns the length of a screen pixel on the map, see
+	 * https://developers.google.com/maps/documentation/javascript/coordinates
+	 */
+	private double getMetersPerPixel(float zoom, double latitude) {
+		double density = getResources().getDisplayMetrics().density;
+		return EQUATOR_METERS_PER_PIXEL * Math.cos(Math.toRadians(latitude)) / Math.pow(2, zoom) / density;
+	}
+
 	private void showDirectionsError() {
 		Toast.makeText(getActivity(), getActivity().getString(R.string.map_directions_error), Toast.LENGTH_LONG).show();
 	}
@@ -356,12 +443,6 @@ public class MapFragment extends Fragment {
 		return currentLocation != null && locationManager.isProviderEnabled(LocationManager.GPS_PROVIDER);
 	}
 
-	private void drawAllLocations() {
-		namedLocations.addMarkersToMap(map);
-		if (currentLocation != null)
-			map.addMarker(currentLocation.getMarkerOptions());
-	}
-
 	private Location getLocation() {
 		return locationManager.getLastKnownLocation(locationManager.getBestProvider(new Criteria(), true));
 	}
@@ -377,12 +458,19 @@ public class MapFragment extends Fragment {
 
 	/**
 	 * Destroy method which is called by the android framework when the view is
-	 * no longer needed. Here we remove the google map fragment which is
-	 * embedded in our own map fragment.
+	 * no longer needed. Here we stop the location updates and loading routes
+	 * and remove the google map fragment which is embedded in our own map
+	 * fragment.
 	 */
 	@Override
 	public void onDestroyView() {
 		super.onDestroyView();
+		if (locationListener != null) {
+			locationManager.removeUpdates(locationListener);
+			locationListener = null;
+		}
+		if (routeRequests != null)
+			routeRequests.shutdown();
 		if (!getActivity().isChangingConfigurations())
 			removeMapFragment();
 	}
@@ -1,17 +1,16 @@
 package com.ese2013.mub.map.util;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import com.google.android.gms.maps.model.LatLng;
+import android.util.JsonReader;
 
 /**
- * Allows to parse a Google Maps JSONObject to a list of LatLng (geographical
- * points).
+ * Allows to parse a Google Maps directions response to a
+ * {@link PolylineBuffer} (geographical points).
+ * 
+ * The response is read as a stream of tokens, only the encoded polylines of
+ * the steps of the first route are kept, everything else is skipped. So the
+ * response never has to be in memory as a whole.
  * 
  * Created after tutorial on:
  * http://wptrafficanalyzer.in/blog/drawing-driving-route
@@ -21,63 +20,92 @@ import com.google.android.gms.maps.model.LatLng;
 public class DirectionsJSONParser {
 
 	/**
-	 * Receives a JSONObject and returns a list of lists containing latitude and
-	 * longitude
+	 * Reads a directions response and returns the points of the first route.
+	 * The polylines of all steps are decoded into the same PolylineBuffer.
+	 * 
+	 * @param reader
+	 *            JsonReader positioned at the start of the response. Must not
+	 *            be null, is not closed by this method.
+	 * @return PolylineBuffer of the points of the route, empty if the response
+	 *         contains no route.
+	 * @throws IOException
+	 *             If the response could not be read or is no valid directions
+	 *             response.
 	 */
-	public List<LatLng> parse(JSONObject jObject) {
-		List<LatLng> path = new ArrayList<LatLng>();
+	public PolylineBuffer parse(JsonReader reader) throws IOException {
+		PolylineBuffer path = new PolylineBuffer();
 		try {
-			JSONArray jRoutes = jObject.getJSONArray("routes");
-			// We only need 1 route
-			JSONArray jLegs = jRoutes.getJSONObject(0).getJSONArray("legs");
-			for (int j = 0; j < jLegs.length(); j++) {
-				JSONArray jSteps = jLegs.getJSONObject(j).getJSONArray("steps");
-				for (int k = 0; k < jSteps.length(); k++) {
-					String polyline = jSteps.getJSONObject(k).getJSONObject("polyline").getString("points");
-					List<LatLng> list = decodePoly(polyline);
-					path.addAll(list);
-				}
+			reader.beginObject();
+			while (reader.hasNext()) {
+				if (reader.nextName().equals("routes"))
+					parseRoutes(reader, path);
+				else
+					reader.skipValue();
 			}
-		} catch (JSONException e) {
-			e.printStackTrace();
+			reader.endObject();
+		} catch (IllegalStateException e) {
+			// thrown by JsonReader if a value has an unexpected type
+			throw new IOException(e);
 		}
 		return path;
 	}
 
-	/**
-	 * Method to decode polyline points Courtesy :
-	 * http://jeffreysambells.com/2010
-	 * /05/27/decoding-polylines-from-google-maps-direction-api-with-java
-	 * */
-	private List<LatLng> decodePoly(String encoded) {
-
-		List<LatLng> poly = new ArrayList<LatLng>();
-		int index = 0, len = encoded.length();
-		int lat = 0, lng = 0;
+	private void parseRoutes(JsonReader reader, PolylineBuffer path) throws IOException {
+		reader.beginArray();
+		// We only need 1 route
+		if (reader.hasNext()) {
+			reader.beginObject();
+			while (reader.hasNext()) {
+				if (reader.nextName().equals("legs"))
+					parseLegs(reader, path);
+				else
+					reader.skipValue();
+			}
+			reader.endObject();
+		}
+		while (reader.hasNext())
+			reader.skipValue();
+		reader.endArray();
+	}
 
-		while (index < len) {
-			int b, shift = 0, result = 0;
-			do {
-				b = encoded.charAt(index++) - 63;
-				result |= (b & 0x1f) << shift;
-				shift += 5;
-			} while (b >= 0x20);
-			int dlat = ((result & 1) != 0 ? ~(result >> 1) : (result >> 1));
-			lat += dlat;
+	private void parseLegs(JsonReader reader, PolylineBuffer path) throws IOException {
+		reader.beginArray();
+		while (reader.hasNext()) {
+			reader.beginObject();
+			while (reader.hasNext()) {
+				if (reader.nextName().equals("steps"))
+					parseSteps(reader, path);
+				else
+					reader.skipValue();
+			}
+			reader.endObject();
+		}
+		reader.endArray();
+	}
 
-			shift = 0;
-			result = 0;
-			do {
-				b = encoded.charAt(index++) - 63;
-				result |= (b & 0x1f) << shift;
-				shift += 5;
-			} while (b >= 0x20);
-			int dlng = ((result & 1) != 0 ? ~(result >> 1) : (result >> 1));
-			lng += dlng;
+	private void parseSteps(JsonReader reader, PolylineBuffer path) throws IOException {
+		reader.beginArray();
+		while (reader.hasNext()) {
+			reader.beginObject();
+			while (reader.hasNext()) {
+				if (reader.nextName().equals("polyline"))
+					parsePolyline(reader, path);
+				else
+					reader.skipValue();
+			}
+			reader.endObject();
+		}
+		reader.endArray();
+	}
 
-			LatLng p = new LatLng((((double) lat / 1E5)), (((double) lng / 1E5)));
-			poly.add(p);
+	private void parsePolyline(JsonReader reader, PolylineBuffer path) throws IOException {
+		reader.beginObject();
+		while (reader.hasNext()) {
+			if (reader.nextName().equals("points"))
+				path.decode(reader.nextString());
+			else
+				reader.skipValue();
 		}
-		return poly;
+		reader.endObject();
 	}
-}
\ No newline at end of file
+}
@@ -1,28 +1,35 @@
 package com.ese2013.mub.map.util;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.DefaultHttpClient;
-import org.json.JSONException;
-import org.json.JSONObject;
 
-import android.net.Uri;
-import android.net.Uri.Builder;
+import android.net.http.AndroidHttpClient;
+import android.util.JsonReader;
 
 /**
  * Performs a simple HTTP request to the address specified in the constructor.
- * The result is returned as a JSONObject.
+ * The result is returned as a JsonReader, which parses the response while it
+ * is downloaded instead of keeping it in memory.
+ * 
+ * All requests share one HTTP client, which keeps the connections alive and
+ * asks the server for gzip compressed responses.
  * 
  * This class mustn't be used in the main thread. It has to be used inside
  * another thread (i.e. a asynchronous download thread).
  */
 public class JsonDataRequest {
+	private static final String USER_AGENT = "MensaUniBe";
+	private static AndroidHttpClient client;
 	private String serviceUri;
+	private volatile HttpGet httpGet;
+	private volatile boolean aborted;
 
 	/**
 	 * Creates a JsonDataRequest given a URI.
@@ -36,50 +43,59 @@ public class JsonDataRequest {
 	}
 
 	/**
-	 * Performs the HTTP request.
+	 * Performs the HTTP request and returns the response as a stream of JSON
+	 * tokens, which are read while they are downloaded.
 	 * 
-	 * @return JSONObject which contains the result of the request. Is null if
-	 *         anything went wrong: this means either that no connection could
-	 *         be established or the response of the HTTP server was no valid
-	 *         JSON string.
+	 * @return JsonReader of the response. Must be closed by the caller, which
+	 *         also releases the connection.
 	 * @throws IOException
-	 *             If download did not succeed or web service did not provide a
-	 *             valid JSON file.
+	 *             If the connection could not be established or the server did
+	 *             not respond successfully.
 	 */
-	public JSONObject execute() throws IOException {
+	public JsonReader executeStreaming() throws IOException {
+		return new JsonReader(openReader());
+	}
+
+	/**
+	 * Aborts the request, e.g. because its result is not needed any more. A
+	 * blocked read of the response then fails with an IOException. May be
+	 * called from any thread, also before the request has been executed.
+	 */
+	public void abort() {
+		aborted = true;
+		HttpGet running = httpGet;
+		if (running != null)
+			running.abort();
+	}
+
+	private Reader openReader() throws IOException {
+		HttpGet httpGet = new HttpGet(serviceUri);
+		AndroidHttpClient.modifyRequestToAcceptGzipResponse(httpGet);
+		this.httpGet = httpGet;
+		if (aborted)
+			throw new IOException("Aborted request for " + serviceUri);
 		try {
-			DefaultHttpClient client = new DefaultHttpClient();
-			Uri serviceURI = Uri.parse(serviceUri);
-			Builder uriBuilder = serviceURI.buildUpon();
-			HttpGet httpGet = new HttpGet(uriBuilder.build().toString());
-			HttpResponse response = client.execute(httpGet);
-			InputStream is = response.getEntity().getContent();
-			String inputStream = inputStreamToString(is);
-			return new JSONObject(inputStream);
-		} catch (JSONException e) {
-			throw new IOException(e);
+			HttpResponse response = getClient().execute(httpGet);
+			HttpEntity entity = response.getEntity();
+			int status = response.getStatusLine().getStatusCode();
+			if (status != HttpStatus.SC_OK) {
+				if (entity != null)
+					entity.consumeContent();
+				throw new IOException("HTTP status " + status + " for " + serviceUri);
+			}
+			if (entity == null)
+				throw new IOException("Empty response for " + serviceUri);
+			InputStream is = AndroidHttpClient.getUngzippedContent(entity);
+			return new InputStreamReader(is, "UTF-8");
 		} catch (IllegalStateException e) {
+			httpGet.abort();
 			throw new IOException(e);
 		}
 	}
 
-	/**
-	 * Converts a InputStream to a String.
-	 * 
-	 * @param is
-	 *            InputStream to be converted.
-	 * @return String with the exact same content as the input stream.
-	 * @throws IOException
-	 *             If the InputStream couldn't be read.
-	 */
-	private static String inputStreamToString(InputStream is) throws IOException {
-		BufferedReader bf = new BufferedReader(new InputStreamReader(is));
-		String line;
-		StringBuilder sb = new StringBuilder();
-		while ((line = bf.readLine()) != null) {
-			sb.append(line);
-		}
-		bf.close();
-		return sb.toString();
+	private static synchronized AndroidHttpClient getClient() {
+		if (client == null)
+			client = AndroidHttpClient.newInstance(USER_AGENT);
+		return client;
 	}
-}
\ No newline at end of file
+}
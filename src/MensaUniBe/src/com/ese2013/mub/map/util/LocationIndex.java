@@ -0,0 +1,192 @@
+package com.ese2013.mub.map.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import android.location.Location;
+
+/**
+ * Spatial index over a fixed set of Locations, which finds the Locations
+ * nearest to a point or within a radius around it without computing the
+ * distance to every Location.
+ *
+ * The index is a k-d tree over the points on the unit sphere (3D vectors).
+ * The straight-line distance between two such points grows with the
+ * great-circle distance, so the results are exact on a spherical earth,
+ * also across the poles and the 180th meridian.
+ *
+ * @param <T>
+ *            type of the indexed Locations.
+ */
+public class LocationIndex<T extends Location> {
+	private static final double EARTH_RADIUS_METERS = 6371000;
+
+	/** The entries in tree order: every range has its root in the middle. */
+	private final Entry<T>[] entries;
+
+	/**
+	 * Creates the index of the given Locations. Later changes of the
+	 * coordinates of the Locations are not reflected by the index.
+	 *
+	 * @param locations
+	 *            Collection of the Locations to be indexed. Must not be null.
+	 */
+	@SuppressWarnings("unchecked")
+	public LocationIndex(Collection<? extends T> locations) {
+		entries = new Entry[locations.size()];
+		int i = 0;
+		for (T location : locations)
+			entries[i++] = new Entry<T>(location);
+		build(0, entries.length, 0);
+	}
+
+	public int size() {
+		return entries.length;
+	}
+
+	/**
+	 * Returns the k Locations nearest to the given point.
+	 *
+	 * @param latitude
+	 *            double latitude of the point in degrees.
+	 * @param longitude
+	 *            double longitude of the point in degrees.
+	 * @param k
+	 *            int maximum number of Locations to be returned.
+	 * @return List of at most k Locations, the nearest first.
+	 */
+	public List<T> getNearest(double latitude, double longitude, int k) {
+		if (k <= 0)
+			return new ArrayList<T>();
+		double[] point = toVector(latitude, longitude);
+		PriorityQueue<Candidate<T>> best = new PriorityQueue<Candidate<T>>(k, Collections.reverseOrder());
+		searchNearest(0, entries.length, 0, point, k, best);
+		List<Candidate<T>> sorted = new ArrayList<Candidate<T>>(best);
+		Collections.sort(sorted);
+		return toLocations(sorted);
+	}
+
+	/**
+	 * Returns all Locations within the given distance from the given point.
+	 *
+	 * @param latitude
+	 *            double latitude of the point in degrees.
+	 * @param longitude
+	 *            double longitude of the point in degrees.
+	 * @param radiusMeters
+	 *            double maximum great-circle distance in meters.
+	 * @return List of the Locations within the radius, the nearest first.
+	 */
+	public List<T> getWithin(double latitude, double longitude, double radiusMeters) {
+		double[] point = toVector(latitude, longitude);
+		double angle = Math.min(radiusMeters / EARTH_RADIUS_METERS, Math.PI);
+		double chord = 2 * Math.sin(angle / 2);
+		List<Candidate<T>> found = new ArrayList<Candidate<T>>();
+		searchWithin(0, entries.length, 0, point, chord * chord, found);
+		Collections.sort(found);
+		return toLocations(found);
+	}
+
+	private void build(int from, int to, final int axis) {
+		if (to - from < 2)
+			return;
+		Arrays.sort(entries, from, to, new Comparator<Entry<T>>() {
+			@Override
+			public int compare(Entry<T> lhs, Entry<T> rhs) {
+				return Double.compare(lhs.vector[axis], rhs.vector[axis]);
+			}
+		});
+		int mid = (from + to) >>> 1;
+		build(from, mid, (axis + 1) % 3);
+		build(mid + 1, to, (axis + 1) % 3);
+	}
+
+	private void searchNearest(int from, int to, int axis, double[] point, int k, PriorityQueue<Candidate<T>> best) {
+		if (from >= to)
+			return;
+		int mid = (from + to) >>> 1;
+		Entry<T> entry = entries[mid];
+		double distance = squaredDistance(entry.vector, point);
+		if (best.size() < k) {
+			best.add(new Candidate<T>(entry.location, distance));
+		} else if (distance < best.peek().distance) {
+			best.poll();
+			best.add(new Candidate<T>(entry.location, distance));
+		}
+		double diff = point[axis] - entry.vector[axis];
+		int next = (axis + 1) % 3;
+		if (diff < 0) {
+			searchNearest(from, mid, next, point, k, best);
+			if (best.size() < k || diff * diff < best.peek().distance)
+				searchNearest(mid + 1, to, next, point, k, best);
+		} else {
+			searchNearest(mid + 1, to, next, point, k, best);
+			if (best.size() < k || diff * diff < best.peek().distance)
+				searchNearest(from, mid, next, point, k, best);
+		}
+	}
+
+	private void searchWithin(int from, int to, int axis, double[] point, double squaredChord,
+			List<Candidate<T>> found) {
+		if (from >= to)
+			return;
+		int mid = (from + to) >>> 1;
+		Entry<T> entry = entries[mid];
+		double distance = squaredDistance(entry.vector, point);
+		if (distance <= squaredChord)
+			found.add(new Candidate<T>(entry.location, distance));
+		double diff = point[axis] - entry.vector[axis];
+		int next = (axis + 1) % 3;
+		if (diff < 0 || diff * diff <= squaredChord)
+			searchWithin(from, mid, next, point, squaredChord, found);
+		if (diff >= 0 || diff * diff <= squaredChord)
+			searchWithin(mid + 1, to, next, point, squaredChord, found);
+	}
+
+	private static double squaredDistance(double[] a, double[] b) {
+		double dx = a[0] - b[0], dy = a[1] - b[1], dz = a[2] - b[2];
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	private static double[] toVector(double latitude, double longitude) {
+		double lat = Math.toRadians(latitude), lng = Math.toRadians(longitude);
+		return new double[] { Math.cos(lat) * Math.cos(lng), Math.cos(lat) * Math.sin(lng), Math.sin(lat) };
+	}
+
+	private static <T> List<T> toLocations(List<Candidate<T>> candidates) {
+		List<T> locations = new ArrayList<T>(candidates.size());
+		for (Candidate<T> candidate : candidates)
+			locations.add(candidate.location);
+		return locations;
+	}
+
+	private static class Entry<T extends Location> {
+		private final T location;
+		private final double[] vector;
+
+		private Entry(T location) {
+			this.location = location;
+			this.vector = toVector(location.getLatitude(), location.getLongitude());
+		}
+	}
+
+	private static class Candidate<T> implements Comparable<Candidate<T>> {
+		private final T location;
+		private final double distance;
+
+		private Candidate(T location, double distance) {
+			this.location = location;
+			this.distance = distance;
+		}
+
+		@Override
+		public int compareTo(Candidate<T> other) {
+			return Double.compare(distance, other.distance);
+		}
+	}
+}
@@ -3,8 +3,10 @@ package com.ese2013.mub.map.util;
 import android.location.Location;
 
 import com.ese2013.mub.model.Mensa;
+import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
 
 /**
@@ -16,6 +18,9 @@ public class NamedLocation extends Location {
 	private float color, origColor;
 	private Mensa mensa;
 	private MarkerOptions marker;
+	private Marker mapMarker;
+	private double markerLatitude, markerLongitude;
+	private float markerColor;
 
 	private NamedLocation(Location loc, String name) {
 		super(loc);
@@ -52,6 +57,51 @@ public class NamedLocation extends Location {
 		return marker.position(loc).title(name).icon(BitmapDescriptorFactory.defaultMarker(color));
 	}
 
+	/**
+	 * Shows this NamedLocation on the given map. The first call adds a
+	 * Marker, later calls only move the Marker or change its color if the
+	 * location or color has changed since.
+	 * 
+	 * @param map
+	 *            GoogleMap to show the Marker on. Must not be null and must be
+	 *            the same map on every call, until removeMarker() is called.
+	 * @return true if a new Marker has been added to the map.
+	 */
+	public boolean updateMarker(GoogleMap map) {
+		boolean added = mapMarker == null;
+		if (added) {
+			mapMarker = map.addMarker(getMarkerOptions());
+		} else {
+			if (markerLatitude != getLatitude() || markerLongitude != getLongitude())
+				mapMarker.setPosition(getLatLng());
+			if (markerColor != color)
+				mapMarker.setIcon(BitmapDescriptorFactory.defaultMarker(color));
+		}
+		markerLatitude = getLatitude();
+		markerLongitude = getLongitude();
+		markerColor = color;
+		return added;
+	}
+
+	/**
+	 * Returns the Marker of this NamedLocation.
+	 * 
+	 * @return Marker added by updateMarker(), null if there is none.
+	 */
+	public Marker getMarker() {
+		return mapMarker;
+	}
+
+	/**
+	 * Removes the Marker of this NamedLocation from the map, if there is one.
+	 */
+	public void removeMarker() {
+		if (mapMarker != null) {
+			mapMarker.remove();
+			mapMarker = null;
+		}
+	}
+
 	public String getName() {
 		return name;
 	}
@@ -70,6 +120,16 @@ public class NamedLocation extends Location {
 		return result;
 	}
 
+	/**
+	 * Returns the id of the Mensa this NamedLocation refers to.
+	 * 
+	 * @return int id of the Mensa, -1 if this NamedLocation does not refer to
+	 *         a Mensa.
+	 */
+	public int getMensaId() {
+		return mensa == null ? -1 : mensa.getId();
+	}
+
 	public boolean isLocationOfMensa(int mensaId) {
 		return mensa.getId() == mensaId;
 	}
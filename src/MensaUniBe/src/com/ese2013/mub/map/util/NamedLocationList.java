@@ -2,8 +2,10 @@ package com.ese2013.mub.map.util;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import android.content.Context;
 import android.location.Location;
@@ -11,6 +13,7 @@ import android.widget.ArrayAdapter;
 
 import com.ese2013.mub.model.Mensa;
 import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Marker;
 
 /**
@@ -19,16 +22,25 @@ import com.google.android.gms.maps.model.Marker;
  * Google Map and also retrieve a NamedLocation using mensaId, Mensa or Marker
  * from the Google Map.
  * 
+ * The locations are kept in a {@link LocationIndex}, so finding the Mensas
+ * near a location does not need to look at every Mensa.
+ * 
  */
 public class NamedLocationList {
 	private List<NamedLocation> namedLocations;
 	private HashMap<Marker, NamedLocation> markerMap = new HashMap<Marker, NamedLocation>();
+	private Map<Integer, NamedLocation> mensaLocations = new HashMap<Integer, NamedLocation>();
+	private LocationIndex<NamedLocation> index;
 
 	public void addMensas(List<Mensa> menas) {
 		List<NamedLocation> locations = new ArrayList<NamedLocation>();
-		for (Mensa m : menas)
-			locations.add(new NamedLocation(m));
+		for (Mensa m : menas) {
+			NamedLocation location = new NamedLocation(m);
+			locations.add(location);
+			mensaLocations.put(m.getId(), location);
+		}
 		namedLocations = Collections.unmodifiableList(locations);
+		index = new LocationIndex<NamedLocation>(namedLocations);
 	}
 
 	public ArrayAdapter<NamedLocation> createAdapter(Context context, int resource) {
@@ -36,10 +48,7 @@ public class NamedLocationList {
 	}
 
 	public NamedLocation getNamedLocation(int mensaId) {
-		for (NamedLocation n : namedLocations)
-			if (n.isLocationOfMensa(mensaId))
-				return n;
-		return null;
+		return mensaLocations.get(mensaId);
 	}
 
 	public NamedLocation getNamedLocation(Mensa mensa) {
@@ -55,19 +64,20 @@ public class NamedLocationList {
 	}
 
 	/**
-	 * Adds markers for the NamedLocations to the given map. Is done here to
-	 * retain a reference to the added markers to later be able to get a named
-	 * location by passing the marker (used on selection of a marker).
+	 * Shows markers for the NamedLocations on the given map. Markers are only
+	 * added the first time, later calls update the existing markers in place
+	 * (see NamedLocation.updateMarker). Is done here to retain a reference to
+	 * the added markers to later be able to get a named location by passing
+	 * the marker (used on selection of a marker).
 	 * 
 	 * @param map
-	 *            Google Map, must not be null.
+	 *            Google Map, must not be null and must be the same map on
+	 *            every call.
 	 */
-	public void addMarkersToMap(GoogleMap map) {
-		markerMap.clear();
-		for (NamedLocation n : namedLocations) {
-			Marker marker = map.addMarker(n.getMarkerOptions());
-			markerMap.put(marker, n);
-		}
+	public void updateMarkers(GoogleMap map) {
+		for (NamedLocation n : namedLocations)
+			if (n.updateMarker(map))
+				markerMap.put(n.getMarker(), n);
 	}
 
 	/**
@@ -78,15 +88,53 @@ public class NamedLocationList {
 	 * @return NamedLocation which is closest to the given Location.
 	 */
 	public NamedLocation getClosestMensa(Location location) {
-		NamedLocation result = null;
-		float smallestDist = Integer.MAX_VALUE;
-		for (NamedLocation n : namedLocations) {
-			float currentDist = location.distanceTo(n);
-			if (smallestDist > currentDist) {
-				smallestDist = currentDist;
-				result = n;
-			}
+		List<NamedLocation> nearest = index.getNearest(location.getLatitude(), location.getLongitude(), 1);
+		return nearest.isEmpty() ? null : nearest.get(0);
+	}
+
+	/**
+	 * Returns the k NamedLocations which are closest to the given Location.
+	 * 
+	 * @param location
+	 *            Location from which the closest NamedLocations are searched.
+	 * @param k
+	 *            int maximum number of NamedLocations to be returned.
+	 * @return List of at most k NamedLocations, the closest first.
+	 */
+	public List<NamedLocation> getClosestMensas(Location location, int k) {
+		return index.getNearest(location.getLatitude(), location.getLongitude(), k);
+	}
+
+	/**
+	 * Returns the NamedLocations within the given distance of the given
+	 * Location, sorted by the walking distance. The walking distance is the
+	 * length of the walking Route in the RouteCache if there is one, else the
+	 * straight distance.
+	 * 
+	 * @param location
+	 *            Location from which the NamedLocations are searched.
+	 * @param radiusMeters
+	 *            double maximum straight distance in meters.
+	 * @param routeCache
+	 *            RouteCache to look up the walking Routes. Must not be null.
+	 * @return List of the NamedLocations within the radius, the closest first.
+	 */
+	public List<NamedLocation> getMensasWithin(Location location, double radiusMeters, RouteCache routeCache) {
+		List<NamedLocation> result = index.getWithin(location.getLatitude(), location.getLongitude(), radiusMeters);
+		LatLng origin = new LatLng(location.getLatitude(), location.getLongitude());
+		final Map<NamedLocation, Double> walkingDistances = new HashMap<NamedLocation, Double>();
+		for (NamedLocation n : result) {
+			Route route = routeCache.get(origin, n.getMensaId(), Route.TRAVEL_MODE_WALKING);
+			double distance = route != null ? route.getPath().getLength() : RouteCache.distance(
+					location.getLatitude(), location.getLongitude(), n.getLatitude(), n.getLongitude());
+			walkingDistances.put(n, distance);
 		}
+		Collections.sort(result, new Comparator<NamedLocation>() {
+			@Override
+			public int compare(NamedLocation lhs, NamedLocation rhs) {
+				return walkingDistances.get(lhs).compareTo(walkingDistances.get(rhs));
+			}
+		});
 		return result;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,221 @@
+package com.ese2013.mub.map.util;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of geographical points, stored as pairs of ints in units of
+ * 1E-5 degrees (the precision of the encoded polylines of Google Maps). Unlike
+ * a List of LatLng, no object is allocated per point, so long routes can be
+ * decoded and simplified cheaply.
+ *
+ * A PolylineBuffer which has been passed to a {@link Route} must not be
+ * modified any more.
+ */
+public class PolylineBuffer {
+	private static final int DEFAULT_CAPACITY = 64;
+	private static final double E5 = 1E5;
+	/** Length of 1E-5 degrees of latitude in meters. */
+	private static final double METERS_PER_UNIT = 1.11195;
+
+	private int[] coordinates;
+	private int size;
+
+	public PolylineBuffer() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty PolylineBuffer.
+	 *
+	 * @param capacity
+	 *            int number of points which can be added before the buffer
+	 *            has to grow.
+	 */
+	public PolylineBuffer(int capacity) {
+		coordinates = new int[2 * Math.max(capacity, 1)];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	public double getLatitude(int index) {
+		return coordinates[2 * index] / E5;
+	}
+
+	public double getLongitude(int index) {
+		return coordinates[2 * index + 1] / E5;
+	}
+
+	/**
+	 * Returns the length of the polyline.
+	 *
+	 * @return double sum of the great-circle distances between the points in
+	 *         meters.
+	 */
+	public double getLength() {
+		double length = 0;
+		for (int i = 1; i < size; i++)
+			length += RouteCache.distance(getLatitude(i - 1), getLongitude(i - 1), getLatitude(i), getLongitude(i));
+		return length;
+	}
+
+	/**
+	 * Adds a point given in units of 1E-5 degrees.
+	 */
+	public void addE5(int latitudeE5, int longitudeE5) {
+		if (2 * size == coordinates.length)
+			coordinates = Arrays.copyOf(coordinates, 2 * coordinates.length);
+		coordinates[2 * size] = latitudeE5;
+		coordinates[2 * size + 1] = longitudeE5;
+		size++;
+	}
+
+	/**
+	 * Adds a point, rounded to 1E-5 degrees.
+	 */
+	public void add(double latitude, double longitude) {
+		addE5((int) Math.round(latitude * E5), (int) Math.round(longitude * E5));
+	}
+
+	/**
+	 * Decodes a polyline in the encoded format of Google Maps and adds its
+	 * points to the end of this buffer, see
+	 * https://developers.google.com/maps/documentation/utilities/polylinealgorithm
+	 *
+	 * @param encoded
+	 *            String of the encoded polyline. Must not be null.
+	 */
+	public void decode(String encoded) {
+		int index = 0, len = encoded.length();
+		int lat = 0, lng = 0;
+		while (index < len) {
+			int b, shift = 0, result = 0;
+			do {
+				b = encoded.charAt(index++) - 63;
+				result |= (b & 0x1f) << shift;
+				shift += 5;
+			} while (b >= 0x20);
+			lat += ((result & 1) != 0 ? ~(result >> 1) : (result >> 1));
+
+			shift = 0;
+			result = 0;
+			do {
+				b = encoded.charAt(index++) - 63;
+				result |= (b & 0x1f) << shift;
+				shift += 5;
+			} while (b >= 0x20);
+			lng += ((result & 1) != 0 ? ~(result >> 1) : (result >> 1));
+
+			addE5(lat, lng);
+		}
+	}
+
+	/**
+	 * Simplifies the polyline using the Douglas-Peucker algorithm: a point is
+	 * only kept if leaving it out would move the line by more than the given
+	 * tolerance. The first and the last point are always kept.
+	 *
+	 * @param toleranceMeters
+	 *            double maximum distance in meters between the simplified and
+	 *            the original line.
+	 * @return new PolylineBuffer with the kept points.
+	 */
+	public PolylineBuffer simplify(double toleranceMeters) {
+		if (size < 3) {
+			PolylineBuffer copy = new PolylineBuffer(size);
+			System.arraycopy(coordinates, 0, copy.coordinates, 0, 2 * size);
+			copy.size = size;
+			return copy;
+		}
+		// the distances are computed in a local projection, where both axes
+		// are in units of 1E-5 degrees of latitude
+		double scale = Math.cos(Math.toRadians(getLatitude(0)));
+		double tolerance = toleranceMeters / METERS_PER_UNIT;
+		double squaredTolerance = tolerance * tolerance;
+		boolean[] keep = new boolean[size];
+		keep[0] = keep[size - 1] = true;
+		int kept = 2;
+		int[] stack = new int[2 * size];
+		int top = 0;
+		stack[top++] = 0;
+		stack[top++] = size - 1;
+		while (top > 0) {
+			int last = stack[--top], first = stack[--top];
+			double maxDistance = squaredTolerance;
+			int farthest = -1;
+			for (int i = first + 1; i < last; i++) {
+				double distance = squaredSegmentDistance(i, first, last, scale);
+				if (distance > maxDistance) {
+					maxDistance = distance;
+					farthest = i;
+				}
+			}
+			if (farthest >= 0) {
+				keep[farthest] = true;
+				kept++;
+				stack[top++] = first;
+				stack[top++] = farthest;
+				stack[top++] = farthest;
+				stack[top++] = last;
+			}
+		}
+		PolylineBuffer simplified = new PolylineBuffer(kept);
+		for (int i = 0; i < size; i++)
+			if (keep[i])
+				simplified.addE5(coordinates[2 * i], coordinates[2 * i + 1]);
+		return simplified;
+	}
+
+	/**
+	 * Returns the squared distance of the point from the segment between the
+	 * points start and end.
+	 */
+	private double squaredSegmentDistance(int point, int start, int end, double scale) {
+		double x = coordinates[2 * point + 1] * scale, y = coordinates[2 * point];
+		double x1 = coordinates[2 * start + 1] * scale, y1 = coordinates[2 * start];
+		double dx = coordinates[2 * end + 1] * scale - x1, dy = coordinates[2 * end] - y1;
+		if (dx != 0 || dy != 0) {
+			double t = ((x - x1) * dx + (y - y1) * dy) / (dx * dx + dy * dy);
+			if (t > 1) {
+				x1 += dx;
+				y1 += dy;
+			} else if (t > 0) {
+				x1 += dx * t;
+				y1 += dy * t;
+			}
+		}
+		dx = x - x1;
+		dy = y - y1;
+		return dx * dx + dy * dy;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other)
+			return true;
+		if (other instanceof PolylineBuffer) {
+			PolylineBuffer otherBuffer = (PolylineBuffer) other;
+			if (size != otherBuffer.size)
+				return false;
+			for (int i = 0; i < 2 * size; i++)
+				if (coordinates[i] != otherBuffer.coordinates[i])
+					return false;
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = 17;
+		final int multiplier = 31;
+		for (int i = 0; i < 2 * size; i++)
+			result = multiplier * result + coordinates[i];
+		return result;
+	}
+}
@@ -0,0 +1,71 @@
+package com.ese2013.mub.map.util;
+
+import com.google.android.gms.maps.model.LatLng;
+
+/**
+ * A downloaded route from an origin to a Mensa for one travel mode. Routes are
+ * immutable and kept in the {@link RouteCache}.
+ */
+public class Route {
+	public static final String TRAVEL_MODE_WALKING = "walking", TRAVEL_MODE_BICYCLE = "bicycle",
+			TRAVEL_MODE_DRIVING = "driving";
+	private final double originLatitude, originLongitude;
+	private final int mensaId;
+	private final String travelMode;
+	private final long creationTime;
+	private final PolylineBuffer path;
+
+	/**
+	 * Creates a new Route.
+	 *
+	 * @param origin
+	 *            LatLng where the route starts. Must not be null.
+	 * @param mensaId
+	 *            int id of the Mensa where the route ends.
+	 * @param travelMode
+	 *            String travel mode as used by the Directions Api, e.g.
+	 *            "walking". Must not be null.
+	 * @param creationTime
+	 *            long time in milliseconds when the route has been downloaded.
+	 * @param path
+	 *            PolylineBuffer with the points of the route. Must not be null
+	 *            and must not be modified afterwards.
+	 */
+	public Route(LatLng origin, int mensaId, String travelMode, long creationTime, PolylineBuffer path) {
+		this.originLatitude = origin.latitude;
+		this.originLongitude = origin.longitude;
+		this.mensaId = mensaId;
+		this.travelMode = travelMode;
+		this.creationTime = creationTime;
+		this.path = path;
+	}
+
+	public double getOriginLatitude() {
+		return originLatitude;
+	}
+
+	public double getOriginLongitude() {
+		return originLongitude;
+	}
+
+	public int getMensaId() {
+		return mensaId;
+	}
+
+	public String getTravelMode() {
+		return travelMode;
+	}
+
+	public long getCreationTime() {
+		return creationTime;
+	}
+
+	/**
+	 * Returns the points of this Route.
+	 * 
+	 * @return PolylineBuffer of the points. Must not be modified.
+	 */
+	public PolylineBuffer getPath() {
+		return path;
+	}
+}
@@ -0,0 +1,263 @@
+package com.ese2013.mub.map.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import android.content.Context;
+import android.util.Log;
+import android.util.LruCache;
+
+import com.google.android.gms.maps.model.LatLng;
+
+/**
+ * Keeps the recently downloaded {@link Route}s, such that the map does not
+ * need to download the directions again on every repaint. A cached Route is
+ * reused as long as the requested origin is within TOLERANCE_METERS of the
+ * origin of the Route, and the Mensa and travel mode are the same.
+ *
+ * The Routes are looked up by the grid cell their origin lies in, so a lookup
+ * only needs to check the cell of the requested origin and its neighbours. At
+ * most MAX_ROUTES Routes are kept in memory (least recently used are evicted)
+ * and they are stored in a file in the cache directory of the app, such that
+ * they survive restarts of the app.
+ *
+ * This class is a singleton, use getInstance(Context). Reading and writing
+ * the file (loadFromDisk(), saveToDisk()) must not be done in the main thread.
+ */
+public class RouteCache {
+	public static final double TOLERANCE_METERS = 50;
+	public static final long MAX_AGE = 7 * 24 * 60 * 60 * 1000L;
+	private static final int MAX_ROUTES = 64, FILE_VERSION = 2, MAX_CELL_RANGE = 8;
+	/** Size of a grid cell in degrees, roughly TOLERANCE_METERS of latitude. */
+	private static final double CELL_SIZE = 0.00045;
+	private static final double EARTH_RADIUS_METERS = 6371000, METERS_PER_DEGREE = 111195;
+	private static final String FILE_NAME = "routes.cache";
+	private static RouteCache instance;
+
+	private final LruCache<Key, Route> routes = new LruCache<Key, Route>(MAX_ROUTES);
+	private final File file;
+	private boolean loaded, changed;
+
+	/**
+	 * Creates a RouteCache which stores its Routes in the given file. Usually
+	 * getInstance(Context) should be used instead.
+	 *
+	 * @param file
+	 *            File to store the Routes in. Must not be null.
+	 */
+	public RouteCache(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Returns the RouteCache of the app, creates it if necessary.
+	 *
+	 * @param context
+	 *            Context of the app, used to find the cache directory. Must not
+	 *            be null.
+	 * @return the unique RouteCache instance.
+	 */
+	public static synchronized RouteCache getInstance(Context context) {
+		if (instance == null)
+			instance = new RouteCache(new File(context.getCacheDir(), FILE_NAME));
+		return instance;
+	}
+
+	/**
+	 * Returns the cached Route for the given request, only looks at the Routes
+	 * in memory.
+	 *
+	 * @param origin
+	 *            LatLng where the route should start. Must not be null.
+	 * @param mensaId
+	 *            int id of the Mensa where the route should end.
+	 * @param travelMode
+	 *            String travel mode of the route. Must not be null.
+	 * @return the cached Route whose origin is closest to the given origin,
+	 *         null if there is no Route within TOLERANCE_METERS or it is older
+	 *         than MAX_AGE.
+	 */
+	public synchronized Route get(LatLng origin, int mensaId, String travelMode) {
+		long minCreationTime = System.currentTimeMillis() - MAX_AGE;
+		int cellLatitude = toCell(origin.latitude), cellLongitude = toCell(origin.longitude);
+		Route best = null;
+		double bestDistance = TOLERANCE_METERS;
+		// cells get narrower towards the poles, so more of them may be in reach
+		double cellWidth = CELL_SIZE * METERS_PER_DEGREE * Math.cos(Math.toRadians(origin.latitude));
+		int lngRange = (int) Math.min(MAX_CELL_RANGE, Math.ceil(TOLERANCE_METERS / Math.max(cellWidth, 1)));
+		for (int dLat = -1; dLat <= 1; dLat++) {
+			for (int dLng = -lngRange; dLng <= lngRange; dLng++) {
+				Route route = routes.get(new Key(cellLatitude + dLat, cellLongitude + dLng, mensaId, travelMode));
+				if (route == null || route.getCreationTime() < minCreationTime)
+					continue;
+				double distance = distance(origin.latitude, origin.longitude, route.getOriginLatitude(),
+						route.getOriginLongitude());
+				if (distance <= bestDistance) {
+					best = route;
+					bestDistance = distance;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Adds the given Route to the cache. It replaces a Route to the same Mensa
+	 * with the same travel mode from the same grid cell.
+	 *
+	 * @param route
+	 *            Route to be cached. Must not be null.
+	 */
+	public synchronized void put(Route route) {
+		routes.put(createKey(route), route);
+		changed = true;
+	}
+
+	/**
+	 * Reads the Routes stored in the file, if this has not been done yet.
+	 * Routes added since creating this RouteCache stay in the cache.
+	 */
+	public synchronized void loadFromDisk() {
+		if (loaded)
+			return;
+		loaded = true;
+		List<Route> cached = new ArrayList<Route>(routes.snapshot().values());
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				if (in.readInt() != FILE_VERSION)
+					return;
+				int count = in.readInt();
+				for (int i = 0; i < count; i++) {
+					Route route = readRoute(in);
+					routes.put(createKey(route), route);
+				}
+			} finally {
+				in.close();
+			}
+		} catch (FileNotFoundException e) {
+			// nothing stored yet
+		} catch (IOException e) {
+			Log.w("RouteCache", "Could not read cached routes", e);
+		}
+		// the Routes put before loading are newer than the stored ones
+		for (Route route : cached)
+			routes.put(createKey(route), route);
+	}
+
+	/**
+	 * Writes all cached Routes to the file, if any Route has been added since
+	 * the last writing.
+	 */
+	public synchronized void saveToDisk() {
+		if (!changed)
+			return;
+		File tmp = new File(file.getPath() + ".tmp");
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+			try {
+				List<Route> cached = new ArrayList<Route>(routes.snapshot().values());
+				out.writeInt(FILE_VERSION);
+				out.writeInt(cached.size());
+				for (Route route : cached)
+					writeRoute(out, route);
+			} finally {
+				out.close();
+			}
+			if (!tmp.renameTo(file))
+				throw new IOException("Could not rename " + tmp);
+			changed = false;
+		} catch (IOException e) {
+			Log.w("RouteCache", "Could not write cached routes", e);
+		}
+	}
+
+	private static Route readRoute(DataInputStream in) throws IOException {
+		LatLng origin = new LatLng(in.readDouble(), in.readDouble());
+		int mensaId = in.readInt();
+		String travelMode = in.readUTF();
+		long creationTime = in.readLong();
+		int pointCount = in.readInt();
+		PolylineBuffer path = new PolylineBuffer(pointCount);
+		for (int i = 0; i < pointCount; i++)
+			path.add(in.readDouble(), in.readDouble());
+		return new Route(origin, mensaId, travelMode, creationTime, path);
+	}
+
+	private static void writeRoute(DataOutputStream out, Route route) throws IOException {
+		out.writeDouble(route.getOriginLatitude());
+		out.writeDouble(route.getOriginLongitude());
+		out.writeInt(route.getMensaId());
+		out.writeUTF(route.getTravelMode());
+		out.writeLong(route.getCreationTime());
+		PolylineBuffer path = route.getPath();
+		out.writeInt(path.size());
+		for (int i = 0; i < path.size(); i++) {
+			out.writeDouble(path.getLatitude(i));
+			out.writeDouble(path.getLongitude(i));
+		}
+	}
+
+	private static Key createKey(Route route) {
+		return new Key(toCell(route.getOriginLatitude()), toCell(route.getOriginLongitude()), route.getMensaId(),
+				route.getTravelMode());
+	}
+
+	private static int toCell(double degrees) {
+		return (int) Math.floor(degrees / CELL_SIZE);
+	}
+
+	/**
+	 * Returns the great-circle distance between two points in meters.
+	 */
+	static double distance(double lat1, double lng1, double lat2, double lng2) {
+		double dLat = Math.toRadians(lat2 - lat1), dLng = Math.toRadians(lng2 - lng1);
+		double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) + Math.cos(Math.toRadians(lat1))
+				* Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+		return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+	}
+
+	private static class Key {
+		private final int cellLatitude, cellLongitude, mensaId;
+		private final String travelMode;
+
+		private Key(int cellLatitude, int cellLongitude, int mensaId, String travelMode) {
+			this.cellLatitude = cellLatitude;
+			this.cellLongitude = cellLongitude;
+			this.mensaId = mensaId;
+			this.travelMode = travelMode;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other)
+				return true;
+			if (other instanceof Key) {
+				Key otherKey = (Key) other;
+				return cellLatitude == otherKey.cellLatitude && cellLongitude == otherKey.cellLongitude
+						&& mensaId == otherKey.mensaId && travelMode.equals(otherKey.travelMode);
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			int result = 17;
+			final int multiplier = 31;
+			result = multiplier * result + cellLatitude;
+			result = multiplier * result + cellLongitude;
+			result = multiplier * result + mensaId;
+			result = multiplier * result + travelMode.hashCode();
+			return result;
+		}
+	}
+}
@@ -0,0 +1,12 @@
+package com.ese2013.mub.map.util;
+
+public interface RouteRequestCallback {
+	/**
+	 * Called in the main thread when the route of the latest request has been
+	 * loaded.
+	 * 
+	 * @param route
+	 *            the loaded Route, null if it could not be downloaded.
+	 */
+	public void onDirectionsDownloadFinished(Route route);
+}
@@ -0,0 +1,307 @@
+package com.ese2013.mub.map.util;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import android.util.JsonReader;
+
+import com.ese2013.mub.util.MainThreadExecutor;
+import com.google.android.gms.maps.model.LatLng;
+
+/**
+ * Loads the routes shown on the map. The map asks for a new route on every
+ * location update, most of which are only a few meters apart. Therefore the
+ * RouteRequestCoordinator:
+ * <ul>
+ * <li>waits until no new request has been made for the debounce time before
+ * downloading anything,</li>
+ * <li>cancels the download of a route which is not wanted any more,</li>
+ * <li>does not download a route again which is already being downloaded (same
+ * Mensa and travel mode, origin within RouteCache.TOLERANCE_METERS),</li>
+ * <li>only passes the route of the latest request to the callback, in the main
+ * thread.</li>
+ * </ul>
+ * 
+ * The methods request() and cancel() are meant to be called in the main thread.
+ * After use, shutdown() must be called to stop the background threads.
+ */
+public class RouteRequestCoordinator {
+	public static final long DEFAULT_DEBOUNCE = 300;
+
+	private final RouteCache routeCache;
+	private final RequestFactory requestFactory;
+	private final long debounceMillis;
+	private final Executor deliveryExecutor;
+	private final RouteRequestCallback callback;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+	private final ExecutorService downloader = Executors.newCachedThreadPool();
+	private int generation;
+	private Future<?> pending;
+	private Download inFlight;
+
+	/**
+	 * Creates the JsonDataRequests used to download the directions. Allows to
+	 * replace the network access in tests.
+	 */
+	public interface RequestFactory {
+		public JsonDataRequest createRequest(String url);
+	}
+
+	/**
+	 * Creates a RouteRequestCoordinator which downloads the directions from
+	 * Google Maps and calls the callback using the main Looper.
+	 * 
+	 * @param routeCache
+	 *            RouteCache to look up and store the routes. Must not be null.
+	 * @param callback
+	 *            RouteRequestCallback to be called with the loaded routes. Must
+	 *            not be null.
+	 */
+	public RouteRequestCoordinator(RouteCache routeCache, RouteRequestCallback callback) {
+		this(routeCache, new RequestFactory() {
+			@Override
+			public JsonDataRequest createRequest(String url) {
+				return new JsonDataRequest(url);
+			}
+		}, DEFAULT_DEBOUNCE, new MainThreadExecutor(), callback);
+	}
+
+	/**
+	 * Creates a RouteRequestCoordinator.
+	 * 
+	 * @param routeCache
+	 *            RouteCache to look up and store the routes. Must not be null.
+	 * @param requestFactory
+	 *            RequestFactory creating the requests for the directions. Must
+	 *            not be null.
+	 * @param debounceMillis
+	 *            long time in milliseconds to wait for further requests before
+	 *            downloading a route.
+	 * @param deliveryExecutor
+	 *            Executor in which the callback is called. Must not be null.
+	 * @param callback
+	 *            RouteRequestCallback to be called with the loaded routes. Must
+	 *            not be null.
+	 */
+	public RouteRequestCoordinator(RouteCache routeCache, RequestFactory requestFactory, long debounceMillis,
+			Executor deliveryExecutor, RouteRequestCallback callback) {
+		this.routeCache = routeCache;
+		this.requestFactory = requestFactory;
+		this.debounceMillis = debounceMillis;
+		this.deliveryExecutor = deliveryExecutor;
+		this.callback = callback;
+	}
+
+	/**
+	 * Requests the route from the given origin to a Mensa. All earlier
+	 * requests are superseded by this one.
+	 * 
+	 * @param origin
+	 *            LatLng where the route starts. Must not be null.
+	 * @param destination
+	 *            LatLng of the Mensa where the route ends. Must not be null.
+	 * @param mensaId
+	 *            int id of the Mensa where the route ends.
+	 * @param travelMode
+	 *            String travel mode as used by the Directions Api. Must not be
+	 *            null.
+	 * @return the Route if it is in the memory of the RouteCache. Otherwise
+	 *         null is returned and the Route is passed to the callback once it
+	 *         has been loaded.
+	 */
+	public synchronized Route request(LatLng origin, LatLng destination, int mensaId, String travelMode) {
+		generation++;
+		cancelPending();
+		Route route = routeCache.get(origin, mensaId, travelMode);
+		if (route != null) {
+			cancelInFlight();
+			return route;
+		}
+		final RouteRequest request = new RouteRequest(origin, destination, mensaId, travelMode);
+		if (inFlight != null && inFlight.request.isSameRoute(request)) {
+			inFlight.generation = generation;
+			return null;
+		}
+		cancelInFlight();
+		final int requestGeneration = generation;
+		pending = scheduler.schedule(new Runnable() {
+			@Override
+			public void run() {
+				startDownload(request, requestGeneration);
+			}
+		}, debounceMillis, TimeUnit.MILLISECONDS);
+		return null;
+	}
+
+	/**
+	 * Cancels all requests, the callback will not be called for any of them.
+	 */
+	public synchronized void cancel() {
+		generation++;
+		cancelPending();
+		cancelInFlight();
+	}
+
+	/**
+	 * Cancels all requests and stops the background threads. The
+	 * RouteRequestCoordinator cannot be used any more afterwards.
+	 */
+	public synchronized void shutdown() {
+		cancel();
+		scheduler.shutdownNow();
+		downloader.shutdownNow();
+	}
+
+	private void cancelPending() {
+		if (pending != null) {
+			pending.cancel(false);
+			pending = null;
+		}
+	}
+
+	private void cancelInFlight() {
+		if (inFlight != null) {
+			inFlight.cancel();
+			inFlight = null;
+		}
+	}
+
+	private synchronized void startDownload(RouteRequest request, int requestGeneration) {
+		if (requestGeneration != generation || downloader.isShutdown())
+			return;
+		pending = null;
+		inFlight = new Download(request, requestGeneration);
+		inFlight.future = downloader.submit(inFlight);
+	}
+
+	private synchronized void downloadFinished(Download download, final Route route) {
+		if (inFlight == download)
+			inFlight = null;
+		final int requestGeneration = download.generation;
+		if (requestGeneration != generation)
+			return;
+		deliveryExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				deliver(route, requestGeneration);
+			}
+		});
+	}
+
+	private void deliver(Route route, int requestGeneration) {
+		synchronized (this) {
+			if (requestGeneration != generation)
+				return;
+		}
+		callback.onDirectionsDownloadFinished(route);
+	}
+
+	private static String getDirectionsUrl(LatLng origin, LatLng dest, String transportMode) {
+		String str_origin = "origin=" + origin.latitude + "," + origin.longitude;
+		String str_dest = "destination=" + dest.latitude + "," + dest.longitude;
+		String sensor = "sensor=false";
+		String mode = "mode=" + transportMode;
+		String webServiceParams = str_origin + "&" + str_dest + "&" + sensor + "&" + mode;
+		String outputFormat = "json";
+		String url = "https://maps.googleapis.com/maps/api/directions/" + outputFormat + "?" + webServiceParams;
+		return url;
+	}
+
+	private static class RouteRequest {
+		private final LatLng origin, destination;
+		private final int mensaId;
+		private final String travelMode;
+
+		private RouteRequest(LatLng origin, LatLng destination, int mensaId, String travelMode) {
+			this.origin = origin;
+			this.destination = destination;
+			this.mensaId = mensaId;
+			this.travelMode = travelMode;
+		}
+
+		/**
+		 * Checks if the other request can be answered with the route of this
+		 * one, i.e. the same tolerance as in the RouteCache applies.
+		 */
+		private boolean isSameRoute(RouteRequest other) {
+			return mensaId == other.mensaId
+					&& travelMode.equals(other.travelMode)
+					&& RouteCache.distance(origin.latitude, origin.longitude, other.origin.latitude,
+							other.origin.longitude) <= RouteCache.TOLERANCE_METERS;
+		}
+	}
+
+	/**
+	 * Loads one route, from the RouteCache on disk if possible, else from
+	 * Google Maps. The generation is the one of the latest request this
+	 * download answers, it is only accessed while holding the lock of the
+	 * RouteRequestCoordinator.
+	 * 
+	 * Interrupting the thread does not stop a blocked read of the HTTP
+	 * response, therefore cancel() also aborts the JsonDataRequest.
+	 */
+	private class Download implements Runnable {
+		private final RouteRequest request;
+		private int generation;
+		private Future<?> future;
+		private volatile JsonDataRequest dataRequest;
+		private volatile boolean cancelled;
+
+		private Download(RouteRequest request, int generation) {
+			this.request = request;
+			this.generation = generation;
+		}
+
+		@Override
+		public void run() {
+			Route route = null;
+			try {
+				routeCache.loadFromDisk();
+				route = routeCache.get(request.origin, request.mensaId, request.travelMode);
+				if (route == null)
+					route = download();
+			} catch (IOException e) {
+				route = null;
+			} finally {
+				// also on a RuntimeException, e.g. from a malformed polyline
+				downloadFinished(this, route);
+			}
+		}
+
+		private void cancel() {
+			cancelled = true;
+			future.cancel(true);
+			JsonDataRequest running = dataRequest;
+			if (running != null)
+				running.abort();
+		}
+
+		private Route download() throws IOException {
+			String url = getDirectionsUrl(request.origin, request.destination, request.travelMode);
+			dataRequest = requestFactory.createRequest(url);
+			if (cancelled)
+				return null;
+			JsonReader reader = dataRequest.executeStreaming();
+			PolylineBuffer path;
+			try {
+				path = new DirectionsJSONParser().parse(reader);
+			} finally {
+				reader.close();
+			}
+			if (path.size() == 0)
+				return null;
+			Route route = new Route(request.origin, request.mensaId, request.travelMode, System.currentTimeMillis(),
+					path);
+			// also keep routes which are not wanted any more, they might be
+			// requested again soon
+			routeCache.put(route);
+			routeCache.saveToDisk();
+			return route;
+		}
+	}
+}
@@ -1,29 +1,43 @@
 package com.ese2013.mub.model;
 
+import java.text.DateFormatSymbols;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Represents a simple date composed of year, month and day. Partly wraps the
- * functionality of the java.util.Date class.
+ * Represents a simple date composed of year, month and day. Internally a Day
+ * only stores the number of days since 1970-01-01, such that comparing,
+ * hashing and computing the day of week or the week number need no Calendar.
+ * 
+ * Days are immutable. The Days created by fromEpochDay() and today() are
+ * taken from a small pool, as the same few Days are used over and over again
+ * when loading and showing the menu plans.
  */
 public class Day implements Comparable<Day> {
-	private int year, month, day;
+	private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+	private static final int POOL_SIZE = 64; // must be a power of two
+	private static final int YEAR = 0, MONTH = 1, DAY_OF_MONTH = 2;
+
+	// racy, but Days are immutable, so a lost write only costs an allocation
+	private static final Day[] pool = new Day[POOL_SIZE];
+	private static final ConcurrentHashMap<Locale, String[]> weekdayNames = new ConcurrentHashMap<Locale, String[]>();
+	private static final ConcurrentHashMap<Locale, ConcurrentHashMap<String, SimpleDateFormat>> formats = new ConcurrentHashMap<Locale, ConcurrentHashMap<String, SimpleDateFormat>>();
+
+	private final int epochDay;
 
 	/**
 	 * Creates a Day from a given java.util.Date.
 	 * 
 	 * @param date
-	 *            Date used to retrieve year, month and day. Must not be null.
+	 *            Date used to retrieve year, month and day in the default time
+	 *            zone. Must not be null.
 	 */
 	public Day(Date date) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		year = cal.get(Calendar.YEAR);
-		month = cal.get(Calendar.MONTH);
-		day = cal.get(Calendar.DAY_OF_MONTH);
+		this(toLocalEpochDay(date.getTime()));
 	}
 
 	/**
@@ -39,9 +53,59 @@ public class Day implements Comparable<Day> {
 	 *            int containing the year, must be of the form "2013"
 	 */
 	public Day(int day, int month, int year) {
-		this.year = year;
-		this.month = month - 1; // Calendar counts month from 0 to 11
-		this.day = day;
+		this(toEpochDay(year, month, day));
+	}
+
+	private Day(int epochDay) {
+		this.epochDay = epochDay;
+	}
+
+	/**
+	 * Returns the Day which is the given number of days after 1970-01-01.
+	 * 
+	 * @param epochDay
+	 *            long number of days since 1970-01-01 (may be negative).
+	 * @return Day object for the given epoch day, possibly shared with other
+	 *         callers.
+	 */
+	public static Day fromEpochDay(long epochDay) {
+		int slot = (int) epochDay & (POOL_SIZE - 1);
+		Day day = pool[slot];
+		if (day == null || day.epochDay != epochDay) {
+			day = new Day((int) epochDay);
+			pool[slot] = day;
+		}
+		return day;
+	}
+
+	/**
+	 * Returns the number of days between 1970-01-01 and this Day. Used to store
+	 * Days as integers in the database, so they can be compared and indexed
+	 * without any parsing.
+	 * 
+	 * @return long number of days since 1970-01-01.
+	 */
+	public long toEpochDay() {
+		return epochDay;
+	}
+
+	/**
+	 * Returns the day of week of this Day.
+	 * 
+	 * @return int from 0 for Monday to 6 for Sunday.
+	 */
+	public int getDayOfWeek() {
+		// 1970-01-01 was a Thursday, which is day 3 of a week starting Monday
+		return ((epochDay + 3) % 7 + 7) % 7;
+	}
+
+	/**
+	 * Returns the Monday of the week this day is in.
+	 * 
+	 * @return Day object set to the Monday of the same week.
+	 */
+	public Day getMondayOfWeek() {
+		return fromEpochDay(epochDay - getDayOfWeek());
 	}
 
 	/**
@@ -64,19 +128,23 @@ public class Day implements Comparable<Day> {
 	private Calendar getCalendar() {
 		Calendar cal = Calendar.getInstance(Locale.GERMAN);
 		cal.setTimeInMillis(0);
-		cal.set(Calendar.YEAR, year);
-		cal.set(Calendar.MONTH, month);
-		cal.set(Calendar.DAY_OF_MONTH, day);
+		cal.set(Calendar.YEAR, getField(epochDay, YEAR));
+		cal.set(Calendar.MONTH, getField(epochDay, MONTH) - 1);
+		cal.set(Calendar.DAY_OF_MONTH, getField(epochDay, DAY_OF_MONTH));
 		return cal;
 	}
 
 	/**
-	 * Returns the number of the week this day is in.
+	 * Returns the number of the week this day is in, as defined by ISO 8601
+	 * (weeks start on Monday, the first week contains the first Thursday of
+	 * the year).
 	 * 
 	 * @return Number of week.
 	 */
 	public int getWeekNumber() {
-		return getCalendar().get(Calendar.WEEK_OF_YEAR);
+		int thursday = epochDay - getDayOfWeek() + 3;
+		int firstOfYear = toEpochDay(getField(thursday, YEAR), 1, 1);
+		return (thursday - firstOfYear) / 7 + 1;
 	}
 
 	/**
@@ -92,69 +160,136 @@ public class Day implements Comparable<Day> {
 		return fm.format(getDate());
 	}
 
+	/**
+	 * Returns the Day as a String, formatted with the given pattern in the
+	 * default Locale. The formatters are cached per Locale and pattern.
+	 * 
+	 * @param pattern
+	 *            String pattern of a SimpleDateFormat. Must not be null and
+	 *            should only use year, month and day.
+	 * @return String representing the Day.
+	 */
+	public String format(String pattern) {
+		SimpleDateFormat format = getFormat(Locale.getDefault(), pattern);
+		// SimpleDateFormat is not thread safe
+		synchronized (format) {
+			return format.format(new Date(epochDay * MILLIS_PER_DAY));
+		}
+	}
+
 	/**
 	 * Returns the day of week as String (e.g. Monday, Tuesday and so on).
 	 * 
 	 * @return Day of week as String.
 	 */
 	public String getDayOfWeekString() {
-		return format(new SimpleDateFormat("EEEE", Locale.getDefault()));
+		Locale locale = Locale.getDefault();
+		String[] names = weekdayNames.get(locale);
+		if (names == null) {
+			names = DateFormatSymbols.getInstance(locale).getWeekdays();
+			weekdayNames.put(locale, names);
+		}
+		// the names are indexed by Calendar.SUNDAY (1) to Calendar.SATURDAY
+		return names[(getDayOfWeek() + 1) % 7 + Calendar.SUNDAY];
 	}
 
 	@Override
 	public String toString() {
-		return format(new SimpleDateFormat("EEEE, dd. MMMM yyyy", Locale.getDefault()));
+		return format("EEEE, dd. MMMM yyyy");
 	}
 
 	@Override
 	public boolean equals(Object other) {
-		if (other instanceof Day) {
-			Day otherDay = (Day) other;
-			if (otherDay.day != this.day || otherDay.month != this.month || otherDay.year != this.year)
-				return false;
-			return true;
-		} else {
-			return false;
-		}
+		return other instanceof Day && ((Day) other).epochDay == epochDay;
 	}
 
 	@Override
 	public int hashCode() {
-		final int multiplier = 29;
-		int hashCode = 17;
-		hashCode += year;
-		hashCode *= multiplier;
-		hashCode += month;
-		hashCode *= multiplier;
-		hashCode += day;
-		return hashCode;
+		return epochDay;
 	}
 
 	/**
-	 * Returns a new Day Object set to the current day.
+	 * Returns a Day object set to the current day.
 	 * 
 	 * @return Day object set to the current day.
 	 */
 	public static Day today() {
-		return new Day(Calendar.getInstance(Locale.getDefault()).getTime());
+		return fromEpochDay(toLocalEpochDay(System.currentTimeMillis()));
+	}
+
+	@Override
+	public int compareTo(Day another) {
+		return epochDay < another.epochDay ? -1 : (epochDay == another.epochDay ? 0 : 1);
+	}
+
+	private static SimpleDateFormat getFormat(Locale locale, String pattern) {
+		ConcurrentHashMap<String, SimpleDateFormat> localeFormats = formats.get(locale);
+		if (localeFormats == null) {
+			localeFormats = new ConcurrentHashMap<String, SimpleDateFormat>();
+			ConcurrentHashMap<String, SimpleDateFormat> existing = formats.putIfAbsent(locale, localeFormats);
+			if (existing != null)
+				localeFormats = existing;
+		}
+		SimpleDateFormat format = localeFormats.get(pattern);
+		if (format == null) {
+			format = new SimpleDateFormat(pattern, locale);
+			// the formatted Dates are midnight UTC of the epoch day
+			format.setTimeZone(TimeZone.getTimeZone("UTC"));
+			SimpleDateFormat existing = localeFormats.putIfAbsent(pattern, format);
+			if (existing != null)
+				format = existing;
+		}
+		return format;
+	}
+
+	/**
+	 * Returns the epoch day of the given point in time in the default time
+	 * zone.
+	 */
+	private static int toLocalEpochDay(long millis) {
+		long localMillis = millis + TimeZone.getDefault().getOffset(millis);
+		long epochDay = localMillis / MILLIS_PER_DAY;
+		if (localMillis % MILLIS_PER_DAY < 0)
+			epochDay--;
+		return (int) epochDay;
 	}
 
 	/**
-	 * Returns the day as string, i.e. 6.12.2013 as 20131206
+	 * Returns the number of days between 1970-01-01 and the given date.
 	 * 
-	 * @return
+	 * @param month
+	 *            int month from 1 to 12.
 	 */
-	private int asInt() {
-		int i = year;
-		i *= 100;
-		i += month;
-		i *= 100;
-		i += day;
-		return i;
+	private static int toEpochDay(int year, int month, int day) {
+		// days-from-civil, using eras of 400 years starting at 0000-03-01
+		int y = month <= 2 ? year - 1 : year;
+		int era = (y >= 0 ? y : y - 399) / 400;
+		int yearOfEra = y - era * 400;
+		int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097 + dayOfEra - 719468;
 	}
 
-	@Override
-	public int compareTo(Day another) {
-		return this.asInt() - another.asInt();
+	/**
+	 * Returns the year, month (1 to 12) or day of month of the given epoch
+	 * day.
+	 */
+	private static int getField(int epochDay, int field) {
+		// civil-from-days, inverse of toEpochDay
+		int z = epochDay + 719468;
+		int era = (z >= 0 ? z : z - 146096) / 146097;
+		int dayOfEra = z - era * 146097;
+		int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		int mp = (5 * dayOfYear + 2) / 153;
+		int month = mp < 10 ? mp + 3 : mp - 9;
+		switch (field) {
+		case YEAR:
+			return yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+		case MONTH:
+			return month;
+		default:
+			return dayOfYear - (153 * mp + 2) / 5 + 1;
+		}
 	}
 }
@@ -62,6 +62,23 @@ public class Menu {
 		this.translatedDescription = translatedDescription;
 	}
 
+	/**
+	 * Replaces the title and description, e.g. because they have been changed
+	 * on the server. The translations are cleared, as they belong to the old
+	 * texts.
+	 * 
+	 * @param title
+	 *            String new title. Must not be null.
+	 * @param description
+	 *            String new description. Must not be null.
+	 */
+	void setOrigTexts(String title, String description) {
+		this.origTitle = title;
+		this.origDescription = description;
+		this.translatedTitle = "";
+		this.translatedDescription = "";
+	}
+
 	public void setUserRating(int userRating) {
 		ratingSum += userRating;
 		ratingCount++;
@@ -0,0 +1,143 @@
+package com.ese2013.mub.model;
+
+import java.util.Locale;
+
+/**
+ * Holds everything needed to show a Menu: the upper cased title and the
+ * description in the shown language, the category (which decides the colour of
+ * the title), the rating and whether the Menu can be rated on the day it is
+ * served. These values are computed once when the MenuDisplay is created, so
+ * showing a Menu only reads fields.
+ *
+ * MenuDisplays are immutable and created by the {@link MenuDisplayCache}. If
+ * the rating of a Menu changes, its MenuDisplay is replaced.
+ */
+public class MenuDisplay {
+	/**
+	 * Kind of a Menu, derived from its original title.
+	 */
+	public static enum Category {
+		VEGETARIAN, SIMPLE, STANDARD
+	}
+
+	private final Menu menu;
+	private final Day day;
+	private final String title, description, ratingCountText;
+	private final Category category;
+	private final float averageRating;
+	private final int ratingSum, ratingCount;
+	private final boolean rateable;
+
+	/**
+	 * Creates the MenuDisplay of a Menu.
+	 *
+	 * @param menu
+	 *            Menu to be shown. Must not be null.
+	 * @param day
+	 *            Day on which the Menu is served. Must not be null.
+	 * @param translated
+	 *            true to show the translated title and description.
+	 * @param locale
+	 *            Locale used to upper case the title. Must not be null.
+	 * @param rateable
+	 *            true if the day is today or before, such that the Menu can be
+	 *            rated.
+	 */
+	MenuDisplay(Menu menu, Day day, boolean translated, Locale locale, boolean rateable) {
+		this.menu = menu;
+		this.day = day;
+		String shownTitle = translated ? menu.getTranslatedTitle() : menu.getTitle();
+		this.title = shownTitle.toUpperCase(locale);
+		this.description = translated ? menu.getTranslatedDescription() : menu.getDescription();
+		this.category = getCategory(menu.getTitle());
+		this.rateable = rateable;
+		this.ratingSum = menu.getRatingSum();
+		this.ratingCount = menu.getRatingCount();
+		this.averageRating = menu.getAverageRating();
+		this.ratingCountText = Integer.toString(ratingCount);
+	}
+
+	/**
+	 * Creates a copy of the given MenuDisplay with the current rating of its
+	 * Menu.
+	 */
+	private MenuDisplay(MenuDisplay other) {
+		this.menu = other.menu;
+		this.day = other.day;
+		this.title = other.title;
+		this.description = other.description;
+		this.category = other.category;
+		this.rateable = other.rateable;
+		this.ratingSum = menu.getRatingSum();
+		this.ratingCount = menu.getRatingCount();
+		this.averageRating = menu.getAverageRating();
+		this.ratingCountText = Integer.toString(ratingCount);
+	}
+
+	/**
+	 * Returns the category of a Menu given its original title.
+	 *
+	 * @param title
+	 *            String original (not translated) title of the Menu. Must not
+	 *            be null.
+	 * @return Category of the Menu.
+	 */
+	public static Category getCategory(String title) {
+		title = title.toUpperCase(Locale.GERMAN);
+		if (title.contains("VEGI") || title.contains("VEGETARISCH"))
+			return Category.VEGETARIAN;
+		if (title.contains("EINFACH GUT") || title.contains("TAGESGERICHT")
+				|| title.contains("WARMES SCH\u00dcSSELGERICHT"))
+			return Category.SIMPLE;
+		return Category.STANDARD;
+	}
+
+	public Menu getMenu() {
+		return menu;
+	}
+
+	public Day getDay() {
+		return day;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public Category getCategory() {
+		return category;
+	}
+
+	public float getAverageRating() {
+		return averageRating;
+	}
+
+	public String getRatingCountText() {
+		return ratingCountText;
+	}
+
+	public boolean isRateable() {
+		return rateable;
+	}
+
+	/**
+	 * Returns if the rating shown by this MenuDisplay is still the rating of
+	 * the Menu.
+	 */
+	public boolean hasCurrentRating() {
+		return ratingSum == menu.getRatingSum() && ratingCount == menu.getRatingCount();
+	}
+
+	/**
+	 * Returns a MenuDisplay with the current rating of the Menu.
+	 *
+	 * @return this if the rating did not change, a new MenuDisplay otherwise.
+	 */
+	public MenuDisplay withCurrentRating() {
+		return hasCurrentRating() ? this : new MenuDisplay(this);
+	}
+}
@@ -0,0 +1,154 @@
+package com.ese2013.mub.model;
+
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Holds the {@link MenuDisplay} of every Menu of the loaded Mensas for one
+ * language and one day. As whether a Menu can be rated depends on the day it
+ * is served, the MenuDisplays are kept per Menu and Day. The Model creates a
+ * new MenuDisplayCache after loading or translating the Menus, and whenever
+ * the shown language or the day changed, see Model.getMenuDisplays().
+ *
+ * This class must only be used in the main thread.
+ */
+public class MenuDisplayCache {
+	private final Map<Key, MenuDisplay> displays = new HashMap<Key, MenuDisplay>();
+	private final boolean translated;
+	private final Locale locale;
+	private final Day today;
+	private final long validUntil;
+
+	/**
+	 * Creates the MenuDisplays of all Menus of the given Mensas.
+	 *
+	 * @param mensas
+	 *            List of Mensas whose Menus are shown. Must not be null.
+	 * @param translated
+	 *            true to show the translated titles and descriptions.
+	 * @param locale
+	 *            Locale used to upper case the titles. Must not be null.
+	 * @param now
+	 *            Calendar set to the current time, which decides which Menus
+	 *            can be rated. Must not be null and is not modified.
+	 */
+	public MenuDisplayCache(List<Mensa> mensas, boolean translated, Locale locale, Calendar now) {
+		this.translated = translated;
+		this.locale = locale;
+		this.today = new Day(now.getTime());
+		Calendar tomorrow = (Calendar) now.clone();
+		tomorrow.set(Calendar.HOUR_OF_DAY, 0);
+		tomorrow.set(Calendar.MINUTE, 0);
+		tomorrow.set(Calendar.SECOND, 0);
+		tomorrow.set(Calendar.MILLISECOND, 0);
+		tomorrow.add(Calendar.DAY_OF_MONTH, 1);
+		this.validUntil = tomorrow.getTimeInMillis();
+
+		for (Mensa mensa : mensas)
+			for (DailyMenuplan dailyPlan : mensa.getMenuplan())
+				for (Menu menu : dailyPlan.getMenus())
+					get(menu, dailyPlan.getDay());
+	}
+
+	/**
+	 * Returns if the MenuDisplays of this cache can still be used.
+	 *
+	 * @param isTranslated
+	 *            true if the translations should be shown.
+	 * @param currentLocale
+	 *            Locale of the app. Must not be null.
+	 * @param currentTime
+	 *            long current time in milliseconds.
+	 * @return true if this cache is for the same language and the day did not
+	 *         change since it was created.
+	 */
+	public boolean isValidFor(boolean isTranslated, Locale currentLocale, long currentTime) {
+		return translated == isTranslated && locale.equals(currentLocale) && currentTime < validUntil;
+	}
+
+	/**
+	 * Returns the MenuDisplay of a Menu served on the given Day, creates it if
+	 * the Menu is not served on this Day in the loaded Mensas.
+	 * 
+	 * @param menu
+	 *            Menu to be shown. Must not be null.
+	 * @param day
+	 *            Day on which the Menu is served. Must not be null.
+	 * @return MenuDisplay of the Menu.
+	 */
+	public MenuDisplay get(Menu menu, Day day) {
+		Key key = new Key(menu.getId(), day);
+		MenuDisplay display = displays.get(key);
+		if (display == null) {
+			display = new MenuDisplay(menu, day, translated, locale, day.compareTo(today) <= 0);
+			displays.put(key, display);
+		}
+		return display;
+	}
+
+	/**
+	 * Replaces the MenuDisplays of the Menu of the given MenuDisplay if its
+	 * rating changed, e.g. because the user rated it. The MenuDisplays of the
+	 * Menu on other days are replaced as well.
+	 * 
+	 * @param display
+	 *            MenuDisplay whose Menu has a changed rating. Must not be
+	 *            null.
+	 * @return MenuDisplay with the current rating for the same Menu and Day,
+	 *         null if it is not in this cache.
+	 */
+	public MenuDisplay updateRating(MenuDisplay display) {
+		String menuId = display.getMenu().getId();
+		for (Map.Entry<Key, MenuDisplay> entry : displays.entrySet())
+			if (entry.getKey().menuId.equals(menuId))
+				entry.setValue(entry.getValue().withCurrentRating());
+		return displays.get(new Key(menuId, display.getDay()));
+	}
+
+	/**
+	 * Replaces the MenuDisplays of all Menus whose rating changed, e.g. after
+	 * the ratings have been refreshed.
+	 *
+	 * @return true if any rating changed.
+	 */
+	public boolean updateRatings() {
+		boolean changed = false;
+		for (Map.Entry<Key, MenuDisplay> entry : displays.entrySet()) {
+			if (!entry.getValue().hasCurrentRating()) {
+				entry.setValue(entry.getValue().withCurrentRating());
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Identifies a Menu served on a Day. The id is used instead of the Menu,
+	 * as the texts of a Menu, which are part of its hash code, can change.
+	 */
+	private static class Key {
+		private final String menuId;
+		private final Day day;
+
+		private Key(String menuId, Day day) {
+			this.menuId = menuId;
+			this.day = day;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Key))
+				return false;
+			Key otherKey = (Key) other;
+			return menuId.equals(otherKey.menuId) && day.equals(otherKey.day);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * menuId.hashCode() + day.hashCode();
+		}
+	}
+}
@@ -0,0 +1,207 @@
+package com.ese2013.mub.model;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over the descriptions of all Menus served on one Day. The
+ * descriptions are split into normalized tokens (lower case, diacritics
+ * removed) and every token maps to the set of (Menu, Mensa) entries whose
+ * description contains it. Looking up a search text therefore only touches the
+ * distinct tokens of the day instead of every description.
+ *
+ * A search text matches an entry if its normalized form is contained in the
+ * normalized description of the Menu, like String.contains. Many search texts
+ * can be resolved together by scanning the distinct tokens (getTokens()) and
+ * looking up their postings, see CriteriaMatcher.
+ */
+public class MenuIndex {
+	private static final Pattern DIACRITICS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+	private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+	private final Day day;
+	private final List<Mensa> entryMensas = new ArrayList<Mensa>();
+	private final List<Menu> entryMenus = new ArrayList<Menu>();
+	private final List<String> entryTexts = new ArrayList<String>();
+	private final Map<String, BitSet> postings = new HashMap<String, BitSet>();
+	private final Map<String, BitSet> resolvedTokens = new HashMap<String, BitSet>();
+
+	/**
+	 * Creates the index of all Menus which are served on the given Day in the
+	 * given Mensas.
+	 *
+	 * @param mensas
+	 *            List of Mensas to be indexed. Must not be null.
+	 * @param day
+	 *            Day of which the Menus are indexed. Must not be null.
+	 */
+	public MenuIndex(List<Mensa> mensas, Day day) {
+		this.day = day;
+		for (Mensa mensa : mensas) {
+			DailyMenuplan daily = mensa.getMenuplan().getDailymenuplan(day);
+			if (daily == null)
+				continue;
+			for (Menu menu : daily.getMenus()) {
+				int entry = entryMenus.size();
+				String text = normalize(menu.getDescription());
+				entryMensas.add(mensa);
+				entryMenus.add(menu);
+				entryTexts.add(text);
+				for (String token : tokenize(text)) {
+					BitSet entries = postings.get(token);
+					if (entries == null) {
+						entries = new BitSet();
+						postings.put(token, entries);
+					}
+					entries.set(entry);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the Day of which the Menus are indexed.
+	 *
+	 * @return Day of this index.
+	 */
+	public Day getDay() {
+		return day;
+	}
+
+	/**
+	 * Returns the number of indexed (Menu, Mensa) entries.
+	 *
+	 * @return int number of entries.
+	 */
+	public int size() {
+		return entryMenus.size();
+	}
+
+	public Menu getMenu(int entry) {
+		return entryMenus.get(entry);
+	}
+
+	public Mensa getMensa(int entry) {
+		return entryMensas.get(entry);
+	}
+
+	/**
+	 * Returns the distinct tokens of all indexed descriptions.
+	 *
+	 * @return Set of normalized tokens.
+	 */
+	public Set<String> getTokens() {
+		return Collections.unmodifiableSet(postings.keySet());
+	}
+
+	/**
+	 * Returns the entries whose description contains the given token.
+	 *
+	 * @param token
+	 *            String from getTokens().
+	 * @return BitSet of the entry numbers. Must not be modified.
+	 */
+	public BitSet getPostings(String token) {
+		BitSet entries = postings.get(token);
+		return entries == null ? new BitSet() : entries;
+	}
+
+	/**
+	 * Finds all entries whose Menu description contains the given text,
+	 * ignoring case and diacritics.
+	 *
+	 * @param text
+	 *            String to search for. Must not be null.
+	 * @return BitSet of the matching entry numbers, in the order the Mensas and
+	 *         Menus were indexed. Must not be modified.
+	 */
+	public synchronized BitSet find(String text) {
+		String normalized = normalize(text);
+		String[] tokens = tokenize(normalized);
+		if (tokens.length == 0) {
+			// only separators (e.g. a blank), which the tokens do not contain
+			BitSet result = new BitSet();
+			for (int i = 0; i < entryTexts.size(); i++)
+				if (entryTexts.get(i).contains(normalized))
+					result.set(i);
+			return result;
+		}
+
+		BitSet result = null;
+		for (String token : tokens) {
+			BitSet entries = resolve(token);
+			if (result == null) {
+				result = (BitSet) entries.clone();
+			} else {
+				result.and(entries);
+			}
+		}
+		// a single token is found exactly by the index, everything else
+		// (phrases, punctuation) needs to be checked on the candidates
+		if (tokens.length > 1 || !tokens[0].equals(normalized)) {
+			for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1))
+				if (!entryTexts.get(i).contains(normalized))
+					result.clear(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the entries containing a token which contains the given token.
+	 * The result is cached, so every distinct token is resolved only once.
+	 */
+	private BitSet resolve(String token) {
+		BitSet entries = resolvedTokens.get(token);
+		if (entries == null) {
+			entries = new BitSet();
+			for (Map.Entry<String, BitSet> posting : postings.entrySet())
+				if (posting.getKey().contains(token))
+					entries.or(posting.getValue());
+			resolvedTokens.put(token, entries);
+		}
+		return entries;
+	}
+
+	/**
+	 * Converts the given text to lower case and removes all diacritics, e.g.
+	 * "Rösti" becomes "rosti".
+	 *
+	 * @param text
+	 *            String to be normalized. Must not be null.
+	 * @return normalized String.
+	 */
+	public static String normalize(String text) {
+		String decomposed = Normalizer.normalize(text.toLowerCase(Locale.GERMAN), Normalizer.Form.NFD);
+		return DIACRITICS.matcher(decomposed).replaceAll("");
+	}
+
+	/**
+	 * Returns if the given normalized text can only be contained within a
+	 * single token, i.e. it is not empty and contains no separator.
+	 *
+	 * @param normalized
+	 *            String normalized by normalize(). Must not be null.
+	 * @return true if the text is part of a single token.
+	 */
+	public static boolean isWithinToken(String normalized) {
+		return !normalized.isEmpty() && !SEPARATORS.matcher(normalized).find();
+	}
+
+	private static String[] tokenize(String normalized) {
+		String[] tokens = SEPARATORS.split(normalized);
+		if (tokens.length > 0 && tokens[0].isEmpty()) {
+			String[] trimmed = new String[tokens.length - 1];
+			System.arraycopy(tokens, 1, trimmed, 0, trimmed.length);
+			return trimmed;
+		}
+		return tokens;
+	}
+}
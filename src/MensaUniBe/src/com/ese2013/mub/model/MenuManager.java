@@ -1,19 +1,24 @@
 package com.ese2013.mub.model;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import com.ese2013.mub.model.Mensa.MensaBuilder;
 import com.ese2013.mub.model.Menu.MenuBuilder;
 
 /**
  * Responsible to manage the list of all menus. Assures that the Menu objects
  * are unique by there id. All Menus should be created by calling the
- * MenuManager.
+ * MenuManager. The menus can be read while they are being created in a
+ * background task.
  * 
  */
 public class MenuManager {
-	private HashMap<String, Menu> menuMap = new HashMap<String, Menu>();
+	private ConcurrentHashMap<String, Menu> menuMap = new ConcurrentHashMap<String, Menu>();
 	private boolean translationsEnabled, translationsAvailable;
 
 	public Collection<Menu> getMenus() {
@@ -73,6 +78,76 @@ public class MenuManager {
 		return createMenu(id, title, description, "", "");
 	}
 
+	/**
+	 * Creates a menu with the given id, title and description, or updates the
+	 * title and description of the existing menu with this id. Used when
+	 * downloading changed menus, as the texts of a menu can be edited on the
+	 * server. If the texts of an existing menu changed, its translations are
+	 * cleared and the translations are marked as not available.
+	 * 
+	 * @param id
+	 *            String id of the Menu. Must not be null.
+	 * @param title
+	 *            String current title of the Menu. Must not be null.
+	 * @param description
+	 *            String current description of the Menu. Must not be null.
+	 * @return The new or updated Menu object.
+	 */
+	public Menu updateMenu(String id, String title, String description) {
+		Menu menu = createMenu(id, title, description);
+		if (!menu.getOrigTitle().equals(title) || !menu.getOrigDescription().equals(description)) {
+			menu.setOrigTexts(title, description);
+			translationsAvailable = false;
+		}
+		return menu;
+	}
+
+	/**
+	 * Copies the given Mensas, such that the Menus of the copies are managed by
+	 * this MenuManager. Used to continue with Mensas which have been loaded
+	 * into another MenuManager, without modifying them.
+	 * 
+	 * @param mensas
+	 *            List of Mensas to be copied. Must not be null.
+	 * @return List of new Mensa objects in the same order, with new
+	 *         WeeklyMenuplans containing the Menus of this MenuManager.
+	 */
+	public List<Mensa> copyMensas(List<Mensa> mensas) {
+		List<Mensa> copies = new ArrayList<Mensa>(mensas.size());
+		for (Mensa mensa : mensas) {
+			Mensa copy = new MensaBuilder().setId(mensa.getId()).setName(mensa.getName())
+					.setStreet(mensa.getStreet()).setZip(mensa.getZip()).setLongitude(mensa.getLongitude())
+					.setLatitude(mensa.getLatitude()).setIsFavorite(mensa.isFavorite()).build();
+			WeeklyMenuplan plan = new WeeklyMenuplan();
+			for (DailyMenuplan dailyPlan : mensa.getMenuplan()) {
+				for (Menu menu : dailyPlan.getMenus()) {
+					Menu ownMenu = createMenu(menu.getId(), menu.getOrigTitle(), menu.getOrigDescription(),
+							menu.getTranslatedTitle(), menu.getTranslatedDescription());
+					ownMenu.setRatingSum(menu.getRatingSum());
+					ownMenu.setRatingCount(menu.getRatingCount());
+					plan.add(ownMenu, dailyPlan.getDay());
+				}
+			}
+			copy.setMenuplan(plan);
+			copies.add(copy);
+		}
+		return copies;
+	}
+
+	/**
+	 * Removes all menus whose id is not contained in the given set, e.g.
+	 * because they are not served anymore.
+	 * 
+	 * @param menuIds
+	 *            Set of ids of the menus to be kept. Must not be null.
+	 */
+	public void retainMenus(Set<String> menuIds) {
+		Iterator<String> it = menuMap.keySet().iterator();
+		while (it.hasNext())
+			if (!menuIds.contains(it.next()))
+				it.remove();
+	}
+
 	public boolean isTranslationEnabled() {
 		return translationsEnabled;
 	}
@@ -1,12 +1,18 @@
 package com.ese2013.mub.model;
 
 import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Locale;
 
+import com.ese2013.mub.model.ModelChangeEvent.Type;
+import com.ese2013.mub.util.EventBus;
 import com.ese2013.mub.util.ModelCreationTask;
 import com.ese2013.mub.util.ModelCreationTaskCallback;
 import com.ese2013.mub.util.ModelSavingTask;
-import com.ese2013.mub.util.Observable;
+import com.ese2013.mub.util.RatingsRefreshTask;
+import com.ese2013.mub.util.RatingsRefreshTaskCallback;
 import com.ese2013.mub.util.SharedPrefsHandler;
 import com.ese2013.mub.util.TranslationTask;
 import com.ese2013.mub.util.TranslationTaskCallback;
@@ -15,15 +21,20 @@ import com.memetix.mst.language.Language;
 
 /**
  * Manages the loading and storing of the whole model. This class holds the list
- * of all Mensas. It also initializes and updates this list. If the list of
- * Mensas is updated, all Observers are notified (e.g. GUI classes). This class
- * is a singleton and should be initialised by calling init().
+ * of all Mensas. It also initializes and updates this list. If the Mensas,
+ * the ratings, the translations or the favorites change, a
+ * {@link ModelChangeEvent} telling what changed is posted on the EventBus of
+ * the Model (e.g. to GUI classes). This class is a singleton and should be
+ * initialised by calling init().
  */
-public class Model extends Observable implements ModelCreationTaskCallback, TranslationTaskCallback {
+public class Model implements ModelCreationTaskCallback, TranslationTaskCallback, RatingsRefreshTaskCallback {
 	private List<Mensa> mensas = new ArrayList<Mensa>();
 	private MenuManager menuManager;
+	private MenuIndex menuIndex;
+	private MenuDisplayCache menuDisplays;
 	private MensaDataSource dataSource;
 	private SharedPrefsHandler prefs;
+	private final EventBus<Type, ModelChangeEvent> eventBus = new EventBus<Type, ModelChangeEvent>(Type.class);
 	private static Model instance;
 
 	/**
@@ -46,6 +57,15 @@ public class Model extends Observable implements ModelCreationTaskCallback, Tran
 		return instance;
 	}
 
+	/**
+	 * Returns the EventBus on which the changes of the Model are posted.
+	 * 
+	 * @return EventBus for the ModelChangeEvents, never null.
+	 */
+	public EventBus<Type, ModelChangeEvent> getEventBus() {
+		return eventBus;
+	}
+
 	/**
 	 * Used to initialize the Model asynchronously. This must be called once on
 	 * startup. The instance is created automatically when getInstance() is
@@ -89,6 +109,44 @@ public class Model extends Observable implements ModelCreationTaskCallback, Tran
 		return menuManager;
 	}
 
+	/**
+	 * Returns the index over the descriptions of all Menus served today. The
+	 * index is built when the Mensas are loaded and rebuilt if the day changed
+	 * since.
+	 * 
+	 * @return MenuIndex of the Menus of today.
+	 */
+	public MenuIndex getMenuIndex() {
+		Day today = Day.today();
+		if (menuIndex == null || !menuIndex.getDay().equals(today))
+			menuIndex = new MenuIndex(mensas, today);
+		return menuIndex;
+	}
+
+	/**
+	 * Returns the precomputed MenuDisplays of all loaded Menus. They are
+	 * created after the Menus are loaded or translated, and created again if
+	 * the translation setting, the Locale or the day changed since.
+	 * 
+	 * @return MenuDisplayCache for the current language and day.
+	 */
+	public MenuDisplayCache getMenuDisplays() {
+		boolean translated = menuManager.isTranslationEnabled() && menuManager.translationsAvailable();
+		if (menuDisplays == null
+				|| !menuDisplays.isValidFor(translated, Locale.getDefault(), System.currentTimeMillis()))
+			menuDisplays = new MenuDisplayCache(mensas, translated, Locale.getDefault(), Calendar.getInstance());
+		return menuDisplays;
+	}
+
+	/**
+	 * Creates the MenuDisplays of the loaded Menus, such that they are ready
+	 * when the Menus are shown.
+	 */
+	private void createMenuDisplays() {
+		menuDisplays = null;
+		getMenuDisplays();
+	}
+
 	/**
 	 * Returns the list of favorite Mensas.
 	 * 
@@ -139,6 +197,21 @@ public class Model extends Observable implements ModelCreationTaskCallback, Tran
 		return mensa;
 	}
 
+	/**
+	 * Adds a Mensa to the favorites or removes it, and posts the change.
+	 * 
+	 * @param mensa
+	 *            Mensa to be changed. Must not be null.
+	 * @param isFavorite
+	 *            true if the Mensa should be a favorite Mensa.
+	 */
+	public void setFavorite(Mensa mensa, boolean isFavorite) {
+		if (mensa.isFavorite() == isFavorite)
+			return;
+		mensa.setIsFavorite(isFavorite);
+		eventBus.post(new ModelChangeEvent(Type.FAVORITES));
+	}
+
 	/**
 	 * Saves the favorite Mensas to the local data source.
 	 */
@@ -148,17 +221,52 @@ public class Model extends Observable implements ModelCreationTaskCallback, Tran
 		dataSource.close();
 	}
 
+	@Override
+	public void onStaleModelLoaded(ModelCreationTask task) {
+		mensas = task.getStaleMensas();
+		menuIndex = new MenuIndex(mensas, Day.today());
+		createMenuDisplays();
+		eventBus.post(new ModelChangeEvent(EnumSet.of(Type.MENUS),
+				com.ese2013.mub.R.string.loading_checking_for_update));
+	}
+
 	@Override
 	public void onModelCreationTaskFinished(ModelCreationTask task) {
+		EnumSet<Type> changes = EnumSet.noneOf(Type.class);
 		if (task.wasSuccessful()) {
-			mensas = task.getMensas();
+			if (updateMensas(task.getMensas()))
+				changes.add(Type.MENUS);
+			menuIndex = new MenuIndex(mensas, Day.today());
+			createMenuDisplays();
 			if (menuManager.isTranslationEnabled() && !menuManager.translationsAvailable())
-				new TranslationTask(menuManager, Language.ENGLISH, this).execute();
+				new TranslationTask(menuManager, Language.ENGLISH, dataSource, this).execute();
 
 			if (task.hasDownloadedNewData())
-				saveModel();
+				new ModelSavingTask(mensas, dataSource, task.getSyncWatermark()).execute();
+			refreshRatings(false);
+		}
+		eventBus.post(new ModelChangeEvent(changes, task.getStatusMsgResource()));
+	}
+
+	/**
+	 * Starts refreshing the Menu ratings asynchronously. A change is only
+	 * posted if any rating changed.
+	 * 
+	 * @param force
+	 *            true to download the ratings even if the stored ratings are
+	 *            still up to date.
+	 */
+	public void refreshRatings(boolean force) {
+		new RatingsRefreshTask(menuManager, dataSource, force, this).execute();
+	}
+
+	@Override
+	public void onRatingsRefreshTaskFinished(RatingsRefreshTask task) {
+		if (task.hasChangedRatings()) {
+			if (menuDisplays != null)
+				menuDisplays.updateRatings();
+			eventBus.post(new ModelChangeEvent(Type.RATINGS));
 		}
-		notifyChanges(task.getStatusMsgResource());
 	}
 
 	@Override
@@ -166,14 +274,38 @@ public class Model extends Observable implements ModelCreationTaskCallback, Tran
 		if (task.hasSucceeded()) {
 			prefs.setTranslationAvailable(true);
 			menuManager.setTranslationsAvailable(true);
+			createMenuDisplays();
 			saveModel();
-			notifyChanges();
+			eventBus.post(new ModelChangeEvent(Type.TRANSLATION));
 		} else {
 			prefs.setTranslationAvailable(false);
 			menuManager.setTranslationsAvailable(false);
 		}
 	}
 
+	/**
+	 * Replaces the list of Mensas. The favorites which were set while the new
+	 * Mensas were loaded are kept. The list is replaced even if it did not
+	 * change, as only the Menus of the new Mensas are managed by the
+	 * MenuManager (e.g. the shown stale Mensas have their own MenuManager).
+	 * 
+	 * @param newMensas
+	 *            List of newly loaded Mensas.
+	 * @return true if the list of Mensas has been replaced, such that the
+	 *         shown Mensa objects have to be replaced as well.
+	 */
+	private boolean updateMensas(List<Mensa> newMensas) {
+		if (newMensas == mensas)
+			return false;
+		for (Mensa newMensa : newMensas) {
+			Mensa oldMensa = getMensaById(newMensa.getId());
+			if (oldMensa != null)
+				newMensa.setIsFavorite(oldMensa.isFavorite());
+		}
+		mensas = newMensas;
+		return true;
+	}
+
 	/**
 	 * Initiates asynchronous saving of the whole Model, this means saving
 	 * Mensas and their Menus to the local database.
@@ -0,0 +1,104 @@
+package com.ese2013.mub.model;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.ese2013.mub.util.BusEvent;
+
+/**
+ * Describes a change of the Model, posted on the EventBus of the Model. An
+ * event tells which parts of the Model changed, such that a Subscriber only
+ * receives the changes of the parts it shows. It can also carry a status
+ * message to be shown to the user.
+ */
+public class ModelChangeEvent implements BusEvent<ModelChangeEvent.Type, ModelChangeEvent> {
+	/**
+	 * Part of the Model which changed.
+	 */
+	public static enum Type {
+		/** The Mensas or their menu plans have been replaced. */
+		MENUS,
+		/** The ratings of some Menus changed. */
+		RATINGS,
+		/** A Mensa has been added to or removed from the favorites. */
+		FAVORITES,
+		/** The translations of the Menus became available. */
+		TRANSLATION,
+		/** A status message for the user is available. */
+		STATUS
+	}
+
+	private static final int NO_STATUS_MESSAGE = 0;
+	private final EnumSet<Type> types;
+	private final int statusMessage;
+
+	/**
+	 * Creates an event for a single change without status message.
+	 *
+	 * @param type
+	 *            Type of the change. Must not be null.
+	 */
+	public ModelChangeEvent(Type type) {
+		this(EnumSet.of(type), NO_STATUS_MESSAGE);
+	}
+
+	/**
+	 * Creates an event for any number of changes.
+	 *
+	 * @param types
+	 *            EnumSet of the changed parts, may be empty if only the status
+	 *            message should be shown. Must not be null, is copied.
+	 * @param statusMessage
+	 *            int resource id of the status message, 0 if there is none.
+	 *            Adds the type STATUS if given.
+	 */
+	public ModelChangeEvent(EnumSet<Type> types, int statusMessage) {
+		this.types = EnumSet.copyOf(types);
+		this.statusMessage = statusMessage;
+		if (hasStatusMessage())
+			this.types.add(Type.STATUS);
+	}
+
+	/**
+	 * Returns if the given part of the Model changed.
+	 */
+	public boolean contains(Type type) {
+		return types.contains(type);
+	}
+
+	public boolean hasStatusMessage() {
+		return statusMessage != NO_STATUS_MESSAGE;
+	}
+
+	/**
+	 * Returns the status message of this event.
+	 *
+	 * @return int resource id of the message, 0 if there is none.
+	 */
+	public int getStatusMessage() {
+		return statusMessage;
+	}
+
+	@Override
+	public Set<Type> getTypes() {
+		return Collections.unmodifiableSet(types);
+	}
+
+	/**
+	 * Merges the changes of both events. The status message of the later
+	 * event is kept if it has one.
+	 */
+	@Override
+	public ModelChangeEvent mergeWith(ModelChangeEvent later) {
+		EnumSet<Type> merged = EnumSet.copyOf(types);
+		merged.addAll(later.types);
+		merged.remove(Type.STATUS);
+		return new ModelChangeEvent(merged, later.hasStatusMessage() ? later.statusMessage : statusMessage);
+	}
+
+	@Override
+	public String toString() {
+		return "ModelChangeEvent " + types + (hasStatusMessage() ? " message " + statusMessage : "");
+	}
+}
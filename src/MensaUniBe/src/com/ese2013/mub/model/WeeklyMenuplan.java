@@ -1,7 +1,8 @@
 package com.ese2013.mub.model;
 
 import java.util.Iterator;
-import java.util.Set;
+import java.util.LinkedHashMap;
+import java.util.SortedSet;
 import java.util.TreeMap;
 
 /**
@@ -32,6 +33,48 @@ public class WeeklyMenuplan implements Iterable<DailyMenuplan> {
 		}
 	}
 
+	/**
+	 * Merges the menus of the given plan into this plan. On every day contained
+	 * in the given plan, a menu with the same id as a changed menu is replaced
+	 * by the changed one, new menus are added and all other menus of that day
+	 * are kept. Days which are not contained in the given plan stay untouched.
+	 * 
+	 * The DailyMenuplans of the changed days are replaced by new instances, so
+	 * DailyMenuplans which have been returned before are not modified.
+	 * 
+	 * @param changes
+	 *            WeeklyMenuplan containing the changed menus. Must not be
+	 *            null.
+	 */
+	public void mergeDays(WeeklyMenuplan changes) {
+		for (DailyMenuplan changedDay : changes) {
+			DailyMenuplan oldDay = dailymenus.get(changedDay.getDay());
+			if (oldDay == null) {
+				dailymenus.put(changedDay.getDay(), changedDay);
+				continue;
+			}
+			LinkedHashMap<String, Menu> merged = new LinkedHashMap<String, Menu>();
+			for (Menu menu : oldDay.getMenus())
+				merged.put(menu.getId(), menu);
+			for (Menu menu : changedDay.getMenus())
+				merged.put(menu.getId(), menu);
+			DailyMenuplan newDay = new DailyMenuplan(changedDay.getDay());
+			for (Menu menu : merged.values())
+				newDay.add(menu);
+			dailymenus.put(newDay.getDay(), newDay);
+		}
+	}
+
+	/**
+	 * Removes all days which are before the given day.
+	 * 
+	 * @param firstDay
+	 *            First Day to be kept. Must not be null.
+	 */
+	public void removeDaysBefore(Day firstDay) {
+		dailymenus.headMap(firstDay).clear();
+	}
+
 	/**
 	 * Returns the DailyMenuplan containing all menus of the given day.
 	 * 
@@ -55,11 +98,11 @@ public class WeeklyMenuplan implements Iterable<DailyMenuplan> {
 	/**
 	 * Returns all Days which belong to plan.
 	 * 
-	 * @return Set of Days contained in the plan. (which means days which have
-	 *         menus associated to them)
+	 * @return Sorted set of Days contained in the plan. (which means days
+	 *         which have menus associated to them)
 	 */
-	public Set<Day> getDays() {
-		return dailymenus.keySet();
+	public SortedSet<Day> getDays() {
+		return dailymenus.navigableKeySet();
 	}
 
 	/**
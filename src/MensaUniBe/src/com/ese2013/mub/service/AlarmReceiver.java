@@ -1,15 +1,24 @@
 package com.ese2013.mub.service;
 
-import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
+import android.support.v4.content.WakefulBroadcastReceiver;
+
 /**
- * Receives a BroadCast and starts the Notification Service.
+ * Receives the alarms of the {@link Scheduler} and starts the
+ * {@link ScheduledJobService} or {@link NotificationService} if the
+ * constraints of the job are met. Holds a wake lock until the job is done.
  */
-public class AlarmReceiver extends BroadcastReceiver {
+public class AlarmReceiver extends WakefulBroadcastReceiver {
 
 	@Override
 	public void onReceive(Context context, Intent intent) {
-		context.startService(new Intent(context, NotificationService.class));
+		int jobId = intent.getIntExtra(Scheduler.EXTRA_JOB_ID, Scheduler.JOB_NOTIFICATION);
+		if (new Scheduler(context).onAlarm(jobId)) {
+			Intent service = new Intent(context, jobId == Scheduler.JOB_NOTIFICATION ? NotificationService.class
+					: ScheduledJobService.class);
+			service.putExtra(Scheduler.EXTRA_JOB_ID, jobId);
+			startWakefulService(context, service);
+		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,195 @@
+package com.ese2013.mub.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.ese2013.mub.model.MenuIndex;
+
+/**
+ * Aho-Corasick automaton over a set of criteria. A text is scanned once to
+ * find all criteria it contains, no matter how many criteria there are. Like
+ * the {@link MenuIndex}, the automaton ignores case and diacritics, so the
+ * texts to be scanned must be normalized with MenuIndex.normalize().
+ *
+ * Compiling the automaton is the expensive part, so the automaton of the last
+ * criteria set is kept and reused until the criteria change (see
+ * forCriteria()).
+ */
+public class CriteriaAutomaton {
+	private static CriteriaAutomaton cached;
+
+	private final Set<String> criteriaSet;
+	private final List<String> criteria;
+	private char[][] edgeChars;
+	private int[][] edgeTargets;
+	private int[] fail;
+	private int[][] outputs;
+
+	/**
+	 * Compiles the automaton of the given criteria.
+	 *
+	 * @param criteriaSet
+	 *            Set of criteria Strings. Must not be null.
+	 */
+	public CriteriaAutomaton(Set<String> criteriaSet) {
+		this.criteriaSet = Collections.unmodifiableSet(new LinkedHashSet<String>(criteriaSet));
+		this.criteria = new ArrayList<String>(this.criteriaSet);
+		compile();
+	}
+
+	/**
+	 * Returns the automaton of the given criteria. The last compiled automaton
+	 * is reused as long as the criteria set stays the same.
+	 *
+	 * @param criteriaSet
+	 *            Set of criteria Strings, e.g. from
+	 *            SharedPrefsHandler.getNotificationListItems(). Must not be
+	 *            null.
+	 * @return CriteriaAutomaton for the given criteria.
+	 */
+	public static synchronized CriteriaAutomaton forCriteria(Set<String> criteriaSet) {
+		if (cached == null || !cached.criteriaSet.equals(criteriaSet))
+			cached = new CriteriaAutomaton(criteriaSet);
+		return cached;
+	}
+
+	/**
+	 * Returns the number of criteria of this automaton.
+	 *
+	 * @return int number of criteria.
+	 */
+	public int size() {
+		return criteria.size();
+	}
+
+	/**
+	 * Returns the criteria with the given number, as used in the BitSet
+	 * returned by findAll().
+	 *
+	 * @param number
+	 *            int number of the criteria, from 0 to size() - 1.
+	 * @return criteria String as it was given when compiling.
+	 */
+	public String getCriteria(int number) {
+		return criteria.get(number);
+	}
+
+	/**
+	 * Finds all criteria contained in the given text.
+	 *
+	 * @param normalizedText
+	 *            String normalized by MenuIndex.normalize(). Must not be null.
+	 * @return BitSet of the numbers of all contained criteria.
+	 */
+	public BitSet findAll(String normalizedText) {
+		BitSet found = new BitSet(criteria.size());
+		addOutputs(0, found);
+		int state = 0;
+		for (int i = 0; i < normalizedText.length(); i++) {
+			char c = normalizedText.charAt(i);
+			int next = next(state, c);
+			while (next < 0 && state != 0) {
+				state = fail[state];
+				next = next(state, c);
+			}
+			state = next < 0 ? 0 : next;
+			addOutputs(state, found);
+		}
+		return found;
+	}
+
+	private void addOutputs(int state, BitSet found) {
+		for (int number : outputs[state])
+			found.set(number);
+	}
+
+	private int next(int state, char c) {
+		int edge = Arrays.binarySearch(edgeChars[state], c);
+		return edge < 0 ? -1 : edgeTargets[state][edge];
+	}
+
+	/**
+	 * Builds the trie of all criteria, then computes the failure links and the
+	 * outputs of every state breadth first.
+	 */
+	private void compile() {
+		List<TreeMap<Character, Integer>> trie = new ArrayList<TreeMap<Character, Integer>>();
+		List<List<Integer>> trieOutputs = new ArrayList<List<Integer>>();
+		trie.add(new TreeMap<Character, Integer>());
+		trieOutputs.add(new ArrayList<Integer>());
+		for (int number = 0; number < criteria.size(); number++) {
+			String pattern = MenuIndex.normalize(criteria.get(number));
+			int state = 0;
+			for (int i = 0; i < pattern.length(); i++) {
+				Integer next = trie.get(state).get(pattern.charAt(i));
+				if (next == null) {
+					next = trie.size();
+					trie.get(state).put(pattern.charAt(i), next);
+					trie.add(new TreeMap<Character, Integer>());
+					trieOutputs.add(new ArrayList<Integer>());
+				}
+				state = next;
+			}
+			trieOutputs.get(state).add(number);
+		}
+
+		int states = trie.size();
+		edgeChars = new char[states][];
+		edgeTargets = new int[states][];
+		for (int state = 0; state < states; state++) {
+			TreeMap<Character, Integer> edges = trie.get(state);
+			edgeChars[state] = new char[edges.size()];
+			edgeTargets[state] = new int[edges.size()];
+			int edge = 0;
+			for (Map.Entry<Character, Integer> e : edges.entrySet()) {
+				edgeChars[state][edge] = e.getKey();
+				edgeTargets[state][edge] = e.getValue();
+				edge++;
+			}
+		}
+
+		fail = new int[states];
+		outputs = new int[states][];
+		outputs[0] = toArray(trieOutputs.get(0));
+		Queue<Integer> queue = new LinkedList<Integer>();
+		for (int target : edgeTargets[0]) {
+			fail[target] = 0;
+			queue.add(target);
+		}
+		while (!queue.isEmpty()) {
+			int state = queue.remove();
+			// the fail state is closer to the root, so its outputs are final
+			List<Integer> out = trieOutputs.get(state);
+			for (int number : outputs[fail[state]])
+				out.add(number);
+			outputs[state] = toArray(out);
+
+			for (int edge = 0; edge < edgeChars[state].length; edge++) {
+				char c = edgeChars[state][edge];
+				int target = edgeTargets[state][edge];
+				int f = fail[state];
+				while (f != 0 && next(f, c) < 0)
+					f = fail[f];
+				int next = next(f, c);
+				fail[target] = next < 0 ? 0 : next;
+				queue.add(target);
+			}
+		}
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++)
+			array[i] = list.get(i);
+		return array;
+	}
+}
@@ -1,28 +1,28 @@
 package com.ese2013.mub.service;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
-import com.ese2013.mub.model.DailyMenuplan;
 import com.ese2013.mub.model.Day;
 import com.ese2013.mub.model.Mensa;
 import com.ese2013.mub.model.Menu;
-import com.ese2013.mub.model.WeeklyMenuplan;
+import com.ese2013.mub.model.MenuIndex;
 
 /**
  * 
- * This class works the CriteriaMatcher Algoritm and ensures 
+ * This class works the CriteriaMatcher Algoritm. The criteria are resolved
+ * against the {@link MenuIndex} of the Menus of today: every distinct token of
+ * the index is scanned once for all criteria together, using a
+ * {@link CriteriaAutomaton}, and the postings of the matching tokens give the
+ * matching Menus.
  */
 public class CriteriaMatcher {
-	private List<Criteria> container;
-	private List<Mensa> temp;
-
-	public CriteriaMatcher() {
-		container = new ArrayList<Criteria>();
-		temp = new ArrayList<Mensa>();
-	}
 
 	/**
 	 * Matches a Set of criteria to each {@link Menu} of the current day and returns a
@@ -40,35 +40,101 @@ public class CriteriaMatcher {
 	 *         mensa in which the menu is served in.
 	 */
 	public List<Criteria> match(Set<String> criteriaSet, List<Mensa> mensas) {
-		for (String criteria : criteriaSet) {
-			Criteria crit = new Criteria();
-			crit.setCriteriaName(criteria);
-			for (Mensa mensa : mensas) {
-				WeeklyMenuplan weekly = mensa.getMenuplan();
-				DailyMenuplan daily = weekly.getDailymenuplan(Day.today());
-				if (daily != null) {
-					for (Menu menu : daily.getMenus()) {
-						if ((menu.getDescription().toLowerCase(Locale.getDefault())).contains(criteria
-								.toLowerCase(Locale.getDefault()))) {
+		return match(criteriaSet, new MenuIndex(mensas, Day.today()), mensas);
+	}
 
-							if (!container.contains(crit))
-								container.add(crit);
+	/**
+	 * Matches a Set of criteria to the Menus of an existing {@link MenuIndex}.
+	 * Criteria which lie within a single token are found by scanning each
+	 * distinct token of the index once with the automaton of these criteria,
+	 * which is cached until the criteria change. Phrases spanning several
+	 * tokens are looked up with MenuIndex.find(). Only Menus served in one of
+	 * the given mensas are considered, so one index of all Mensas can be used
+	 * for the favorite Mensas as well.
+	 * 
+	 * @param criteriaSet
+	 *            String set of criterias you want to match with.
+	 * @param index
+	 *            MenuIndex of the Menus to be matched, e.g. from
+	 *            Model.getMenuIndex().
+	 * @param mensas
+	 *            List of {@link Mensa}s you want to match the criterias with.
+	 * @return List of Criteria Objects which stores the matching menus and the
+	 *         mensa in which the menu is served in.
+	 * @see #match(Set, List)
+	 */
+	public List<Criteria> match(Set<String> criteriaSet, MenuIndex index, List<Mensa> mensas) {
+		List<Criteria> container = new ArrayList<Criteria>();
+		if (mensas.isEmpty() || criteriaSet.isEmpty())
+			return container;
 
-							if (!crit.getMap().containsKey(menu)) {
-								temp = new ArrayList<Mensa>();
-								temp.add(mensa);
-								crit.getMap().put(menu, temp);
-							} else {
-								temp = new ArrayList<Mensa>();
-								temp = crit.getMap().get(menu);
-								temp.add(mensa);
+		Set<Integer> mensaIds = new HashSet<Integer>();
+		for (Mensa mensa : mensas)
+			mensaIds.add(mensa.getId());
 
-							}
-						}
-					}
-				}
+		Map<String, BitSet> tokenMatches = matchWithinTokens(criteriaSet, index);
+		Map<String, Criteria> matched = new HashMap<String, Criteria>();
+		for (String criteria : criteriaSet) {
+			BitSet entries = tokenMatches.containsKey(criteria) ? tokenMatches.get(criteria) : index.find(criteria);
+			for (int i = entries.nextSetBit(0); i >= 0; i = entries.nextSetBit(i + 1)) {
+				Mensa mensa = index.getMensa(i);
+				if (mensaIds.contains(mensa.getId()))
+					addMatch(matched, criteria, index.getMenu(i), mensa);
 			}
 		}
+
+		for (String criteria : criteriaSet) {
+			Criteria crit = matched.get(criteria);
+			if (crit != null)
+				container.add(crit);
+		}
 		return container;
 	}
+
+	/**
+	 * Resolves all criteria which lie within a single token by scanning the
+	 * distinct tokens of the index with the automaton of these criteria.
+	 * 
+	 * @return Map from each of these criteria to the BitSet of its entries.
+	 */
+	private static Map<String, BitSet> matchWithinTokens(Set<String> criteriaSet, MenuIndex index) {
+		Set<String> tokenCriteria = new LinkedHashSet<String>();
+		for (String criteria : criteriaSet)
+			if (MenuIndex.isWithinToken(MenuIndex.normalize(criteria)))
+				tokenCriteria.add(criteria);
+		Map<String, BitSet> matches = new HashMap<String, BitSet>();
+		if (tokenCriteria.isEmpty())
+			return matches;
+
+		CriteriaAutomaton automaton = CriteriaAutomaton.forCriteria(tokenCriteria);
+		BitSet[] entries = new BitSet[automaton.size()];
+		for (int c = 0; c < entries.length; c++)
+			entries[c] = new BitSet();
+		for (String token : index.getTokens()) {
+			BitSet found = automaton.findAll(token);
+			if (found.isEmpty())
+				continue;
+			BitSet postings = index.getPostings(token);
+			for (int c = found.nextSetBit(0); c >= 0; c = found.nextSetBit(c + 1))
+				entries[c].or(postings);
+		}
+		for (int c = 0; c < entries.length; c++)
+			matches.put(automaton.getCriteria(c), entries[c]);
+		return matches;
+	}
+
+	private static void addMatch(Map<String, Criteria> matched, String criteria, Menu menu, Mensa mensa) {
+		Criteria crit = matched.get(criteria);
+		if (crit == null) {
+			crit = new Criteria();
+			crit.setCriteriaName(criteria);
+			matched.put(criteria, crit);
+		}
+		List<Mensa> menuMensas = crit.getMap().get(menu);
+		if (menuMensas == null) {
+			menuMensas = new ArrayList<Mensa>();
+			crit.getMap().put(menu, menuMensas);
+		}
+		menuMensas.add(mensa);
+	}
 }
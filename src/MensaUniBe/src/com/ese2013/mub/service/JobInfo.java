@@ -0,0 +1,179 @@
+package com.ese2013.mub.service;
+
+import java.util.Calendar;
+
+/**
+ * Describes a job which is run periodically by the {@link Scheduler}: when it
+ * should run, which conditions the device has to fulfill and how long to wait
+ * before retrying after a failure. JobInfo objects are immutable and created
+ * using the JobInfo.Builder.
+ */
+public class JobInfo {
+	/** Value for setDayOfWeek() to run a job every day. */
+	public static final int EVERY_DAY = -1;
+
+	private final int id;
+	private final int dayOfWeek, hour, minute;
+	private final boolean requiresNetwork, requiresCharging, requiresIdle;
+	private final long overrideDeadline, initialBackoff, maxBackoff;
+
+	private JobInfo(Builder builder) {
+		this.id = builder.id;
+		this.dayOfWeek = builder.dayOfWeek;
+		this.hour = builder.hour;
+		this.minute = builder.minute;
+		this.requiresNetwork = builder.requiresNetwork;
+		this.requiresCharging = builder.requiresCharging;
+		this.requiresIdle = builder.requiresIdle;
+		this.overrideDeadline = builder.overrideDeadline;
+		this.initialBackoff = builder.initialBackoff;
+		this.maxBackoff = builder.maxBackoff;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public boolean requiresNetwork() {
+		return requiresNetwork;
+	}
+
+	public boolean requiresCharging() {
+		return requiresCharging;
+	}
+
+	public boolean requiresIdle() {
+		return requiresIdle;
+	}
+
+	/**
+	 * Returns how long the charging and idle constraints are waited for. After
+	 * this time, the job is run even if the device is not charging or idle.
+	 *
+	 * @return long time in milliseconds after the regular start time.
+	 */
+	public long getOverrideDeadline() {
+		return overrideDeadline;
+	}
+
+	/**
+	 * Returns the next regular start time of this job after the given time.
+	 *
+	 * @param now
+	 *            long current time in milliseconds.
+	 * @return long time in milliseconds, always after now.
+	 */
+	public long getNextRunTime(long now) {
+		Calendar next = Calendar.getInstance();
+		next.setTimeInMillis(now);
+		next.set(Calendar.HOUR_OF_DAY, hour);
+		next.set(Calendar.MINUTE, minute);
+		next.set(Calendar.SECOND, 0);
+		next.set(Calendar.MILLISECOND, 0);
+		if (dayOfWeek != EVERY_DAY) {
+			int days = (dayOfWeek - next.get(Calendar.DAY_OF_WEEK) + 7) % 7;
+			next.add(Calendar.DAY_OF_YEAR, days);
+		}
+		while (next.getTimeInMillis() <= now)
+			next.add(Calendar.DAY_OF_YEAR, dayOfWeek == EVERY_DAY ? 1 : 7);
+		return next.getTimeInMillis();
+	}
+
+	/**
+	 * Returns how long to wait before retrying after the given number of
+	 * failed attempts. The delay doubles with every failure, up to the
+	 * maximum backoff.
+	 *
+	 * @param failedAttempts
+	 *            int number of failed attempts since the last success, at
+	 *            least 1.
+	 * @return long delay in milliseconds.
+	 */
+	public long getBackoffDelay(int failedAttempts) {
+		long delay = initialBackoff;
+		for (int i = 1; i < failedAttempts && delay < maxBackoff; i++)
+			delay *= 2;
+		return Math.min(delay, maxBackoff);
+	}
+
+	/**
+	 * Builder class used to construct JobInfo objects. By default a job runs
+	 * every day at midnight without any constraints.
+	 */
+	public static class Builder {
+		private static final long MINUTE = 60 * 1000;
+		private int id;
+		private int dayOfWeek = EVERY_DAY, hour, minute;
+		private boolean requiresNetwork, requiresCharging, requiresIdle;
+		private long overrideDeadline, initialBackoff = 5 * MINUTE, maxBackoff = 5 * 60 * MINUTE;
+
+		/**
+		 * Creates a Builder for the job with the given id.
+		 *
+		 * @param id
+		 *            int id of the job. Scheduling a job with the same id
+		 *            replaces the earlier one.
+		 */
+		public Builder(int id) {
+			this.id = id;
+		}
+
+		/**
+		 * Sets the day on which the job runs.
+		 *
+		 * @param dayOfWeek
+		 *            int day as in Calendar.DAY_OF_WEEK (e.g. Calendar.SUNDAY),
+		 *            or EVERY_DAY.
+		 * @return This Builder to allow chaining of setXXX calls.
+		 */
+		public Builder setDayOfWeek(int dayOfWeek) {
+			this.dayOfWeek = dayOfWeek;
+			return this;
+		}
+
+		public Builder setTime(int hour, int minute) {
+			this.hour = hour;
+			this.minute = minute;
+			return this;
+		}
+
+		public Builder setRequiresNetwork(boolean requiresNetwork) {
+			this.requiresNetwork = requiresNetwork;
+			return this;
+		}
+
+		public Builder setRequiresCharging(boolean requiresCharging) {
+			this.requiresCharging = requiresCharging;
+			return this;
+		}
+
+		public Builder setRequiresIdle(boolean requiresIdle) {
+			this.requiresIdle = requiresIdle;
+			return this;
+		}
+
+		public Builder setOverrideDeadline(long overrideDeadline) {
+			this.overrideDeadline = overrideDeadline;
+			return this;
+		}
+
+		/**
+		 * Sets the delays for retrying after failures.
+		 *
+		 * @param initialBackoff
+		 *            long delay in milliseconds after the first failure.
+		 * @param maxBackoff
+		 *            long maximum delay in milliseconds.
+		 * @return This Builder to allow chaining of setXXX calls.
+		 */
+		public Builder setBackoff(long initialBackoff, long maxBackoff) {
+			this.initialBackoff = initialBackoff;
+			this.maxBackoff = maxBackoff;
+			return this;
+		}
+
+		public JobInfo build() {
+			return new JobInfo(this);
+		}
+	}
+}
@@ -1,54 +1,109 @@
 package com.ese2013.mub.service;
 
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 
+import android.app.IntentService;
 import android.app.NotificationManager;
 import android.app.PendingIntent;
-import android.app.Service;
 import android.content.Context;
 import android.content.Intent;
-import android.os.IBinder;
 import android.support.v4.app.NotificationCompat;
+import android.util.Log;
 
 import com.ese2013.mub.DrawerMenuActivity;
 import com.ese2013.mub.R;
+import com.ese2013.mub.model.Day;
 import com.ese2013.mub.model.Mensa;
-import com.ese2013.mub.model.Model;
-import com.ese2013.mub.util.Observer;
 import com.ese2013.mub.util.SharedPrefsHandler;
 import com.ese2013.mub.util.database.MensaDataSource;
 
 /**
  * 
- * Service which runs in the same thread as the {@link DrawerMenuActivity}.
+ * Runs the JOB_NOTIFICATION of the {@link Scheduler} in a background thread.
  * Matches the in the Application's Settings defined criteria with either the
  * list of all mensas or the favorites only, which needs also be defined in the
  * Appliaction's Settings as well. The Service is only to be called if it is
  * defined so in the Application's Settings.
  * 
+ * Only the menus of today are read from the local database, without creating
+ * the Model. The menus are only downloaded (like the JOB_MENU_PREFETCH) if the
+ * stored menus are outdated. The whole job runs synchronously, so the wake
+ * lock of the {@link AlarmReceiver} is held and the result is reported to the
+ * Scheduler only when the job is really done.
+ * 
  */
-public class NotificationService extends Service implements Observer {
+public class NotificationService extends IntentService {
 
 	public static final String START_FROM_N = "com.ese2013.mub.service.startFromN";
-	private List<Criteria> criteriaList;
-	private boolean hasPushed;
+
+	public NotificationService() {
+		super("NotificationService");
+	}
 
 	@Override
-	public int onStartCommand(Intent intent, int flags, int startId) {
+	protected void onHandleIntent(Intent intent) {
+		boolean success = false;
+		try {
+			List<Criteria> criteriaList = createCriteriaList();
+			if (criteriaList != null) {
+				push(criteriaList);
+				success = true;
+			}
+		} finally {
+			new Scheduler(this).jobFinished(Scheduler.JOB_NOTIFICATION, success);
+			AlarmReceiver.completeWakefulIntent(intent);
+		}
+	}
+
+	/**
+	 * Matches the criteria with the menus of today. Downloads the menus first
+	 * if the stored ones are outdated.
+	 * 
+	 * @return the list of Criteria matched by the CriteriaMatcher, null if the
+	 *         menus could not be loaded.
+	 */
+	private List<Criteria> createCriteriaList() {
+		SharedPrefsHandler pref = new SharedPrefsHandler(this);
+		boolean favoritesOnly = !pref.getDoNotificationsForAllMensas();
 		MensaDataSource dataSource = MensaDataSource.getInstance();
 		dataSource.init(getApplicationContext());
 
-		Model model = Model.getInstance();
-		model.init(dataSource, new SharedPrefsHandler(getApplicationContext()));
-		model.addObserver(this);
-		return START_STICKY;
+		List<Mensa> mensas = loadMenusOfToday(dataSource, favoritesOnly);
+		if (mensas == null) {
+			if (!ScheduledJobService.prefetchMenus(this))
+				return null;
+			mensas = loadMenusOfToday(dataSource, favoritesOnly);
+			if (mensas == null) // no menus published for this week yet
+				mensas = Collections.emptyList();
+		}
+		return new CriteriaMatcher().match(pref.getNotificationListItems(), mensas);
+	}
+
+	/**
+	 * Reads the menus of today from the local database. Returns null if the
+	 * stored menus are outdated or can't be read.
+	 */
+	private List<Mensa> loadMenusOfToday(MensaDataSource dataSource, boolean favoritesOnly) {
+		Day today = Day.today();
+		dataSource.open();
+		try {
+			List<Mensa> mensas = dataSource.loadMenusOfDay(today, favoritesOnly);
+			if (mensas.isEmpty() && dataSource.getWeekOfStoredMenus() != today.getWeekNumber())
+				return null;
+			return mensas;
+		} catch (RuntimeException e) {
+			Log.e("NotificationService", "Could not read stored menus", e);
+			return null;
+		} finally {
+			dataSource.close();
+		}
 	}
 
 	/**
 	 * Builds a Notification and displays it on the Device
 	 */
-	private void push() {
+	private void push(List<Criteria> criteriaList) {
 		if (!criteriaList.isEmpty()) {
 
 			StringBuilder sb = new StringBuilder();
@@ -73,39 +128,6 @@ public class NotificationService extends Service implements Observer {
 
 			NotificationManager mNotificationManager = (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
 			mNotificationManager.notify(0, mBuilder.build());
-			hasPushed = true;
 		}
 	}
-
-	@Override
-	/**
-	 * Returns null thus binding to the service is not possible
-	 */
-	public IBinder onBind(Intent arg0) {
-		return null;
-	}
-
-	/**
-	 * Loads the necessary Data and gives them to the CriteriaMatcher
-	 * 
-	 * @return the list of Criteria matched by the CriteriaMatcher
-	 */
-	private List<Criteria> createCriteriaList() {
-		SharedPrefsHandler pref = new SharedPrefsHandler(this);
-
-		Set<String> criteria = pref.getNotificationListItems();
-		boolean allMensas = pref.getDoNotificationsForAllMensas();
-		CriteriaMatcher criteriaMatcher = new CriteriaMatcher();
-		List<Mensa> mensas = allMensas ? Model.getInstance().getMensas() : Model.getInstance().getFavoriteMensas();
-
-		return criteriaMatcher.match(criteria, mensas);
-	}
-
-	@Override
-	public void onNotifyChanges(Object... message) {
-		criteriaList = createCriteriaList();
-		push();
-		if (hasPushed)
-			stopSelf();
-	}
 }
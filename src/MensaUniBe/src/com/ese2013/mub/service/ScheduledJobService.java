@@ -0,0 +1,67 @@
+package com.ese2013.mub.service;
+
+import java.util.List;
+
+import android.app.IntentService;
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+import com.ese2013.mub.model.Mensa;
+import com.ese2013.mub.model.MenuManager;
+import com.ese2013.mub.util.MensaDownloadException;
+import com.ese2013.mub.util.MensaFromWebFactory;
+import com.ese2013.mub.util.database.MensaDataSource;
+
+/**
+ * Runs the JOB_MENU_PREFETCH of the {@link Scheduler} in a background thread
+ * and reports the result back to the Scheduler. The JOB_NOTIFICATION is run by
+ * the {@link NotificationService}.
+ */
+public class ScheduledJobService extends IntentService {
+
+	public ScheduledJobService() {
+		super("ScheduledJobService");
+	}
+
+	@Override
+	protected void onHandleIntent(Intent intent) {
+		int jobId = intent.getIntExtra(Scheduler.EXTRA_JOB_ID, -1);
+		boolean success = false;
+		try {
+			if (jobId == Scheduler.JOB_MENU_PREFETCH)
+				success = prefetchMenus(this);
+		} finally {
+			new Scheduler(this).jobFinished(jobId, success);
+			AlarmReceiver.completeWakefulIntent(intent);
+		}
+	}
+
+	/**
+	 * Downloads the current menus and stores them in the local database, such
+	 * that the next start of the app does not need to download anything.
+	 * Synchronous, must not be called in the UI thread.
+	 * 
+	 * @param context
+	 *            Context of the app. Must not be null.
+	 * @return true if the menus have been stored.
+	 */
+	static boolean prefetchMenus(Context context) {
+		MensaDataSource dataSource = MensaDataSource.getInstance();
+		dataSource.init(context.getApplicationContext());
+		MensaFromWebFactory factory = new MensaFromWebFactory(dataSource, new MenuManager());
+		try {
+			List<Mensa> mensas = factory.createMensaList();
+			dataSource.open();
+			try {
+				dataSource.storeModel(mensas, factory.getSyncWatermark());
+			} finally {
+				dataSource.close();
+			}
+			return true;
+		} catch (MensaDownloadException e) {
+			Log.w("ScheduledJobService", "Could not prefetch menus", e);
+			return false;
+		}
+	}
+}
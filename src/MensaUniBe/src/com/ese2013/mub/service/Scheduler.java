@@ -0,0 +1,238 @@
+package com.ese2013.mub.service;
+
+import java.util.Calendar;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.SharedPreferences;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.os.BatteryManager;
+import android.os.PowerManager;
+
+import com.ese2013.mub.util.SharedPrefsHandler;
+
+/**
+ * Schedules the background jobs of the app using the {@link AlarmManager}, in
+ * the style of the JobScheduler of newer Android versions (which is not
+ * available on our minimum API level). There are two jobs:
+ * <ul>
+ * <li>JOB_MENU_PREFETCH: downloads the menus of the new week on Sunday evening,
+ * so the first start on Monday can use the local data.</li>
+ * <li>JOB_NOTIFICATION: matches the notification criteria every day at 10
+ * o'clock, only if notifications are enabled in the settings.</li>
+ * </ul>
+ *
+ * Every job runs once per period. An alarm fires the {@link AlarmReceiver},
+ * which checks the constraints of the job (see {@link JobInfo}) and starts the
+ * service running the job. If the constraints are not met, they are checked
+ * again later. A failed job is retried with exponential backoff. Scheduling a
+ * job which is already scheduled or running does nothing, so schedule() can be
+ * called on every start of the app.
+ */
+public class Scheduler {
+	public static final int JOB_MENU_PREFETCH = 1, JOB_NOTIFICATION = 2;
+	public static final String EXTRA_JOB_ID = "com.ese2013.mub.service.jobId";
+	private static final long MINUTE = 60 * 1000, HOUR = 60 * MINUTE;
+	private static final long CONSTRAINT_RECHECK = 15 * MINUTE, RUN_TIMEOUT = HOUR;
+	private static final String PREFS_FILE_NAME = "MUBSchedulerFile", KEY_ALARM = "alarm_", KEY_DUE = "due_",
+			KEY_FAILURES = "failures_";
+
+	private Context context;
+
+	/**
+	 * Creates a new Scheduler. The state of the jobs is kept in a preferences
+	 * file, so any number of Schedulers can be used.
+	 *
+	 * @param context
+	 *            Context of the app. Must not be null.
+	 */
+	public Scheduler(Context context) {
+		this.context = context.getApplicationContext();
+	}
+
+	/**
+	 * Returns the description of the job with the given id.
+	 *
+	 * @param jobId
+	 *            int id of the job, e.g. JOB_MENU_PREFETCH.
+	 * @return JobInfo of the job, null if no such job exists.
+	 */
+	public static JobInfo getJobInfo(int jobId) {
+		switch (jobId) {
+		case JOB_MENU_PREFETCH:
+			return new JobInfo.Builder(JOB_MENU_PREFETCH).setDayOfWeek(Calendar.SUNDAY).setTime(20, 0)
+					.setRequiresNetwork(true).setRequiresCharging(true).setRequiresIdle(true)
+					.setOverrideDeadline(10 * HOUR).setBackoff(15 * MINUTE, 4 * HOUR).build();
+		case JOB_NOTIFICATION:
+			return new JobInfo.Builder(JOB_NOTIFICATION).setTime(10, 0).setBackoff(5 * MINUTE, HOUR).build();
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Schedules the menu prefetch and, if enabled in the settings, the daily
+	 * notification. Cancels the notification if it is disabled.
+	 */
+	public void scheduleAll() {
+		schedule(getJobInfo(JOB_MENU_PREFETCH));
+		if (new SharedPrefsHandler(context).getDoNotification())
+			schedule(getJobInfo(JOB_NOTIFICATION));
+		else
+			cancel(JOB_NOTIFICATION);
+	}
+
+	/**
+	 * Schedules the given job for its next regular start time. Does nothing if
+	 * the job is already scheduled or running, even if its alarm time has
+	 * passed: the alarm may be just about to be delivered (e.g. the app is
+	 * started for the alarm) and the due time of the pending run is kept, so
+	 * the override deadline still applies. A run which did not finish in time
+	 * (e.g. the app was killed) is treated as failed.
+	 *
+	 * @param job
+	 *            JobInfo of the job to be scheduled. Must not be null.
+	 */
+	public synchronized void schedule(JobInfo job) {
+		long now = System.currentTimeMillis();
+		long alarm = getPrefs().getLong(KEY_ALARM + job.getId(), 0);
+		if (alarm == 0) {
+			long due = job.getNextRunTime(now);
+			getPrefs().edit().putLong(KEY_DUE + job.getId(), due).commit();
+			arm(job.getId(), due);
+		} else if (alarm < 0 && now + alarm >= RUN_TIMEOUT) {
+			jobFinished(job.getId(), false);
+		}
+	}
+
+	/**
+	 * Sets the alarms of all scheduled jobs again. Must be called after the
+	 * device has been booted, as the AlarmManager forgets all alarms then. Jobs
+	 * which were missed while the device was off are run soon.
+	 */
+	public synchronized void rescheduleAfterBoot() {
+		long now = System.currentTimeMillis();
+		for (int jobId : new int[] { JOB_MENU_PREFETCH, JOB_NOTIFICATION }) {
+			long alarm = getPrefs().getLong(KEY_ALARM + jobId, 0);
+			if (alarm != 0)
+				arm(jobId, Math.max(alarm, now + MINUTE));
+		}
+		scheduleAll();
+	}
+
+	/**
+	 * Cancels the given job, such that it is not run any more until it is
+	 * scheduled again.
+	 *
+	 * @param jobId
+	 *            int id of the job.
+	 */
+	public synchronized void cancel(int jobId) {
+		getAlarmManager().cancel(createOperation(jobId));
+		getPrefs().edit().remove(KEY_ALARM + jobId).remove(KEY_DUE + jobId).remove(KEY_FAILURES + jobId).commit();
+	}
+
+	/**
+	 * Called when the alarm of a job fires. Checks if the constraints of the
+	 * job are met. If they are, the job is marked as running and should be
+	 * started by the caller. Otherwise the job is postponed.
+	 *
+	 * @param jobId
+	 *            int id of the job.
+	 * @return true if the job should be run now.
+	 */
+	public synchronized boolean onAlarm(int jobId) {
+		JobInfo job = getJobInfo(jobId);
+		if (job == null || !getPrefs().contains(KEY_ALARM + jobId))
+			return false;
+		long now = System.currentTimeMillis();
+		long due = getPrefs().getLong(KEY_DUE + jobId, now);
+		if (!constraintsMet(job, now > due + job.getOverrideDeadline())) {
+			arm(jobId, now + CONSTRAINT_RECHECK);
+			return false;
+		}
+		getPrefs().edit().putLong(KEY_ALARM + jobId, -now).commit();
+		return true;
+	}
+
+	/**
+	 * Called when a job has been run. Schedules the next regular run after a
+	 * success, or a retry after a failure.
+	 *
+	 * @param jobId
+	 *            int id of the job.
+	 * @param success
+	 *            true if the job has been run successfully.
+	 */
+	public synchronized void jobFinished(int jobId, boolean success) {
+		JobInfo job = getJobInfo(jobId);
+		if (job == null || !getPrefs().contains(KEY_ALARM + jobId))
+			return;
+		long now = System.currentTimeMillis();
+		if (success) {
+			long due = job.getNextRunTime(now);
+			getPrefs().edit().putLong(KEY_DUE + jobId, due).putInt(KEY_FAILURES + jobId, 0).commit();
+			arm(jobId, due);
+		} else {
+			int failures = getPrefs().getInt(KEY_FAILURES + jobId, 0) + 1;
+			getPrefs().edit().putInt(KEY_FAILURES + jobId, failures).commit();
+			arm(jobId, now + job.getBackoffDelay(failures));
+		}
+	}
+
+	private void arm(int jobId, long time) {
+		getPrefs().edit().putLong(KEY_ALARM + jobId, time).commit();
+		getAlarmManager().set(AlarmManager.RTC_WAKEUP, time, createOperation(jobId));
+	}
+
+	/**
+	 * Checks the constraints of the given job.
+	 *
+	 * @param job
+	 *            JobInfo of the job.
+	 * @param deadlinePassed
+	 *            true to ignore the charging and idle constraints. The network
+	 *            is always needed if required, as the job would fail anyway.
+	 * @return true if the job can run now.
+	 */
+	private boolean constraintsMet(JobInfo job, boolean deadlinePassed) {
+		if (job.requiresNetwork()) {
+			ConnectivityManager connectivity = (ConnectivityManager) context
+					.getSystemService(Context.CONNECTIVITY_SERVICE);
+			NetworkInfo network = connectivity.getActiveNetworkInfo();
+			if (network == null || !network.isConnected())
+				return false;
+		}
+		if (deadlinePassed)
+			return true;
+		if (job.requiresCharging()) {
+			Intent battery = context.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+			if (battery == null || battery.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0) == 0)
+				return false;
+		}
+		if (job.requiresIdle()) {
+			PowerManager power = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+			if (power.isScreenOn())
+				return false;
+		}
+		return true;
+	}
+
+	private PendingIntent createOperation(int jobId) {
+		Intent intent = new Intent(context, AlarmReceiver.class);
+		intent.putExtra(EXTRA_JOB_ID, jobId);
+		return PendingIntent.getBroadcast(context, jobId, intent, PendingIntent.FLAG_UPDATE_CURRENT);
+	}
+
+	private AlarmManager getAlarmManager() {
+		return (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+	}
+
+	private SharedPreferences getPrefs() {
+		return context.getSharedPreferences(PREFS_FILE_NAME, Context.MODE_PRIVATE);
+	}
+}
@@ -0,0 +1,66 @@
+package com.ese2013.mub.social;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.ese2013.mub.util.BusEvent;
+
+/**
+ * Describes a change of the social data, posted on the EventBus of the
+ * {@link SocialManager}. Tells if the friends or which of the invitations
+ * changed.
+ */
+public class SocialChangeEvent implements BusEvent<SocialChangeEvent.Type, SocialChangeEvent> {
+	/**
+	 * Part of the social data which changed.
+	 */
+	public static enum Type {
+		/** The friends or the friend requests of the user changed. */
+		FRIENDS,
+		/** The invitations received by the user changed. */
+		RECEIVED_INVITATIONS,
+		/** The invitations sent by the user changed. */
+		SENT_INVITATIONS
+	}
+
+	private final EnumSet<Type> types;
+
+	/**
+	 * Creates an event for a single change.
+	 * 
+	 * @param type
+	 *            Type of the change. Must not be null.
+	 */
+	public SocialChangeEvent(Type type) {
+		this(EnumSet.of(type));
+	}
+
+	private SocialChangeEvent(EnumSet<Type> types) {
+		this.types = types;
+	}
+
+	/**
+	 * Returns if the given part of the social data changed.
+	 */
+	public boolean contains(Type type) {
+		return types.contains(type);
+	}
+
+	@Override
+	public Set<Type> getTypes() {
+		return Collections.unmodifiableSet(types);
+	}
+
+	@Override
+	public SocialChangeEvent mergeWith(SocialChangeEvent later) {
+		EnumSet<Type> merged = EnumSet.copyOf(types);
+		merged.addAll(later.types);
+		return new SocialChangeEvent(merged);
+	}
+
+	@Override
+	public String toString() {
+		return "SocialChangeEvent " + types;
+	}
+}
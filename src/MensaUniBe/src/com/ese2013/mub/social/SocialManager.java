@@ -4,28 +4,30 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.ese2013.mub.social.Invitation.Response;
+import com.ese2013.mub.social.SocialChangeEvent.Type;
 import com.ese2013.mub.social.util.GetFriendsTask;
 import com.ese2013.mub.social.util.GetFriendsTaskCallback;
 import com.ese2013.mub.social.util.GetInvitationsTask;
 import com.ese2013.mub.social.util.GetInvitationsTaskCallback;
 import com.ese2013.mub.social.util.GetSentInvitationsTask;
 import com.ese2013.mub.social.util.GetSentInvitationsTaskCallback;
-import com.ese2013.mub.util.Observable;
+import com.ese2013.mub.util.EventBus;
 import com.ese2013.mub.util.parseDatabase.SocialDBHandler;
 import com.parse.ParseException;
 
 /**
  * Manages all the social related features. All saving and loading of users,
  * friends etc. should be done using this class (except of login which is done
- * by LoginService). This class is observable and will notice observers of any
- * major state change occurred.
+ * by LoginService). Any major state change is posted as a
+ * {@link SocialChangeEvent} on the EventBus of this class.
  */
-public class SocialManager extends Observable implements GetSentInvitationsTaskCallback, GetFriendsTaskCallback,
+public class SocialManager implements GetSentInvitationsTaskCallback, GetFriendsTaskCallback,
 		GetInvitationsTaskCallback {
 	private List<Invitation> sentInvitations = new ArrayList<Invitation>();
 	private List<Invitation> receivedInvitations = new ArrayList<Invitation>();
 	private static SocialManager instance;
 	private SocialDBHandler onlineDBHandler = new SocialDBHandler();
+	private final EventBus<Type, SocialChangeEvent> eventBus = new EventBus<Type, SocialChangeEvent>(Type.class);
 
 	private SocialManager() {
 	}
@@ -36,6 +38,15 @@ public class SocialManager extends Observable implements GetSentInvitationsTaskC
 		return instance;
 	}
 
+	/**
+	 * Returns the EventBus on which the changes of the social data are posted.
+	 * 
+	 * @return EventBus for the SocialChangeEvents, never null.
+	 */
+	public EventBus<Type, SocialChangeEvent> getEventBus() {
+		return eventBus;
+	}
+
 	public List<Invitation> getSentInvitations() {
 		return sentInvitations;
 	}
@@ -76,13 +87,13 @@ public class SocialManager extends Observable implements GetSentInvitationsTaskC
 		currentUser().removeFriendRequest(request);
 		if (accept)
 			currentUser().addFriend(request.getFrom());
-		notifyChanges();
+		eventBus.post(new SocialChangeEvent(Type.FRIENDS));
 	}
 
 	public void removeFriend(User user) {
 		onlineDBHandler.removeFriendship(currentUser(), user);
 		currentUser().removeFriend(user);
-		notifyChanges();
+		eventBus.post(new SocialChangeEvent(Type.FRIENDS));
 	}
 
 	/**
@@ -99,7 +110,7 @@ public class SocialManager extends Observable implements GetSentInvitationsTaskC
 			receivedInvitations.remove(invitation);
 		invitation.setResponseOf(currentUser(), response);
 		onlineDBHandler.answerInvitation(invitation, response, currentUser());
-		notifyChanges();
+		eventBus.post(new SocialChangeEvent(Type.RECEIVED_INVITATIONS));
 	}
 
 	/**
@@ -138,18 +149,18 @@ public class SocialManager extends Observable implements GetSentInvitationsTaskC
 	@Override
 	public void onGetInvitationsTaskFinished(List<Invitation> invitations) {
 		receivedInvitations = invitations;
-		notifyChanges();
+		eventBus.post(new SocialChangeEvent(Type.RECEIVED_INVITATIONS));
 	}
 
 	@Override
 	public void onGetSentInvitationsTaskFinished(List<Invitation> invitations) {
 		sentInvitations = invitations;
-		notifyChanges();
+		eventBus.post(new SocialChangeEvent(Type.SENT_INVITATIONS));
 	}
 
 	@Override
 	public void onGetFriendsTaskFinished() {
-		notifyChanges();
+		eventBus.post(new SocialChangeEvent(Type.FRIENDS));
 	}
 
 	/**
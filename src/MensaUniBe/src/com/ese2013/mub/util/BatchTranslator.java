@@ -0,0 +1,170 @@
+package com.ese2013.mub.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.memetix.mst.language.Language;
+
+/**
+ * Translates large numbers of texts using another Translator. The texts are
+ * split into chunks which are bounded in number of texts and characters (the
+ * Api rejects too large requests). Several chunks are translated concurrently
+ * and a chunk which fails, or whose translations are incomplete, is retried a
+ * few times with an increasing delay before giving up.
+ */
+public class BatchTranslator implements Translator {
+	public static final int MAX_CHUNK_TEXTS = 100, MAX_CHUNK_CHARS = 5000, MAX_WORKERS = 3, MAX_ATTEMPTS = 3;
+	public static final long RETRY_DELAY = 1000;
+	private final Translator translator;
+	private final int maxChunkTexts, maxChunkChars, maxWorkers, maxAttempts;
+	private final long retryDelay;
+
+	/**
+	 * Creates a BatchTranslator using the default chunk sizes, number of
+	 * workers, attempts and retry delay.
+	 * 
+	 * @param translator
+	 *            Translator which translates the single chunks. Must be
+	 *            thread-safe and must not be null.
+	 */
+	public BatchTranslator(Translator translator) {
+		this(translator, MAX_CHUNK_TEXTS, MAX_CHUNK_CHARS, MAX_WORKERS, MAX_ATTEMPTS, RETRY_DELAY);
+	}
+
+	/**
+	 * Creates a BatchTranslator.
+	 * 
+	 * @param translator
+	 *            Translator which translates the single chunks. Must be
+	 *            thread-safe and must not be null.
+	 * @param maxChunkTexts
+	 *            Maximum number of texts in one chunk, must be positive.
+	 * @param maxChunkChars
+	 *            Maximum number of characters in one chunk. A single text
+	 *            longer than this gets a chunk on its own.
+	 * @param maxWorkers
+	 *            Maximum number of chunks translated at the same time, must be
+	 *            positive.
+	 * @param maxAttempts
+	 *            Number of times a chunk is tried before the translation fails,
+	 *            must be positive.
+	 * @param retryDelay
+	 *            Time in milliseconds to wait before the first retry of a
+	 *            chunk. The delay is doubled for every further retry.
+	 */
+	public BatchTranslator(Translator translator, int maxChunkTexts, int maxChunkChars, int maxWorkers,
+			int maxAttempts, long retryDelay) {
+		this.translator = translator;
+		this.maxChunkTexts = maxChunkTexts;
+		this.maxChunkChars = maxChunkChars;
+		this.maxWorkers = maxWorkers;
+		this.maxAttempts = maxAttempts;
+		this.retryDelay = retryDelay;
+	}
+
+	@Override
+	public String[] translate(String[] texts, Language from, Language to) throws Exception {
+		String[] translations = new String[texts.length];
+		List<int[]> chunks = split(texts);
+		if (chunks.isEmpty())
+			return translations;
+		if (chunks.size() == 1) {
+			new ChunkTranslation(texts, translations, chunks.get(0), from, to).call();
+			return translations;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxWorkers, chunks.size()));
+		try {
+			List<Future<Void>> results = new ArrayList<Future<Void>>(chunks.size());
+			for (int[] chunk : chunks)
+				results.add(executor.submit(new ChunkTranslation(texts, translations, chunk, from, to)));
+			for (Future<Void> result : results)
+				result.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception)
+				throw (Exception) e.getCause();
+			throw e;
+		} finally {
+			executor.shutdownNow();
+		}
+		return translations;
+	}
+
+	/**
+	 * Splits the texts into chunks, each given by the index of its first text
+	 * and the index after its last text.
+	 */
+	private List<int[]> split(String[] texts) {
+		List<int[]> chunks = new ArrayList<int[]>();
+		int start = 0, chars = 0;
+		for (int i = 0; i < texts.length; i++) {
+			int length = texts[i].length();
+			if (i > start && (i - start == maxChunkTexts || chars + length > maxChunkChars)) {
+				chunks.add(new int[] { start, i });
+				start = i;
+				chars = 0;
+			}
+			chars += length;
+		}
+		if (start < texts.length)
+			chunks.add(new int[] { start, texts.length });
+		return chunks;
+	}
+
+	/**
+	 * Translates one chunk and writes the results to their positions in the
+	 * shared result array (chunks never overlap).
+	 */
+	private class ChunkTranslation implements Callable<Void> {
+		private final String[] texts, translations;
+		private final int start, end;
+		private final Language from, to;
+
+		private ChunkTranslation(String[] texts, String[] translations, int[] chunk, Language from, Language to) {
+			this.texts = texts;
+			this.translations = translations;
+			this.start = chunk[0];
+			this.end = chunk[1];
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			String[] chunk = new String[end - start];
+			System.arraycopy(texts, start, chunk, 0, chunk.length);
+			String[] result = translateWithRetry(chunk);
+			System.arraycopy(result, 0, translations, start, result.length);
+			return null;
+		}
+
+		private String[] translateWithRetry(String[] chunk) throws Exception {
+			long delay = retryDelay;
+			for (int attempt = 1;; attempt++) {
+				try {
+					return checkResult(chunk, translator.translate(chunk, from, to));
+				} catch (Exception e) {
+					if (attempt >= maxAttempts || Thread.currentThread().isInterrupted())
+						throw e;
+				}
+				Thread.sleep(delay);
+				delay *= 2;
+			}
+		}
+
+		private String[] checkResult(String[] chunk, String[] result) {
+			if (result == null || result.length != chunk.length)
+				throw new IllegalStateException("Translator returned " + (result == null ? 0 : result.length)
+						+ " translations for " + chunk.length + " texts");
+			for (String translation : result)
+				if (translation == null)
+					throw new IllegalStateException("Translator returned no translation for a text");
+			return result;
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package com.ese2013.mub.util;
+
+import java.util.Set;
+
+/**
+ * Event which can be posted on an {@link EventBus}. An event consists of one
+ * or more types, which decide the channels of the EventBus it is delivered
+ * to.
+ * 
+ * @param <T>
+ *            Enum of the event types.
+ * @param <E>
+ *            The implementing event class itself.
+ */
+public interface BusEvent<T extends Enum<T>, E extends BusEvent<T, E>> {
+	/**
+	 * Returns the types of this event.
+	 * 
+	 * @return Set of the types, must not be modified.
+	 */
+	public Set<T> getTypes();
+
+	/**
+	 * Merges this event with a later one, used to coalesce events which are
+	 * posted before the first one has been delivered.
+	 * 
+	 * @param later
+	 *            Event which has been posted after this one. Must not be null.
+	 * @return new event containing the changes of both events.
+	 */
+	public E mergeWith(E later);
+}
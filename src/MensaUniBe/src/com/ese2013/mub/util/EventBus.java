@@ -0,0 +1,204 @@
+package com.ese2013.mub.util;
+
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Delivers typed events to subscribers. Every event type has its own channel,
+ * a subscriber only receives the events of the types it subscribed to, and
+ * every event at most once.
+ * 
+ * The events are always delivered asynchronously, in the main thread or in a
+ * background thread as chosen by the subscriber. A subscriber can also choose
+ * to coalesce events: all events which are posted before the first of them is
+ * delivered are then merged into a single event (e.g. changed ratings and new
+ * menus arriving at the same time only cause one refresh).
+ * 
+ * Subscribing, unsubscribing and posting are thread safe, the channels are
+ * copy-on-write lists which are only copied when the subscribers change.
+ * After unsubscribe() returns, events which are not delivered yet are dropped.
+ * 
+ * @param <T>
+ *            Enum of the event types.
+ * @param <E>
+ *            Class of the events.
+ */
+public class EventBus<T extends Enum<T>, E extends BusEvent<T, E>> {
+	/**
+	 * Thread in which the events are delivered to a subscriber.
+	 */
+	public static enum Delivery {
+		MAIN_THREAD, BACKGROUND
+	}
+
+	private final EnumMap<T, CopyOnWriteArrayList<Subscription>> channels;
+	private final Executor mainThreadExecutor;
+	private final Executor backgroundExecutor;
+
+	/**
+	 * Creates an EventBus which delivers the events using the main Looper or
+	 * a shared background thread.
+	 * 
+	 * @param typeClass
+	 *            Class of the event type Enum. Must not be null.
+	 */
+	public EventBus(Class<T> typeClass) {
+		this(typeClass, new MainThreadExecutor(), new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				BackgroundThread.EXECUTOR.execute(command);
+			}
+		});
+	}
+
+	/**
+	 * Creates an EventBus.
+	 * 
+	 * @param typeClass
+	 *            Class of the event type Enum. Must not be null.
+	 * @param mainThreadExecutor
+	 *            Executor used for the Delivery.MAIN_THREAD. Must not be null.
+	 * @param backgroundExecutor
+	 *            Executor used for the Delivery.BACKGROUND. Must not be null
+	 *            and should run the commands in order.
+	 */
+	public EventBus(Class<T> typeClass, Executor mainThreadExecutor, Executor backgroundExecutor) {
+		channels = new EnumMap<T, CopyOnWriteArrayList<Subscription>>(typeClass);
+		for (T type : typeClass.getEnumConstants())
+			channels.put(type, new CopyOnWriteArrayList<Subscription>());
+		this.mainThreadExecutor = mainThreadExecutor;
+		this.backgroundExecutor = backgroundExecutor;
+	}
+
+	/**
+	 * Subscribes to the given event types, the events are coalesced and
+	 * delivered in the main thread.
+	 * 
+	 * @param subscriber
+	 *            Subscriber to be added. Must not be null.
+	 * @param types
+	 *            Set of the event types to receive. Must not be null.
+	 */
+	public void subscribe(Subscriber<E> subscriber, Set<T> types) {
+		subscribe(subscriber, types, Delivery.MAIN_THREAD, true);
+	}
+
+	/**
+	 * Subscribes to the given event types. If the subscriber has already been
+	 * added, its old subscription is replaced.
+	 * 
+	 * @param subscriber
+	 *            Subscriber to be added. Must not be null.
+	 * @param types
+	 *            Set of the event types to receive. Must not be null.
+	 * @param delivery
+	 *            Delivery thread in which the events are passed to the
+	 *            subscriber. Must not be null.
+	 * @param coalesce
+	 *            true if events posted before the delivery of the previous one
+	 *            should be merged into it.
+	 */
+	public void subscribe(Subscriber<E> subscriber, Set<T> types, Delivery delivery, boolean coalesce) {
+		unsubscribe(subscriber);
+		Executor executor = (delivery == Delivery.MAIN_THREAD) ? mainThreadExecutor : backgroundExecutor;
+		Subscription subscription = new Subscription(subscriber, executor, coalesce);
+		for (T type : types)
+			channels.get(type).add(subscription);
+	}
+
+	/**
+	 * Removes a subscriber from all channels if possible. Events which have
+	 * been posted but not yet delivered to it are dropped.
+	 * 
+	 * @param subscriber
+	 *            Subscriber to be removed.
+	 */
+	public void unsubscribe(Subscriber<E> subscriber) {
+		for (CopyOnWriteArrayList<Subscription> channel : channels.values())
+			for (Subscription subscription : channel)
+				if (subscription.subscriber == subscriber) {
+					subscription.cancel();
+					channel.remove(subscription);
+				}
+	}
+
+	/**
+	 * Posts an event to the subscribers of its types.
+	 * 
+	 * @param event
+	 *            Event to be delivered. Must not be null.
+	 */
+	public void post(E event) {
+		Set<Subscription> receivers = new LinkedHashSet<Subscription>();
+		for (T type : event.getTypes())
+			receivers.addAll(channels.get(type));
+		for (Subscription subscription : receivers)
+			subscription.enqueue(event);
+	}
+
+	private class Subscription implements Runnable {
+		private final Subscriber<E> subscriber;
+		private final Executor executor;
+		private final boolean coalesce;
+		private volatile boolean cancelled;
+		private E pending;
+
+		private Subscription(Subscriber<E> subscriber, Executor executor, boolean coalesce) {
+			this.subscriber = subscriber;
+			this.executor = executor;
+			this.coalesce = coalesce;
+		}
+
+		private void enqueue(final E event) {
+			if (!coalesce) {
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						deliver(event);
+					}
+				});
+				return;
+			}
+			synchronized (this) {
+				if (pending != null) {
+					pending = pending.mergeWith(event);
+					return;
+				}
+				pending = event;
+			}
+			executor.execute(this);
+		}
+
+		@Override
+		public void run() {
+			E event;
+			synchronized (this) {
+				event = pending;
+				pending = null;
+			}
+			deliver(event);
+		}
+
+		private void deliver(E event) {
+			if (!cancelled)
+				subscriber.onEvent(event);
+		}
+
+		private void cancel() {
+			cancelled = true;
+		}
+	}
+
+	/**
+	 * Holds the background thread, which is only started when the first event
+	 * is delivered in the background.
+	 */
+	private static class BackgroundThread {
+		private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor();
+	}
+}
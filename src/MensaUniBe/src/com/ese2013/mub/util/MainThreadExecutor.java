@@ -0,0 +1,20 @@
+package com.ese2013.mub.util;
+
+import java.util.concurrent.Executor;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * Executor which runs the commands in the main thread, using the main Looper.
+ * The commands are always posted, also if execute() is called in the main
+ * thread.
+ */
+public class MainThreadExecutor implements Executor {
+	private final Handler handler = new Handler(Looper.getMainLooper());
+
+	@Override
+	public void execute(Runnable command) {
+		handler.post(command);
+	}
+}
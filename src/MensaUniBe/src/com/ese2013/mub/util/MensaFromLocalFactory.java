@@ -7,7 +7,6 @@ import android.database.sqlite.SQLiteException;
 
 import com.ese2013.mub.model.Mensa;
 import com.ese2013.mub.model.MenuManager;
-import com.ese2013.mub.model.WeeklyMenuplan;
 import com.ese2013.mub.util.database.MensaDataSource;
 
 /**
@@ -43,11 +42,7 @@ public class MensaFromLocalFactory extends AbstractMensaFactory {
 	public List<Mensa> createMensaList() throws MensaLoadException {
 		try {
 			dataSource.open();
-			List<Mensa> mensas = dataSource.loadMensaList();
-			for (Mensa m : mensas) {
-				WeeklyMenuplan p = dataSource.loadMenuplan(m.getId(), menuManager);
-				m.setMenuplan(p);
-			}
+			List<Mensa> mensas = dataSource.loadFullModel(menuManager);
 			Collections.sort(mensas);
 			return mensas;
 		} catch (SQLiteException e) {
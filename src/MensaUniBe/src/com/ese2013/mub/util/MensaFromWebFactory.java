@@ -10,15 +10,21 @@ import com.ese2013.mub.util.database.MensaDataSource;
 import com.ese2013.mub.util.parseDatabase.MensaDBHandler;
 
 /**
- * This factory creates the list of Mensas by downloading all Mensas and Menus
- * from the Parse-Server.
+ * This factory creates the list of Mensas by downloading the Mensas and Menus
+ * from the Parse-Server. If the local database has been synchronized before,
+ * only the changes since the last synchronization are downloaded and merged
+ * into (a copy of) the locally stored Mensas. If Menus have been deleted on
+ * the server in the meantime, everything is downloaded again.
  */
 public class MensaFromWebFactory extends AbstractMensaFactory {
 	private MensaDataSource dataSource;
 	private MenuManager menuManager;
+	private List<Mensa> localMensas;
+	private long syncWatermark;
 
 	/**
-	 * Creates a MensaFromWebFactory.
+	 * Creates a MensaFromWebFactory which loads the local Mensas itself if
+	 * only the changes have to be downloaded.
 	 * 
 	 * @param dataSource
 	 *            MensaDataSource which is needed to look up if a Mensa is a
@@ -28,13 +34,35 @@ public class MensaFromWebFactory extends AbstractMensaFactory {
 	 *            MenuManager to store all Menu instances. Must not be null.
 	 */
 	public MensaFromWebFactory(MensaDataSource dataSource, MenuManager menuManager) {
+		this(dataSource, menuManager, null);
+	}
+
+	/**
+	 * Creates a MensaFromWebFactory.
+	 * 
+	 * @param dataSource
+	 *            MensaDataSource which is needed to look up if a Mensa is a
+	 *            favorite Mensa. Must not be null and properly initialized by
+	 *            calling init().
+	 * @param menuManager
+	 *            MenuManager to store all Menu instances. Must not be null.
+	 * @param localMensas
+	 *            List of the Mensas which have already been loaded from the
+	 *            local database, possibly into another MenuManager. They are
+	 *            copied and not modified. If null, the local Mensas are loaded
+	 *            again when needed.
+	 */
+	public MensaFromWebFactory(MensaDataSource dataSource, MenuManager menuManager, List<Mensa> localMensas) {
 		this.menuManager = menuManager;
 		this.dataSource = dataSource;
+		this.localMensas = localMensas;
 	}
 
 	/**
 	 * Creates the list of Mensas from the Parse-Server (synchronous). Also sets
 	 * the "isFavorite" flag of the Mensas by looking at the local database.
+	 * Only downloads the changed Menus if the local data has been synchronized
+	 * before.
 	 * 
 	 * @throws MensaDownloadException
 	 *             if the download failed.
@@ -45,10 +73,25 @@ public class MensaFromWebFactory extends AbstractMensaFactory {
 	@Override
 	public List<Mensa> createMensaList() throws MensaDownloadException {
 		try {
-			List<Mensa> mensas = new MensaDBHandler().getMensasAndMenus(menuManager);
 			dataSource.open();
-			for (Mensa mensa : mensas)
-				mensa.setIsFavorite(dataSource.isInFavorites(mensa.getId()));
+			MensaDBHandler handler = new MensaDBHandler();
+			long lastSync = dataSource.getSyncWatermark();
+			List<Mensa> mensas = null;
+			if (lastSync > 0)
+				mensas = localMensas != null ? menuManager.copyMensas(localMensas) : dataSource
+						.loadFullModel(menuManager);
+			boolean upToDate = false;
+			if (mensas != null && !mensas.isEmpty()) {
+				upToDate = handler.getChangedMenus(mensas, menuManager, lastSync);
+				if (!upToDate) // Menus have been deleted on the server
+					menuManager.retainMenus(Collections.<String> emptySet());
+			}
+			if (!upToDate) {
+				mensas = handler.getMensasAndMenus(menuManager);
+				for (Mensa mensa : mensas)
+					mensa.setIsFavorite(dataSource.isInFavorites(mensa.getId()));
+			}
+			syncWatermark = handler.getLatestUpdate();
 			Collections.sort(mensas);
 			return mensas;
 		} catch (ParseException e) {
@@ -59,4 +102,15 @@ public class MensaFromWebFactory extends AbstractMensaFactory {
 			dataSource.close();
 		}
 	}
+
+	/**
+	 * Returns the time of the newest change on the Parse-Server contained in
+	 * the created Mensas. Should be stored together with the Mensas.
+	 * 
+	 * @return long time in milliseconds, only valid after createMensaList()
+	 *         has been called successfully.
+	 */
+	public long getSyncWatermark() {
+		return syncWatermark;
+	}
 }
\ No newline at end of file
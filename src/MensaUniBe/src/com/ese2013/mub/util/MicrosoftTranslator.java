@@ -0,0 +1,28 @@
+package com.ese2013.mub.util;
+
+import com.memetix.mst.language.Language;
+import com.memetix.mst.translate.Translate;
+
+/**
+ * Translator which uses the array call of the Microsoft Translating Api, so a
+ * whole array of texts is translated in a single request. The Api client is
+ * static and not thread-safe (e.g. its access token), so all calls to it are
+ * serialized and concurrent requests are translated one after the other.
+ */
+public class MicrosoftTranslator implements Translator {
+	private static final Object CLIENT_LOCK = new Object();
+
+	public MicrosoftTranslator() {
+		synchronized (CLIENT_LOCK) {
+			Translate.setClientId("ESE-Mub");
+			Translate.setClientSecret("3N8wC0wPZPj2v6KTT6GR/B28UDythCvpJ/NSWolMzwU=");
+		}
+	}
+
+	@Override
+	public String[] translate(String[] texts, Language from, Language to) throws Exception {
+		synchronized (CLIENT_LOCK) {
+			return Translate.execute(texts, from, to);
+		}
+	}
+}
@@ -2,32 +2,33 @@ package com.ese2013.mub.util;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Calendar;
+import java.util.Collections;
 import java.util.List;
-import java.util.Locale;
 
 import android.os.AsyncTask;
 
+import com.ese2013.mub.model.Day;
 import com.ese2013.mub.model.Mensa;
 import com.ese2013.mub.model.MenuManager;
 import com.ese2013.mub.util.database.MensaDataSource;
-import com.ese2013.mub.util.parseDatabase.MensaDBHandler;
-import com.parse.ParseException;
 
 /**
  * This class creates the list of mensas by either using the Parse-Server or
- * loading from the local data. Also downloads the Menu ratings if possible
- * every time the model is created (as the ratings change more often than the
- * Menus/Mensas).
+ * loading from the local data. The Menu ratings are not downloaded here, see
+ * {@link RatingsRefreshTask}.
  * 
  * The decision which data source to use for the Mensas/Menzs is taken by
- * comparing if the stored menus are from a past week.
+ * comparing if the stored menus are from a past week. If they are, the stored
+ * menus are still loaded and published first (see
+ * {@link ModelCreationTaskCallback#onStaleModelLoaded(ModelCreationTask)}), so
+ * they can be shown while the new menus are downloaded.
  * 
  */
 public class ModelCreationTask extends AsyncTask<Void, Void, Void> {
 	private MensaDataSource dataSource;
-	private List<Mensa> mensas;
+	private List<Mensa> mensas, staleMensas;
 	private boolean successful, localDataOutdated, downloadedNewData;
+	private long syncWatermark;
 	private MenuManager menuManager;
 	private List<ModelCreationTaskCallback> callbacks = new ArrayList<ModelCreationTaskCallback>();
 
@@ -62,47 +63,58 @@ public class ModelCreationTask extends AsyncTask<Void, Void, Void> {
 	@Override
 	protected Void doInBackground(Void... params) {
 		AbstractMensaFactory fac;
+		MensaFromWebFactory webFactory = null;
 		localDataOutdated = localDataNeedsUpdate();
 		if (localDataOutdated) {
-			fac = new MensaFromWebFactory(dataSource, menuManager);
+			loadStaleLocalData();
+			webFactory = new MensaFromWebFactory(dataSource, menuManager, staleMensas);
+			fac = webFactory;
 			downloadedNewData = true;
 		} else {
 			fac = new MensaFromLocalFactory(dataSource, menuManager);
 		}
 		try {
 			mensas = fac.createMensaList();
-			getRatings();
+			if (webFactory != null)
+				syncWatermark = webFactory.getSyncWatermark();
 			successful = true;
 		} catch (MensaDownloadException e) {
 			downloadedNewData = false;
-			retryUsingLocalData(true);
+			retryUsingLocalData();
 		} catch (MensaLoadException e) {
 			successful = false;
-		} catch (ParseException e) {
-			// if this happens at least one of the other exceptions is thrown
-			// first usually. Also, the ParseException is only thrown when
-			// retrieving ratings (which is not that important)
-			downloadedNewData = false;
-			retryUsingLocalData(false);
 		}
 		return null;
 	}
 
-	private void getRatings() throws ParseException {
-		new MensaDBHandler().getMenuRatings(menuManager);
+	/**
+	 * Loads the outdated local data and publishes it, such that it can already
+	 * be displayed while downloading. The stale Menus are kept in their own
+	 * MenuManager, so they are neither translated nor rated as part of the new
+	 * model, and the published Mensas are never modified by the download.
+	 */
+	private void loadStaleLocalData() {
+		try {
+			staleMensas = new MensaFromLocalFactory(dataSource, new MenuManager()).createMensaList();
+			if (!staleMensas.isEmpty())
+				publishProgress();
+		} catch (MensaLoadException e) {
+			staleMensas = null;
+		}
 	}
 
-	private void retryUsingLocalData(boolean getRatings) {
+	private void retryUsingLocalData() {
+		// drop the Menus of the failed download
+		menuManager.retainMenus(Collections.<String> emptySet());
 		AbstractMensaFactory fac = new MensaFromLocalFactory(dataSource, menuManager);
 		try {
-			mensas = fac.createMensaList();
-			if (getRatings)
-				getRatings();
+			if (staleMensas != null && !staleMensas.isEmpty())
+				mensas = menuManager.copyMensas(staleMensas);
+			else
+				mensas = fac.createMensaList();
 			successful = true;
 		} catch (IOException e) {
 			successful = false;
-		} catch (ParseException e) {
-			retryUsingLocalData(false);
 		}
 	}
 
@@ -136,6 +148,27 @@ public class ModelCreationTask extends AsyncTask<Void, Void, Void> {
 		return mensas;
 	}
 
+	/**
+	 * Returns the time of the newest change on the Parse-Server contained in
+	 * the loaded mensas.
+	 * 
+	 * @return long time in milliseconds, 0 if no new data has been downloaded.
+	 */
+	public long getSyncWatermark() {
+		return syncWatermark;
+	}
+
+	/**
+	 * Returns the list of outdated mensas which has been loaded from the local
+	 * data before downloading the new mensas.
+	 * 
+	 * @return List of {@link Mensa} objects, is null if the local data was
+	 *         not outdated or could not be loaded.
+	 */
+	public List<Mensa> getStaleMensas() {
+		return staleMensas;
+	}
+
 	/**
 	 * Returns if the loading was successful or not.
 	 * 
@@ -176,6 +209,16 @@ public class ModelCreationTask extends AsyncTask<Void, Void, Void> {
 		return false;
 	}
 
+	/**
+	 * Called after the outdated local data has been loaded, informs the
+	 * ModelCreationTaskCallbacks (is now again in the Main Thread).
+	 */
+	@Override
+	protected void onProgressUpdate(Void... values) {
+		for (ModelCreationTaskCallback callback : callbacks)
+			callback.onStaleModelLoaded(this);
+	}
+
 	/**
 	 * Called after the task has been executed, informs the
 	 * ModelCreationTaskCallbacks that the Task is done (is now again in the
@@ -189,7 +232,7 @@ public class ModelCreationTask extends AsyncTask<Void, Void, Void> {
 	}
 
 	private boolean menusNotFromCurrentWeek() {
-		int currentWeek = Calendar.getInstance(Locale.GERMAN).get(Calendar.WEEK_OF_YEAR);
+		int currentWeek = Day.today().getWeekNumber();
 		int menusWeek = dataSource.getWeekOfStoredMenus();
 		if (currentWeek > menusWeek)
 			return true;
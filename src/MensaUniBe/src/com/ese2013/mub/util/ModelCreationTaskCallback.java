@@ -5,4 +5,13 @@ package com.ese2013.mub.util;
  */
 public interface ModelCreationTaskCallback {
 	public void onModelCreationTaskFinished(ModelCreationTask task);
+
+	/**
+	 * Called if the local data is outdated but could be loaded, before the new
+	 * data is downloaded. The loaded data is available from getStaleMensas().
+	 * 
+	 * @param task
+	 *            The ModelCreationTask which is still downloading.
+	 */
+	public void onStaleModelLoaded(ModelCreationTask task);
 }
\ No newline at end of file
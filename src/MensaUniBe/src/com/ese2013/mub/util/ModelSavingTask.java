@@ -14,6 +14,7 @@ import com.ese2013.mub.util.database.MensaDataSource;
 public class ModelSavingTask extends AsyncTask<Void, Void, Void> {
 	private MensaDataSource dataSource;
 	private List<Mensa> mensas;
+	private long syncWatermark = -1;
 
 	/**
 	 * Creates a ModelSavingTask.
@@ -29,14 +30,29 @@ public class ModelSavingTask extends AsyncTask<Void, Void, Void> {
 		this.mensas = mensas;
 	}
 
+	/**
+	 * Creates a ModelSavingTask which also stores the time of the last
+	 * synchronization with the Parse-Server.
+	 * 
+	 * @param dataSource
+	 *            MensaDataSource to be used to save the model.
+	 * @param mensas
+	 *            List of mensas to be stored.
+	 * @param syncWatermark
+	 *            long time in milliseconds of the newest downloaded change.
+	 */
+	public ModelSavingTask(List<Mensa> mensas, MensaDataSource dataSource, long syncWatermark) {
+		this(mensas, dataSource);
+		this.syncWatermark = syncWatermark;
+	}
+
 	@Override
 	protected Void doInBackground(Void... params) {
 		dataSource.open();
-		dataSource.storeMensaList(mensas);
-		dataSource.deleteMenus();
-		for (Mensa m : mensas)
-			dataSource.storeWeeklyMenuplan(m);
-
+		if (syncWatermark >= 0)
+			dataSource.storeModel(mensas, syncWatermark);
+		else
+			dataSource.storeModel(mensas);
 		dataSource.close();
 		return null;
 	}
@@ -0,0 +1,106 @@
+package com.ese2013.mub.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ese2013.mub.model.Menu;
+import com.ese2013.mub.model.MenuManager;
+import com.ese2013.mub.util.database.MensaDataSource;
+import com.ese2013.mub.util.parseDatabase.MensaDBHandler;
+
+/**
+ * Asynchronous task to refresh the ratings of the loaded Menus. The ratings are
+ * stored locally, so they are only downloaded if the stored ratings are older
+ * than RATINGS_TTL. Only the Menus whose ratings changed are updated and
+ * stored.
+ */
+public class RatingsRefreshTask extends AbstractAsyncTask<Void, Void, Void> {
+	/** Time in milliseconds the stored ratings are considered up to date. */
+	public static final long RATINGS_TTL = 10 * 60 * 1000;
+
+	private MenuManager menuManager;
+	private MensaDataSource dataSource;
+	private boolean force;
+	private RatingsRefreshTaskCallback callback;
+	private List<Menu> changedRatings = new ArrayList<Menu>();
+
+	/**
+	 * Creates a new RatingsRefreshTask.
+	 * 
+	 * @param menuManager
+	 *            MenuManager which contains the Menus to be updated. Must not
+	 *            be null.
+	 * @param dataSource
+	 *            MensaDataSource to store the ratings. Must not be null and
+	 *            must have been initialized by calling init().
+	 * @param force
+	 *            true if the ratings should be downloaded even if the stored
+	 *            ratings are still up to date.
+	 * @param callback
+	 *            RatingsRefreshTaskCallback to be called when the task is
+	 *            done. Must not be null.
+	 */
+	public RatingsRefreshTask(MenuManager menuManager, MensaDataSource dataSource, boolean force,
+			RatingsRefreshTaskCallback callback) {
+		this.menuManager = menuManager;
+		this.dataSource = dataSource;
+		this.force = force;
+		this.callback = callback;
+	}
+
+	@Override
+	protected Void doInBackground(Void... params) {
+		try {
+			dataSource.open();
+			if (!force && System.currentTimeMillis() - dataSource.getRatingsUpdateTime() < RATINGS_TTL)
+				return null;
+
+			List<String> menuIds = new ArrayList<String>(menuManager.getMenuIds());
+			for (Menu rating : new MensaDBHandler().getMenuRatings(menuIds)) {
+				Menu menu = menuManager.getMenu(rating.getId());
+				if (menu != null
+						&& (menu.getRatingSum() != rating.getRatingSum() || menu.getRatingCount() != rating
+								.getRatingCount()))
+					changedRatings.add(rating);
+			}
+			dataSource.storeRatings(changedRatings);
+		} catch (Exception e) {
+			// ParseException or SQLException, the old ratings are kept.
+			changedRatings.clear();
+			setException(e);
+		} finally {
+			dataSource.close();
+		}
+		return null;
+	}
+
+	/**
+	 * Applies the changed ratings to the loaded Menus (in the Main Thread) and
+	 * informs the callback.
+	 */
+	@Override
+	protected void onPostExecute(Void result) {
+		super.onPostExecute(result);
+		if (hasSucceeded()) {
+			for (Menu rating : changedRatings) {
+				Menu menu = menuManager.getMenu(rating.getId());
+				if (menu != null) {
+					menu.setRatingSum(rating.getRatingSum());
+					menu.setRatingCount(rating.getRatingCount());
+				}
+			}
+		} else {
+			logException("RATINGS", "Could not refresh ratings");
+		}
+		callback.onRatingsRefreshTaskFinished(this);
+	}
+
+	/**
+	 * Returns if any rating of the loaded Menus changed.
+	 * 
+	 * @return true if at least one Menu got a new rating.
+	 */
+	public boolean hasChangedRatings() {
+		return !changedRatings.isEmpty();
+	}
+}
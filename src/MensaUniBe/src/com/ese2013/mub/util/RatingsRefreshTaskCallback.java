@@ -0,0 +1,5 @@
+package com.ese2013.mub.util;
+
+public interface RatingsRefreshTaskCallback {
+	public void onRatingsRefreshTaskFinished(RatingsRefreshTask task);
+}
@@ -0,0 +1,12 @@
+package com.ese2013.mub.util;
+
+/**
+ * Interface to be implemented in any class which receives the events of an
+ * {@link EventBus}.
+ * 
+ * @param <E>
+ *            Class of the received events.
+ */
+public interface Subscriber<E> {
+	public void onEvent(E event);
+}
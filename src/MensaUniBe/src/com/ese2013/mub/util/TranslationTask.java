@@ -1,22 +1,32 @@
 package com.ese2013.mub.util;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import com.ese2013.mub.model.Menu;
 import com.ese2013.mub.model.MenuManager;
+import com.ese2013.mub.util.database.MensaDataSource;
 import com.memetix.mst.language.Language;
-import com.memetix.mst.translate.Translate;
 
 /**
  * Asynchronous task to translate existing Menus from German to another Language
- * using the Microsoft Translating Api.
+ * using the Microsoft Translating Api. Translations are remembered in the local
+ * database keyed by their German source text, so only texts which have never
+ * been translated before are sent to the Api.
  */
 public class TranslationTask extends AbstractAsyncTask<Void, Void, Void> {
 	private static final String NEW_LINE_CODE = " ; ", DOUBLE_QUOTE_CODE = " ' ",
 			NONE_ASCII_CHARACTERS_REGEX = "[^\\x00-\\x7F]";
 	private Language newLang;
 	private Collection<Menu> menus;
-	private String[] newTitles, newDescriptions;
+	private Map<String, String> translations;
+	private MensaDataSource dataSource;
+	private Translator translator;
 	private TranslationTaskCallback callback;
 
 	/**
@@ -28,58 +38,99 @@ public class TranslationTask extends AbstractAsyncTask<Void, Void, Void> {
 	 * @param newLang
 	 *            Language which the Menus should be translated into.Must not be
 	 *            null.
+	 * @param dataSource
+	 *            MensaDataSource which stores the known translations. Must not
+	 *            be null.
 	 * @param callback
 	 *            TranslationTaskCallback to be called when the task is done.
 	 *            Must not be null.
 	 */
-	public TranslationTask(MenuManager menuManager, Language newLang, TranslationTaskCallback callback) {
-		Translate.setClientId("ESE-Mub");
-		Translate.setClientSecret("3N8wC0wPZPj2v6KTT6GR/B28UDythCvpJ/NSWolMzwU=");
-
+	public TranslationTask(MenuManager menuManager, Language newLang, MensaDataSource dataSource,
+			TranslationTaskCallback callback) {
+		this.translator = new BatchTranslator(new MicrosoftTranslator());
 		this.newLang = newLang;
 		this.menus = menuManager.getMenus();
+		this.dataSource = dataSource;
 		this.callback = callback;
 	}
 
 	@Override
 	protected Void doInBackground(Void... arg0) {
-		String[] menuTitles = new String[menus.size()];
-		String[] descriptions = new String[menus.size()];
-
-		int i = 0;
+		Set<String> sourceTexts = new LinkedHashSet<String>();
 		for (Menu menu : menus) {
-			menuTitles[i] = menu.getOrigTitle().replaceAll(NONE_ASCII_CHARACTERS_REGEX, "");
-			descriptions[i] = menu.getOrigDescription().replace("\n", NEW_LINE_CODE).replace("\"", DOUBLE_QUOTE_CODE);
-			i++;
+			sourceTexts.add(menu.getOrigTitle());
+			sourceTexts.add(menu.getOrigDescription());
 		}
 
+		dataSource.open();
 		try {
-			newTitles = Translate.execute(menuTitles, Language.GERMAN, newLang);
-			newDescriptions = new String[descriptions.length];
-			for (int j = 0; j < newDescriptions.length; j++)
-				newDescriptions[j] = Translate.execute(descriptions[j], Language.GERMAN, newLang);
+			translations = dataSource.loadTranslations(sourceTexts, newLang.toString());
 
+			Set<String> missingTitles = new LinkedHashSet<String>();
+			Set<String> missingDescriptions = new LinkedHashSet<String>();
+			for (Menu menu : menus) {
+				if (!translations.containsKey(menu.getOrigTitle()))
+					missingTitles.add(menu.getOrigTitle());
+				if (!translations.containsKey(menu.getOrigDescription()))
+					missingDescriptions.add(menu.getOrigDescription());
+			}
+
+			Map<String, String> newTranslations = translate(missingTitles, missingDescriptions);
+			if (!newTranslations.isEmpty())
+				dataSource.storeTranslations(newTranslations, newLang.toString());
+			translations.putAll(newTranslations);
 		} catch (Exception e) {
 			// Api throws general exception class "Exception"...
 			setException(e);
+		} finally {
+			dataSource.close();
 		}
 		return null;
 	}
 
+	/**
+	 * Translates the titles and descriptions together in as few requests as
+	 * possible and returns the decoded translations by source text.
+	 */
+	private Map<String, String> translate(Set<String> titles, Set<String> descriptions) throws Exception {
+		Map<String, String> newTranslations = new HashMap<String, String>();
+		if (titles.isEmpty() && descriptions.isEmpty())
+			return newTranslations;
+
+		List<String> sources = new ArrayList<String>(titles.size() + descriptions.size());
+		sources.addAll(titles);
+		sources.addAll(descriptions);
+		String[] encoded = new String[sources.size()];
+		for (int i = 0; i < encoded.length; i++) {
+			String source = sources.get(i);
+			if (i < titles.size())
+				encoded[i] = source.replaceAll(NONE_ASCII_CHARACTERS_REGEX, "");
+			else
+				encoded[i] = source.replace("\n", NEW_LINE_CODE).replace("\"", DOUBLE_QUOTE_CODE);
+		}
+
+		String[] translated = translator.translate(encoded, Language.GERMAN, newLang);
+		for (int i = 0; i < translated.length; i++) {
+			if (i < titles.size())
+				newTranslations.put(sources.get(i), translated[i]);
+			else
+				newTranslations.put(sources.get(i),
+						translated[i].replace(NEW_LINE_CODE.trim(), "\n").replace(DOUBLE_QUOTE_CODE, "\""));
+		}
+		return newTranslations;
+	}
+
 	@Override
 	protected void onPostExecute(Void arg0) {
 		super.onPostExecute(arg0);
 		if (hasSucceeded()) {
-			int i = 0;
 			for (Menu menu : menus) {
-				menu.setTranslatedTitle(newTitles[i]);
-				menu.setTranslatedDescription(newDescriptions[i].replace(NEW_LINE_CODE.trim(), "\n").replace(
-						DOUBLE_QUOTE_CODE, "\""));
-				i++;
+				menu.setTranslatedTitle(translations.get(menu.getOrigTitle()));
+				menu.setTranslatedDescription(translations.get(menu.getOrigDescription()));
 			}
 		} else {
 			logException("TRANSLATION", "Could not translate");
 		}
 		callback.onTranslationTaskFinished(this);
 	}
-}
\ No newline at end of file
+}
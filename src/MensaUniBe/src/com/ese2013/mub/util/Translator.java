@@ -0,0 +1,24 @@
+package com.ese2013.mub.util;
+
+import com.memetix.mst.language.Language;
+
+/**
+ * Translates texts from one Language into another.
+ */
+public interface Translator {
+	/**
+	 * Translates the given texts (synchronous).
+	 * 
+	 * @param texts
+	 *            Array of texts to be translated. Must not be null.
+	 * @param from
+	 *            Language of the given texts.
+	 * @param to
+	 *            Language the texts should be translated into.
+	 * @return Array of the translated texts, in the same order as the given
+	 *         texts.
+	 * @throws Exception
+	 *             if the texts could not be translated.
+	 */
+	public String[] translate(String[] texts, Language from, Language to) throws Exception;
+}
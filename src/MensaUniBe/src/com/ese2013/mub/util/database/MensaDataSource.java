@@ -1,17 +1,21 @@
 package com.ese2013.mub.util.database;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
-import java.util.Calendar;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 
 import com.ese2013.mub.model.DailyMenuplan;
 import com.ese2013.mub.model.Day;
@@ -23,52 +27,66 @@ import com.ese2013.mub.util.database.tables.FavoritesTable;
 import com.ese2013.mub.util.database.tables.MensasTable;
 import com.ese2013.mub.util.database.tables.MenusMensasTable;
 import com.ese2013.mub.util.database.tables.MenusTable;
+import com.ese2013.mub.util.database.tables.MetadataTable;
+import com.ese2013.mub.util.database.tables.TranslationsTable;
 
 /**
- * Manages storing and loading data from the Mensa SQLite database.
+ * Manages storing and loading data from the Mensa SQLite database. The
+ * database connection is shared by all users of this class: open() borrows the
+ * connection and close() returns it. The connection itself stays open (in WAL
+ * mode) for the lifetime of the application, so borrowing it is cheap and
+ * several tasks can use it at the same time.
  */
 public class MensaDataSource {
 	private SQLiteDatabase database;
 	private SqlDatabaseHelper dbHelper;
-	private SimpleDateFormat fm = new SimpleDateFormat("yyyy-MM-dd", Locale.GERMAN);
+	private static final int TRANSLATION_LOOKUP_CHUNK = 500;
 	private static MensaDataSource instance;
 
 	private MensaDataSource() {
 	}
 
-	public static MensaDataSource getInstance() {
+	public static synchronized MensaDataSource getInstance() {
 		if (instance == null)
 			instance = new MensaDataSource();
 		return instance;
 	}
 
 	/**
-	 * Should be called before the MensaDataSource is used.
+	 * Should be called before the MensaDataSource is used. Calling it again
+	 * has no effect, as the connection is kept for the whole application.
 	 * 
 	 * @param context
 	 *            Context in which the DataSource is used, i.e. the application
 	 *            context. Must not be null.
 	 */
-	public void init(Context context) {
-		dbHelper = new SqlDatabaseHelper(context);
+	public synchronized void init(Context context) {
+		if (dbHelper == null)
+			dbHelper = new SqlDatabaseHelper(context.getApplicationContext());
 	}
 
 	/**
-	 * Opens the database, must be called before using the database. Caller must
-	 * also call close() after using the database to avoid a resource leak.
+	 * Borrows the database connection, must be called before using the
+	 * database. The database is only really opened on the first call. Caller
+	 * must also call close() after using the database.
 	 * 
 	 * @throws SQLException
 	 *             If the database cannot be created or read.
 	 */
-	public void open() throws SQLException {
-		database = dbHelper.getWritableDatabase();
+	public synchronized void open() throws SQLException {
+		if (database == null || !database.isOpen()) {
+			database = dbHelper.getWritableDatabase();
+			database.enableWriteAheadLogging();
+		}
 	}
 
 	/**
-	 * Closes the database. Must be called after using the database.
+	 * Returns the borrowed database connection. Must be called after using the
+	 * database. The connection is not closed, such that the next open() does
+	 * not have to open the database file again. Android closes it when the
+	 * process ends.
 	 */
-	public void close() {
-		dbHelper.close();
+	public synchronized void close() {
 	}
 
 	/**
@@ -132,13 +150,19 @@ public class MensaDataSource {
 	 *            List of mensas to update the favorites table.
 	 */
 	public void storeFavorites(List<Mensa> mensas) {
-		database.delete(FavoritesTable.TABLE_FAV_MENSAS, null, null);
-		for (Mensa m : mensas) {
-			if (m.isFavorite()) {
-				ContentValues values = new ContentValues();
-				values.put(MensasTable.COL_ID, m.getId());
-				database.insert(FavoritesTable.TABLE_FAV_MENSAS, null, values);
+		database.beginTransactionNonExclusive();
+		try {
+			database.delete(FavoritesTable.TABLE_FAV_MENSAS, null, null);
+			for (Mensa m : mensas) {
+				if (m.isFavorite()) {
+					ContentValues values = new ContentValues();
+					values.put(MensasTable.COL_ID, m.getId());
+					database.insert(FavoritesTable.TABLE_FAV_MENSAS, null, values);
+				}
 			}
+			database.setTransactionSuccessful();
+		} finally {
+			database.endTransaction();
 		}
 	}
 
@@ -152,7 +176,9 @@ public class MensaDataSource {
 	public boolean isInFavorites(int mensaId) {
 		Cursor c = database.rawQuery("select * from " + FavoritesTable.TABLE_FAV_MENSAS + " where " + MensasTable.COL_ID
 				+ "=" + mensaId, null);
-		return c.getCount() != 0;
+		boolean isFavorite = c.getCount() != 0;
+		c.close();
+		return isFavorite;
 	}
 
 	/**
@@ -168,6 +194,91 @@ public class MensaDataSource {
 		for (DailyMenuplan d : plan)
 			for (Menu m : d.getMenus())
 				storeMenu(m, mensa);
+		updateFirstDayOfStoredMenus();
+	}
+
+	/**
+	 * Records the first day of all stored menus in the metadata table, such
+	 * that getWeekOfStoredMenus() does not need to look at the menus.
+	 */
+	private void updateFirstDayOfStoredMenus() {
+		database.execSQL("insert or replace into " + MetadataTable.TABLE_METADATA + "(" + MetadataTable.COL_KEY + ","
+				+ MetadataTable.COL_VALUE + ") select * from (select '" + MetadataTable.KEY_FIRST_DAY + "', min("
+				+ MenusMensasTable.COL_DATE + ") as first from " + MenusMensasTable.TABLE_MENUS_MENSAS
+				+ ") where first is not null;");
+	}
+
+	/**
+	 * Replaces all stored Mensas and Menus by the given list of Mensas and their
+	 * WeeklyMenuplans. Everything is written in one single transaction using
+	 * pre-compiled insert statements, which is a lot faster than storing every
+	 * Menu on its own. If anything fails, the database is left unchanged.
+	 * 
+	 * @param mensas
+	 *            The List of Mensa objects to be stored, including their
+	 *            WeeklyMenuplans. Must not be null and must not contain null.
+	 */
+	public void storeModel(List<Mensa> mensas) {
+		storeModel(mensas, getSyncWatermark());
+	}
+
+	/**
+	 * Same as storeModel(List), but also stores the time of the last
+	 * synchronization with the Parse-Server in the same transaction.
+	 * 
+	 * @param mensas
+	 *            The List of Mensa objects to be stored, including their
+	 *            WeeklyMenuplans. Must not be null and must not contain null.
+	 * @param syncWatermark
+	 *            long time in milliseconds of the newest downloaded change.
+	 */
+	public void storeModel(List<Mensa> mensas, long syncWatermark) {
+		database.beginTransactionNonExclusive();
+		try {
+			storeMensaList(mensas);
+			deleteMenus();
+			SQLiteStatement insertMenu = database.compileStatement("insert or replace into " + MenusTable.TABLE_MENUS
+					+ "(" + MenusTable.COL_ID + "," + MenusTable.COL_TITLE + "," + MenusTable.COL_DESC + ","
+					+ MenusTable.COL_TRANSL_TITLE + "," + MenusTable.COL_TRANSL_DESC + "," + MenusTable.COL_RATING_SUM + ","
+					+ MenusTable.COL_RATING_COUNT + ") values (?,?,?,?,?,?,?)");
+			// "or ignore" keeps the first day of serving, like storeMenu() does
+			SQLiteStatement insertMenuMensa = database.compileStatement("insert or ignore into "
+					+ MenusMensasTable.TABLE_MENUS_MENSAS + "(" + MenusTable.COL_ID + "," + MensasTable.COL_ID + ","
+					+ MenusMensasTable.COL_DATE + ") values (?,?,?)");
+			try {
+				for (Mensa mensa : mensas)
+					storeWeeklyMenuplan(mensa, insertMenu, insertMenuMensa);
+			} finally {
+				insertMenu.close();
+				insertMenuMensa.close();
+			}
+			updateFirstDayOfStoredMenus();
+			storeMetadata(MetadataTable.KEY_SYNC_WATERMARK, syncWatermark);
+			database.setTransactionSuccessful();
+		} finally {
+			database.endTransaction();
+		}
+	}
+
+	private void storeWeeklyMenuplan(Mensa mensa, SQLiteStatement insertMenu, SQLiteStatement insertMenuMensa) {
+		for (DailyMenuplan d : mensa.getMenuplan()) {
+			long date = d.getDay().toEpochDay();
+			for (Menu menu : d.getMenus()) {
+				insertMenu.bindString(1, menu.getId());
+				insertMenu.bindString(2, menu.getOrigTitle());
+				insertMenu.bindString(3, menu.getOrigDescription());
+				insertMenu.bindString(4, menu.getTranslatedTitle());
+				insertMenu.bindString(5, menu.getTranslatedDescription());
+				insertMenu.bindLong(6, menu.getRatingSum());
+				insertMenu.bindLong(7, menu.getRatingCount());
+				insertMenu.executeInsert();
+
+				insertMenuMensa.bindString(1, menu.getId());
+				insertMenuMensa.bindLong(2, mensa.getId());
+				insertMenuMensa.bindLong(3, date);
+				insertMenuMensa.executeInsert();
+			}
+		}
 	}
 
 	/**
@@ -186,13 +297,15 @@ public class MensaDataSource {
 		values.put(MenusTable.COL_DESC, menu.getOrigDescription());
 		values.put(MenusTable.COL_TRANSL_TITLE, menu.getTranslatedTitle());
 		values.put(MenusTable.COL_TRANSL_DESC, menu.getTranslatedDescription());
+		values.put(MenusTable.COL_RATING_SUM, menu.getRatingSum());
+		values.put(MenusTable.COL_RATING_COUNT, menu.getRatingCount());
 
 		database.replace(MenusTable.TABLE_MENUS, null, values);
 
 		ContentValues values2 = new ContentValues();
 		values2.put(MenusTable.COL_ID, menu.getId());
 		values2.put(MensasTable.COL_ID, mensa.getId());
-		values2.put(MenusMensasTable.COL_DATE, mensa.getMenuplan().getDayOfServing(menu).format(fm));
+		values2.put(MenusMensasTable.COL_DATE, mensa.getMenuplan().getDayOfServing(menu).toEpochDay());
 		database.replace(MenusMensasTable.TABLE_MENUS_MENSAS, null, values2);
 	}
 
@@ -214,20 +327,130 @@ public class MensaDataSource {
 		final int POS_DESC = c.getColumnIndex(MenusTable.COL_DESC);
 		final int POS_TRANSL_TITLE = c.getColumnIndex(MenusTable.COL_TRANSL_TITLE);
 		final int POS_TRANSL_DESC = c.getColumnIndex(MenusTable.COL_TRANSL_DESC);
+		final int POS_RATING_SUM = c.getColumnIndex(MenusTable.COL_RATING_SUM);
+		final int POS_RATING_COUNT = c.getColumnIndex(MenusTable.COL_RATING_COUNT);
 		final int POS_DATE = c.getColumnIndex(MenusMensasTable.COL_DATE);
 		WeeklyMenuplan p = new WeeklyMenuplan();
 		while (c.moveToNext()) {
-			try {
-				Menu menu = menuManager.createMenu(c.getString(POS_ID), c.getString(POS_TITLE), c.getString(POS_DESC),
-						c.getString(POS_TRANSL_TITLE), c.getString(POS_TRANSL_DESC));
-				p.add(menu, new Day(fm.parse(c.getString(POS_DATE))));
-			} catch (ParseException e) {
-				throw new AssertionError("Database did not save properly");
-			}
+			Menu menu = menuManager.createMenu(c.getString(POS_ID), c.getString(POS_TITLE), c.getString(POS_DESC),
+					c.getString(POS_TRANSL_TITLE), c.getString(POS_TRANSL_DESC));
+			menu.setRatingSum(c.getInt(POS_RATING_SUM));
+			menu.setRatingCount(c.getInt(POS_RATING_COUNT));
+			p.add(menu, Day.fromEpochDay(c.getLong(POS_DATE)));
 		}
+		c.close();
 		return p;
 	}
 
+	/**
+	 * Loads all Mensas including their favorite flag and their WeeklyMenuplans
+	 * using one single query. This avoids querying the favorites and the menus
+	 * of every Mensa separately.
+	 * 
+	 * @param menuManager
+	 *            MenuManager to create the Menus. Must not be null.
+	 * @return List of Mensas (ordered by id) with their WeeklyMenuplans set.
+	 *         Mensas without any stored Menus get an empty WeeklyMenuplan.
+	 */
+	public List<Mensa> loadFullModel(MenuManager menuManager) {
+		String query = "select m." + MensasTable.COL_ID + ", m." + MensasTable.COL_NAME + ", m." + MensasTable.COL_STREET
+				+ ", m." + MensasTable.COL_ZIP + ", m." + MensasTable.COL_LON + ", m." + MensasTable.COL_LAT + ", f."
+				+ MensasTable.COL_ID + " is not null as fav, mm." + MenusMensasTable.COL_DATE + ", me." + MenusTable.COL_ID
+				+ ", me." + MenusTable.COL_TITLE + ", me.\"" + MenusTable.COL_DESC + "\", me."
+				+ MenusTable.COL_TRANSL_TITLE + ", me." + MenusTable.COL_TRANSL_DESC + ", me." + MenusTable.COL_RATING_SUM
+				+ ", me." + MenusTable.COL_RATING_COUNT + " from " + MensasTable.TABLE_MENSAS
+				+ " m left join " + FavoritesTable.TABLE_FAV_MENSAS + " f on f." + MensasTable.COL_ID + " = m."
+				+ MensasTable.COL_ID + " left join " + MenusMensasTable.TABLE_MENUS_MENSAS + " mm on mm."
+				+ MensasTable.COL_ID + " = m." + MensasTable.COL_ID + " left join " + MenusTable.TABLE_MENUS
+				+ " me on me." + MenusTable.COL_ID + " = mm." + MenusTable.COL_ID + " order by m." + MensasTable.COL_ID
+				+ ", mm.rowid;";
+		final int POS_ID = 0, POS_NAME = 1, POS_STREET = 2, POS_ZIP = 3, POS_LON = 4, POS_LAT = 5, POS_FAV = 6,
+				POS_DATE = 7, POS_MENU_ID = 8, POS_TITLE = 9, POS_DESC = 10, POS_TRANSL_TITLE = 11, POS_TRANSL_DESC = 12,
+				POS_RATING_SUM = 13, POS_RATING_COUNT = 14;
+
+		List<Mensa> mensas = new ArrayList<Mensa>();
+		Day day = null;
+		Cursor c = database.rawQuery(query, null);
+		try {
+			Mensa mensa = null;
+			WeeklyMenuplan plan = null;
+			while (c.moveToNext()) {
+				int mensaId = c.getInt(POS_ID);
+				if (mensa == null || mensa.getId() != mensaId) {
+					Mensa.MensaBuilder builder = new Mensa.MensaBuilder();
+					builder.setId(mensaId);
+					builder.setName(c.getString(POS_NAME));
+					builder.setStreet(c.getString(POS_STREET));
+					builder.setZip(c.getString(POS_ZIP));
+					builder.setLongitude(c.getDouble(POS_LON));
+					builder.setLatitude(c.getDouble(POS_LAT));
+					builder.setIsFavorite(c.getInt(POS_FAV) != 0);
+					mensa = builder.build();
+					plan = new WeeklyMenuplan();
+					mensa.setMenuplan(plan);
+					mensas.add(mensa);
+				}
+				if (c.isNull(POS_MENU_ID))
+					continue;
+
+				Menu menu = menuManager.createMenu(c.getString(POS_MENU_ID), c.getString(POS_TITLE),
+						c.getString(POS_DESC), c.getString(POS_TRANSL_TITLE), c.getString(POS_TRANSL_DESC));
+				menu.setRatingSum(c.getInt(POS_RATING_SUM));
+				menu.setRatingCount(c.getInt(POS_RATING_COUNT));
+				long epochDay = c.getLong(POS_DATE);
+				if (day == null || day.toEpochDay() != epochDay)
+					day = Day.fromEpochDay(epochDay);
+				plan.add(menu, day);
+			}
+		} finally {
+			c.close();
+		}
+		return mensas;
+	}
+
+	/**
+	 * Loads only the Menus served on the given day, without creating the
+	 * rest of the model (no MenuManager, no other days, no translations or
+	 * ratings). Meant for background work like the daily notification, which
+	 * needs nothing but the Menus of today. The lookup uses the index on the
+	 * mensa and date of the menusMensas table.
+	 * 
+	 * @param day
+	 *            Day of which the Menus should be loaded. Must not be null.
+	 * @param favoritesOnly
+	 *            true to load only the favorite Mensas, false to load all.
+	 * @return List of the Mensas (with id and name only) which have Menus on
+	 *         the given day. Their WeeklyMenuplan only contains that day.
+	 */
+	public List<Mensa> loadMenusOfDay(Day day, boolean favoritesOnly) {
+		String query = "select m." + MensasTable.COL_ID + ", m." + MensasTable.COL_NAME + ", me." + MenusTable.COL_ID
+				+ ", me." + MenusTable.COL_TITLE + ", me.\"" + MenusTable.COL_DESC + "\" from " + MensasTable.TABLE_MENSAS
+				+ " m" + (favoritesOnly ? " join " + FavoritesTable.TABLE_FAV_MENSAS + " f on f." + MensasTable.COL_ID
+						+ " = m." + MensasTable.COL_ID : "") + " join " + MenusMensasTable.TABLE_MENUS_MENSAS
+				+ " mm on mm." + MensasTable.COL_ID + " = m." + MensasTable.COL_ID + " and mm."
+				+ MenusMensasTable.COL_DATE + " = ? join " + MenusTable.TABLE_MENUS + " me on me." + MenusTable.COL_ID
+				+ " = mm." + MenusTable.COL_ID + " order by m." + MensasTable.COL_ID + ", mm.rowid;";
+
+		List<Mensa> mensas = new ArrayList<Mensa>();
+		Cursor c = database.rawQuery(query, new String[] { Long.toString(day.toEpochDay()) });
+		try {
+			Mensa mensa = null;
+			while (c.moveToNext()) {
+				if (mensa == null || mensa.getId() != c.getInt(0)) {
+					mensa = new Mensa.MensaBuilder().setId(c.getInt(0)).setName(c.getString(1)).build();
+					mensa.setMenuplan(new WeeklyMenuplan());
+					mensas.add(mensa);
+				}
+				Menu menu = new Menu.MenuBuilder().setId(c.getString(2)).setTitle(c.getString(3))
+						.setDescription(c.getString(4)).build();
+				mensa.getMenuplan().add(menu, day);
+			}
+		} finally {
+			c.close();
+		}
+		return mensas;
+	}
+
 	/**
 	 * Returns the minimum week of the stored menus.
 	 * 
@@ -236,31 +459,177 @@ public class MensaDataSource {
 	 *         -1 if the database is empty.
 	 */
 	public int getWeekOfStoredMenus() {
-		Cursor c = database.query(MenusMensasTable.TABLE_MENUS_MENSAS, new String[] { MenusMensasTable.COL_DATE }, null,
-				null, MenusMensasTable.COL_DATE, null, null);
+		Cursor c = database.query(MetadataTable.TABLE_METADATA, new String[] { MetadataTable.COL_VALUE },
+				MetadataTable.COL_KEY + " = ?", new String[] { MetadataTable.KEY_FIRST_DAY }, null, null, null);
+		try {
+			if (!c.moveToFirst())
+				return -1;
+			return Day.fromEpochDay(c.getLong(0)).getWeekNumber();
+		} finally {
+			c.close();
+		}
+	}
 
-		final int POS_DATE = c.getColumnIndex(MenusMensasTable.COL_DATE);
-		int minWeek = Integer.MAX_VALUE;
-		while (c.moveToNext()) {
+	/**
+	 * Stores the ratings of the given Menus. Only updates Menus which are
+	 * already stored, and stores the current time as the time of the last
+	 * ratings update.
+	 * 
+	 * @param menus
+	 *            Collection of Menus with updated ratings. Must not be null.
+	 */
+	public void storeRatings(Collection<Menu> menus) {
+		database.beginTransactionNonExclusive();
+		try {
+			SQLiteStatement update = database.compileStatement("update " + MenusTable.TABLE_MENUS + " set "
+					+ MenusTable.COL_RATING_SUM + " = ?, " + MenusTable.COL_RATING_COUNT + " = ? where "
+					+ MenusTable.COL_ID + " = ?");
 			try {
-				String dateString = c.getString(POS_DATE);
-				Calendar cal = Calendar.getInstance(Locale.GERMAN);
-				cal.setTime(fm.parse(dateString));
-				int week = cal.get(Calendar.WEEK_OF_YEAR);
-				minWeek = week < minWeek ? week : minWeek;
-			} catch (ParseException e) {
-				throw new AssertionError("Database did not save properly");
+				for (Menu menu : menus) {
+					update.bindLong(1, menu.getRatingSum());
+					update.bindLong(2, menu.getRatingCount());
+					update.bindString(3, menu.getId());
+					update.executeUpdateDelete();
+				}
+			} finally {
+				update.close();
 			}
+			storeMetadata(MetadataTable.KEY_RATINGS_UPDATED, System.currentTimeMillis());
+			database.setTransactionSuccessful();
+		} finally {
+			database.endTransaction();
 		}
-		return minWeek == Integer.MAX_VALUE ? -1 : minWeek;
 	}
 
 	/**
-	 * Deletes all menus from the database.
+	 * Returns the time when the ratings have been stored the last time.
+	 * 
+	 * @return long time in milliseconds, 0 if no ratings have been stored yet.
+	 */
+	public long getRatingsUpdateTime() {
+		return loadMetadata(MetadataTable.KEY_RATINGS_UPDATED);
+	}
+
+	/**
+	 * Looks up the stored translations of the given source texts.
+	 * 
+	 * @param sourceTexts
+	 *            Collection of German texts to be looked up. Must not be null.
+	 * @param language
+	 *            String code of the target language, e.g. "en".
+	 * @return Map from source text to its stored translation. Contains only
+	 *         the source texts for which a translation is stored.
+	 */
+	public Map<String, String> loadTranslations(Collection<String> sourceTexts, String language) {
+		Map<String, String> translations = new HashMap<String, String>();
+		Iterator<String> it = sourceTexts.iterator();
+		while (it.hasNext()) {
+			// stay well below SQLite's limit of 999 arguments per query
+			List<String> args = new ArrayList<String>();
+			args.add(language);
+			StringBuilder in = new StringBuilder();
+			while (it.hasNext() && args.size() <= TRANSLATION_LOOKUP_CHUNK) {
+				in.append(in.length() == 0 ? "?" : ",?");
+				args.add(hash(it.next()));
+			}
+			Cursor c = database.query(TranslationsTable.TABLE_TRANSLATIONS, new String[] {
+					TranslationsTable.COL_SOURCE, TranslationsTable.COL_TRANSLATION }, TranslationsTable.COL_LANGUAGE
+					+ " = ? and " + TranslationsTable.COL_HASH + " in (" + in + ")", args.toArray(new String[0]),
+					null, null, null);
+			try {
+				while (c.moveToNext())
+					translations.put(c.getString(0), c.getString(1));
+			} finally {
+				c.close();
+			}
+		}
+		return translations;
+	}
+
+	/**
+	 * Stores the given translations in the translation memory.
+	 * 
+	 * @param translations
+	 *            Map from German source text to its translation. Must not be
+	 *            null.
+	 * @param language
+	 *            String code of the target language, e.g. "en".
+	 */
+	public void storeTranslations(Map<String, String> translations, String language) {
+		database.beginTransactionNonExclusive();
+		try {
+			SQLiteStatement insert = database.compileStatement("insert or replace into "
+					+ TranslationsTable.TABLE_TRANSLATIONS + "(" + TranslationsTable.COL_HASH + ","
+					+ TranslationsTable.COL_LANGUAGE + "," + TranslationsTable.COL_SOURCE + ","
+					+ TranslationsTable.COL_TRANSLATION + ") values (?,?,?,?)");
+			try {
+				for (Map.Entry<String, String> translation : translations.entrySet()) {
+					insert.bindString(1, hash(translation.getKey()));
+					insert.bindString(2, language);
+					insert.bindString(3, translation.getKey());
+					insert.bindString(4, translation.getValue());
+					insert.executeInsert();
+				}
+			} finally {
+				insert.close();
+			}
+			database.setTransactionSuccessful();
+		} finally {
+			database.endTransaction();
+		}
+	}
+
+	private static String hash(String text) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-1").digest(text.getBytes("UTF-8"));
+			StringBuilder hex = new StringBuilder(digest.length * 2);
+			for (byte b : digest)
+				hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new AssertionError("SHA-1 is always available");
+		} catch (UnsupportedEncodingException e) {
+			throw new AssertionError("UTF-8 is always available");
+		}
+	}
+
+	/**
+	 * Returns the time of the newest change on the Parse-Server which is
+	 * contained in the stored menus.
+	 * 
+	 * @return long time in milliseconds, 0 if the menus have never been
+	 *         synchronized.
+	 */
+	public long getSyncWatermark() {
+		return loadMetadata(MetadataTable.KEY_SYNC_WATERMARK);
+	}
+
+	private long loadMetadata(String key) {
+		Cursor c = database.query(MetadataTable.TABLE_METADATA, new String[] { MetadataTable.COL_VALUE },
+				MetadataTable.COL_KEY + " = ?", new String[] { key }, null, null, null);
+		try {
+			return c.moveToFirst() ? c.getLong(0) : 0;
+		} finally {
+			c.close();
+		}
+	}
+
+	private void storeMetadata(String key, long value) {
+		ContentValues values = new ContentValues();
+		values.put(MetadataTable.COL_KEY, key);
+		values.put(MetadataTable.COL_VALUE, value);
+		database.replace(MetadataTable.TABLE_METADATA, null, values);
+	}
+
+	/**
+	 * Deletes all menus from the database. The time of the last
+	 * synchronization is kept.
 	 */
 	public void deleteMenus() {
 		database.delete(MenusTable.TABLE_MENUS, null, null);
 		database.delete(MenusMensasTable.TABLE_MENUS_MENSAS, null, null);
+		database.delete(MetadataTable.TABLE_METADATA, MetadataTable.COL_KEY + " = ?",
+				new String[] { MetadataTable.KEY_FIRST_DAY });
 	}
 
 	/**
@@ -270,5 +639,7 @@ public class MensaDataSource {
 		database.delete(MensasTable.TABLE_MENSAS, null, null);
 		database.delete(FavoritesTable.TABLE_FAV_MENSAS, null, null);
 		deleteMenus();
+		database.delete(MetadataTable.TABLE_METADATA, null, null);
+		database.delete(TranslationsTable.TABLE_TRANSLATIONS, null, null);
 	}
 }
\ No newline at end of file
@@ -12,6 +12,8 @@ import com.ese2013.mub.util.database.tables.FavoritesTable;
 import com.ese2013.mub.util.database.tables.MensasTable;
 import com.ese2013.mub.util.database.tables.MenusMensasTable;
 import com.ese2013.mub.util.database.tables.MenusTable;
+import com.ese2013.mub.util.database.tables.MetadataTable;
+import com.ese2013.mub.util.database.tables.TranslationsTable;
 
 /**
  * Controls creation/updating of the database. Most of the work is already done
@@ -20,16 +22,27 @@ import com.ese2013.mub.util.database.tables.MenusTable;
 public class SqlDatabaseHelper extends SQLiteOpenHelper {
 
 	private static final String DATABASE_NAME = "mensas.db";
-	private static final int DATABASE_VERSION = 19;
+	private static final int DATABASE_VERSION = 22;
 
-	private List<AbstractTable> tables = new ArrayList<AbstractTable>(4);
+	/**
+	 * Oldest version which can be migrated without losing the stored mensas
+	 * and favorites. Older databases are dropped completely.
+	 */
+	private static final int FIRST_MIGRATABLE_VERSION = 19;
+
+	private List<AbstractTable> tables = new ArrayList<AbstractTable>(6);
+	private List<AbstractTable> menuTables = new ArrayList<AbstractTable>(3);
+	private AbstractTable translationsTable = new TranslationsTable();
 
 	public SqlDatabaseHelper(Context context) {
 		super(context, DATABASE_NAME, null, DATABASE_VERSION);
+		menuTables.add(new MenusTable());
+		menuTables.add(new MenusMensasTable());
+		menuTables.add(new MetadataTable());
 		tables.add(new MensasTable());
-		tables.add(new MenusTable());
 		tables.add(new FavoritesTable());
-		tables.add(new MenusMensasTable());
+		tables.addAll(menuTables);
+		tables.add(translationsTable);
 	}
 
 	@Override
@@ -40,8 +53,27 @@ public class SqlDatabaseHelper extends SQLiteOpenHelper {
 
 	@Override
 	public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-		for (AbstractTable t : tables)
-			t.drop(db);
-		onCreate(db);
+		if (oldVersion < FIRST_MIGRATABLE_VERSION) {
+			for (AbstractTable t : tables)
+				t.drop(db);
+			onCreate(db);
+			return;
+		}
+		if (oldVersion < 20) {
+			// version 20 stores dates as epoch days. The menus are just a cache
+			// of the Parse data, so they are dropped and downloaded again, while
+			// the mensas and the user's favorites are kept.
+			for (AbstractTable t : menuTables) {
+				t.drop(db);
+				t.create(db);
+			}
+		} else if (oldVersion < 21) {
+			// version 21 stores the menu ratings
+			for (String statement : MenusTable.ADD_RATING_COLUMNS)
+				db.execSQL(statement);
+		}
+		// version 22 adds the translation memory
+		if (oldVersion < 22)
+			translationsTable.create(db);
 	}
 }
\ No newline at end of file
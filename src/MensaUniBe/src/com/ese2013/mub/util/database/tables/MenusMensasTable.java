@@ -1,5 +1,7 @@
 package com.ese2013.mub.util.database.tables;
 
+import android.database.sqlite.SQLiteDatabase;
+
 public class MenusMensasTable extends AbstractTable {
 	
 	public static final String TABLE_MENUS_MENSAS = "menusMensas";
@@ -9,10 +11,20 @@ public class MenusMensasTable extends AbstractTable {
 			"create table " + TABLE_MENUS_MENSAS + "(" + 
 			MenusTable.COL_ID + " text not null references " + MenusTable.TABLE_MENUS + "(" + MenusTable.COL_ID + ") on delete cascade," + 
 			MensasTable.COL_ID + " integer not null references " + MensasTable.TABLE_MENSAS + "(" + MensasTable.COL_ID + ") on delete cascade," +
-			COL_DATE + " text not null," + 
+			COL_DATE + " integer not null," + 
 			"primary key(" + MenusTable.COL_ID + ","+ MensasTable.COL_ID + "));";
 
+	private static final String INDEX_MENSA_DATE_CREATE = 
+			"create index " + TABLE_MENUS_MENSAS + "_mensa_date on " + TABLE_MENUS_MENSAS + "(" + 
+			MensasTable.COL_ID + "," + COL_DATE + ");";
+
 	public MenusMensasTable() {
 		super(TABLE_MENUS_MENSAS, TABLE_MENUS_MENSAS_CREATE);
 	}
-}
\ No newline at end of file
+
+	@Override
+	public void create(SQLiteDatabase database) {
+		super.create(database);
+		database.execSQL(INDEX_MENSA_DATE_CREATE);
+	}
+}
@@ -8,6 +8,8 @@ public class MenusTable extends AbstractTable {
 	public static final String COL_DESC = "desc";
 	public static final String COL_TRANSL_TITLE = "translated_title";
 	public static final String COL_TRANSL_DESC = "translated_desc";
+	public static final String COL_RATING_SUM = "rating_sum";
+	public static final String COL_RATING_COUNT = "rating_count";
 	
 	private static final String TABLE_MENUS_CREATE = 
 			"create table " + TABLE_MENUS + "(" + 
@@ -15,8 +17,17 @@ public class MenusTable extends AbstractTable {
 			COL_TITLE + " text not null, " + 
 			COL_DESC + " text not null, " +
 			COL_TRANSL_TITLE + " text not null, " + 
-			COL_TRANSL_DESC + " text not null " +
+			COL_TRANSL_DESC + " text not null, " +
+			COL_RATING_SUM + " integer not null default 0, " +
+			COL_RATING_COUNT + " integer not null default 0" +
 			");";
+
+	/**
+	 * Statements to add the rating columns to a version 20 table.
+	 */
+	public static final String[] ADD_RATING_COLUMNS = {
+			"alter table " + TABLE_MENUS + " add column " + COL_RATING_SUM + " integer not null default 0;",
+			"alter table " + TABLE_MENUS + " add column " + COL_RATING_COUNT + " integer not null default 0;" };
 	
 	public MenusTable() {
 		super(TABLE_MENUS, TABLE_MENUS_CREATE);
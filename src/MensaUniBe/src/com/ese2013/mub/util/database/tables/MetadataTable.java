@@ -0,0 +1,24 @@
+package com.ese2013.mub.util.database.tables;
+
+/**
+ * Key-value table for small facts about the stored data, e.g. the first day
+ * of the stored menus or the time of the last synchronization.
+ */
+public class MetadataTable extends AbstractTable {
+
+	public static final String TABLE_METADATA = "metadata";
+	public static final String COL_KEY = "key";
+	public static final String COL_VALUE = "value";
+
+	public static final String KEY_FIRST_DAY = "firstDay", KEY_SYNC_WATERMARK = "syncWatermark",
+			KEY_RATINGS_UPDATED = "ratingsUpdated";
+
+	private static final String TABLE_METADATA_CREATE = 
+			"create table " + TABLE_METADATA + "(" + 
+			COL_KEY + " text primary key, " + 
+			COL_VALUE + " integer not null);";
+
+	public MetadataTable() {
+		super(TABLE_METADATA, TABLE_METADATA_CREATE);
+	}
+}
@@ -0,0 +1,27 @@
+package com.ese2013.mub.util.database.tables;
+
+/**
+ * Translation memory: stores the translations of German menu texts, keyed by
+ * the hash of the source text and the target language. Is not cleared when
+ * new menus are stored, as most menus are served again in later weeks.
+ */
+public class TranslationsTable extends AbstractTable {
+
+	public static final String TABLE_TRANSLATIONS = "translations";
+	public static final String COL_HASH = "hash";
+	public static final String COL_LANGUAGE = "language";
+	public static final String COL_SOURCE = "source";
+	public static final String COL_TRANSLATION = "translation";
+
+	private static final String TABLE_TRANSLATIONS_CREATE = 
+			"create table " + TABLE_TRANSLATIONS + "(" + 
+			COL_HASH + " text not null, " + 
+			COL_LANGUAGE + " text not null, " + 
+			COL_SOURCE + " text not null, " +
+			COL_TRANSLATION + " text not null, " +
+			"primary key(" + COL_HASH + "," + COL_LANGUAGE + "));";
+
+	public TranslationsTable() {
+		super(TABLE_TRANSLATIONS, TABLE_TRANSLATIONS_CREATE);
+	}
+}
@@ -2,14 +2,21 @@ package com.ese2013.mub.util.parseDatabase;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
+import com.ese2013.mub.model.DailyMenuplan;
 import com.ese2013.mub.model.Day;
 import com.ese2013.mub.model.Mensa;
 import com.ese2013.mub.model.Mensa.MensaBuilder;
 import com.ese2013.mub.model.Menu;
+import com.ese2013.mub.model.Menu.MenuBuilder;
 import com.ese2013.mub.model.MenuManager;
 import com.ese2013.mub.model.WeeklyMenuplan;
 import com.ese2013.mub.social.User;
@@ -29,8 +36,9 @@ import com.parse.ParseQuery;
  * asynchronous.
  */
 public class MensaDBHandler {
-	private static final String OBJECT_ID = "objectId";
+	private static final String OBJECT_ID = "objectId", UPDATED_AT = "updatedAt";
 	private SimpleDateFormat fm = new SimpleDateFormat("yyyy-MM-dd", Locale.GERMAN);
+	private long latestUpdate;
 
 	/**
 	 * Creates the list of Mensas and all the served Menus.
@@ -46,17 +54,41 @@ public class MensaDBHandler {
 	 *             if the date for a menu stored on the server is invalid.
 	 *             Should usually not happen.
 	 */
-	public List<Mensa> getMensasAndMenus(MenuManager menuManager) throws ParseException, java.text.ParseException {
-		ParseQuery<ParseObject> query = ParseQuery.getQuery(MenuMensaTable.TABLE_NAME);
-		query.include(MenuMensaTable.MENU);
-		query.include(MenuMensaTable.MENSA);
-		List<ParseObject> parseMenuMensas = query.find();
+	public List<Mensa> getMensasAndMenus(final MenuManager menuManager) throws ParseException,
+			java.text.ParseException {
+		latestUpdate = 0;
+		final HashMap<String, Mensa> mensaMap = new HashMap<String, Mensa>();
+		new PagedQuery(new MenuMensaQueryFactory(null)).findAll(new PagedQuery.PageHandler() {
+			@Override
+			public void handlePage(List<ParseObject> page) throws ParseException, java.text.ParseException {
+				for (ParseObject parseMenuMensa : page)
+					parseMenuMensa(menuManager, mensaMap, parseMenuMensa);
+			}
+		});
+		return new ArrayList<Mensa>(mensaMap.values());
+	}
+
+	/**
+	 * Creates the queries for the MenuMensa table, including the Menus and
+	 * Mensas. If a date is given, only MenuMensas updated after this date are
+	 * queried.
+	 */
+	private static class MenuMensaQueryFactory implements PagedQuery.QueryFactory {
+		private final Date updatedAfter;
 
-		HashMap<String, Mensa> mensaMap = new HashMap<String, Mensa>();
-		for (int i = 0; i < parseMenuMensas.size(); i++)
-			parseMenuMensa(menuManager, mensaMap, parseMenuMensas.get(i));
+		private MenuMensaQueryFactory(Date updatedAfter) {
+			this.updatedAfter = updatedAfter;
+		}
 
-		return new ArrayList<Mensa>(mensaMap.values());
+		@Override
+		public ParseQuery<ParseObject> createQuery() {
+			ParseQuery<ParseObject> query = ParseQuery.getQuery(MenuMensaTable.TABLE_NAME);
+			query.include(MenuMensaTable.MENU);
+			query.include(MenuMensaTable.MENSA);
+			if (updatedAfter != null)
+				query.whereGreaterThan(UPDATED_AT, updatedAfter);
+			return query;
+		}
 	}
 
 	private void parseMenuMensa(MenuManager menuManager, HashMap<String, Mensa> mensaMap, ParseObject parseMenuMensa)
@@ -72,7 +104,130 @@ public class MensaDBHandler {
 			mensa.setMenuplan(plan);
 			mensaMap.put(parseMensa.getObjectId(), mensa);
 		}
-		plan.add(parseMenu(parseMenuMensa, menuManager), new Day(fm.parse(parseMenuMensa.getString(MenuMensaTable.DATE))));
+		plan.add(parseMenu(parseMenuMensa, menuManager), parseDay(parseMenuMensa));
+	}
+
+	private Day parseDay(ParseObject parseMenuMensa) throws java.text.ParseException {
+		Date updatedAt = parseMenuMensa.getUpdatedAt();
+		if (updatedAt != null && updatedAt.getTime() > latestUpdate)
+			latestUpdate = updatedAt.getTime();
+		return new Day(fm.parse(parseMenuMensa.getString(MenuMensaTable.DATE)));
+	}
+
+	/**
+	 * Updates the given list of Mensas by only downloading the menus which
+	 * changed on the Parse-Server since the given time. The changed Menus are
+	 * merged by id into the days on which they are served, the other Menus of
+	 * these days are kept. Days of weeks before the newest downloaded week are
+	 * removed, as well as Menus which are not served anymore.
+	 * 
+	 * Menus deleted on the server can't be seen in the changes, so afterwards
+	 * the number of served Menus from the first local day on is compared with
+	 * the server. If they differ, the given Mensas are out of date and have to
+	 * be downloaded completely using getMensasAndMenus().
+	 * 
+	 * @param mensas
+	 *            List of Mensas to be updated, e.g. loaded from the local
+	 *            database. New Mensas are added to this list. Must not be
+	 *            null.
+	 * @param menuManager
+	 *            The MenuManager which manages the Menus of the given Mensas.
+	 * @param since
+	 *            long time in milliseconds of the last update, as returned by
+	 *            getLatestUpdate() after the last download.
+	 * @return true if the updated Mensas match the server, false if Menus
+	 *         have been deleted on the server and a full download is needed.
+	 * @throws ParseException
+	 *             If the Parse-Server reports an error.
+	 * @throws java.text.ParseException
+	 *             if the date for a menu stored on the server is invalid.
+	 */
+	public boolean getChangedMenus(List<Mensa> mensas, final MenuManager menuManager, long since)
+			throws ParseException, java.text.ParseException {
+		latestUpdate = since;
+		final HashMap<Integer, Mensa> mensasById = new HashMap<Integer, Mensa>();
+		for (Mensa m : mensas)
+			mensasById.put(m.getId(), m);
+		final HashMap<Integer, WeeklyMenuplan> changes = new HashMap<Integer, WeeklyMenuplan>();
+		final List<Mensa> newMensas = new ArrayList<Mensa>();
+		new PagedQuery(new MenuMensaQueryFactory(new Date(since))).findAll(new PagedQuery.PageHandler() {
+			@Override
+			public void handlePage(List<ParseObject> page) throws ParseException, java.text.ParseException {
+				for (ParseObject parseMenuMensa : page) {
+					ParseObject parseMensa = parseMenuMensa.getParseObject(MenuMensaTable.MENSA);
+					int mensaId = Integer.parseInt(parseMensa.getString(MensaTable.MENSA_ID));
+					if (!mensasById.containsKey(mensaId)) {
+						Mensa mensa = parseMensa(parseMensa);
+						mensa.setMenuplan(new WeeklyMenuplan());
+						mensasById.put(mensaId, mensa);
+						newMensas.add(mensa);
+					}
+					WeeklyMenuplan changedPlan = changes.get(mensaId);
+					if (changedPlan == null) {
+						changedPlan = new WeeklyMenuplan();
+						changes.put(mensaId, changedPlan);
+					}
+					changedPlan.add(parseMenu(parseMenuMensa, menuManager), parseDay(parseMenuMensa));
+				}
+			}
+		});
+
+		if (!changes.isEmpty()) {
+			mensas.addAll(newMensas);
+			Day newestDay = null;
+			for (Map.Entry<Integer, WeeklyMenuplan> change : changes.entrySet()) {
+				WeeklyMenuplan changedPlan = change.getValue();
+				mensasById.get(change.getKey()).getMenuplan().mergeDays(changedPlan);
+				Day lastDay = changedPlan.getDays().last();
+				if (newestDay == null || lastDay.compareTo(newestDay) > 0)
+					newestDay = lastDay;
+			}
+			removeOldMenus(mensas, menuManager, newestDay.getMondayOfWeek());
+		}
+		return isComplete(mensas);
+	}
+
+	/**
+	 * Compares the number of served Menus from the first day of the given
+	 * Mensas on with the number of MenuMensas on the server.
+	 */
+	private boolean isComplete(List<Mensa> mensas) throws ParseException {
+		Day firstDay = null;
+		int servedMenus = 0;
+		for (Mensa mensa : mensas) {
+			for (DailyMenuplan d : mensa.getMenuplan()) {
+				servedMenus += d.getMenus().size();
+				if (firstDay == null || d.getDay().compareTo(firstDay) < 0)
+					firstDay = d.getDay();
+			}
+		}
+		if (firstDay == null)
+			return false;
+		ParseQuery<ParseObject> query = ParseQuery.getQuery(MenuMensaTable.TABLE_NAME);
+		query.whereGreaterThanOrEqualTo(MenuMensaTable.DATE, firstDay.format(fm));
+		return query.count() == servedMenus;
+	}
+
+	private void removeOldMenus(List<Mensa> mensas, MenuManager menuManager, Day firstDay) {
+		Set<String> servedMenuIds = new HashSet<String>();
+		for (Mensa mensa : mensas) {
+			mensa.getMenuplan().removeDaysBefore(firstDay);
+			for (DailyMenuplan d : mensa.getMenuplan())
+				for (Menu menu : d.getMenus())
+					servedMenuIds.add(menu.getId());
+		}
+		menuManager.retainMenus(servedMenuIds);
+	}
+
+	/**
+	 * Returns the time of the newest change of the Menus downloaded by the last
+	 * call to getMensasAndMenus() or getChangedMenus(). This time should be
+	 * passed to the next call to getChangedMenus().
+	 * 
+	 * @return long time in milliseconds of the latest update.
+	 */
+	public long getLatestUpdate() {
+		return latestUpdate;
 	}
 
 	private Mensa parseMensa(ParseObject parseMensa) {
@@ -85,41 +240,47 @@ public class MensaDBHandler {
 
 	private Menu parseMenu(ParseObject parseMenuMensa, MenuManager menuManager) throws ParseException {
 		ParseObject parseMenu = parseMenuMensa.getParseObject(MenuMensaTable.MENU);
-		Menu result = menuManager.createMenu(parseMenu.getObjectId(), parseMenu.getString(MensaTable.TITLE),
+		// the texts of a known menu may have been edited on the server
+		Menu result = menuManager.updateMenu(parseMenu.getObjectId(), parseMenu.getString(MensaTable.TITLE),
 				parseMenu.getString(MenuTable.DESCRIPTION));
+		result.setRatingCount(parseMenu.getInt(MenuTable.RATING_COUNT));
+		result.setRatingSum(parseMenu.getInt(MenuTable.RATING_SUM));
 		return result;
 	}
 
 	/**
-	 * Downloads all menu ratings and stores them in the existing menu instances
-	 * in the given MenuManager. The ratings are cached by using Parse's
-	 * automatic caching functionality. This call always first tries to download
-	 * the ratings, and then just loads them from cache if download is not
-	 * possible.
+	 * Downloads the ratings of the given menus. The ratings are cached by using
+	 * Parse's automatic caching functionality. This call always first tries to
+	 * download the ratings, and then just loads them from cache if download is
+	 * not possible.
 	 * 
-	 * @param menuManager
-	 *            MenuManager which stores all Menus.
+	 * @param menuIds
+	 *            Collection of the ids of the Menus to download the ratings
+	 *            for.
+	 * @return List of new Menu objects which only contain the id and the
+	 *         ratings of the Menus. They are not managed by any MenuManager.
 	 * @throws ParseException
 	 *             if the Parse-Server or Parse-Cache reports an error.
 	 */
-	public void getMenuRatings(MenuManager menuManager) throws ParseException {
-		ParseQuery<ParseObject> query = buildRatingsQuery(menuManager);
+	public List<Menu> getMenuRatings(Collection<String> menuIds) throws ParseException {
+		ParseQuery<ParseObject> query = buildRatingsQuery(menuIds);
 		List<ParseObject> parseMenus = query.find();
-		for (ParseObject parseMenu : parseMenus) {
-			Menu m = menuManager.getMenu(parseMenu.getObjectId());
-			m.setRatingCount(parseMenu.getInt(MenuTable.RATING_COUNT));
-			m.setRatingSum(parseMenu.getInt(MenuTable.RATING_SUM));
-		}
+		List<Menu> ratings = new ArrayList<Menu>(parseMenus.size());
+		for (ParseObject parseMenu : parseMenus)
+			ratings.add(new MenuBuilder().setId(parseMenu.getObjectId())
+					.setRatingCount(parseMenu.getInt(MenuTable.RATING_COUNT))
+					.setRatingSum(parseMenu.getInt(MenuTable.RATING_SUM)).build());
+		return ratings;
 	}
 
-	private ParseQuery<ParseObject> buildRatingsQuery(MenuManager menuManager) {
+	private ParseQuery<ParseObject> buildRatingsQuery(Collection<String> menuIds) {
 		ParseQuery<ParseObject> query = ParseQuery.getQuery(MenuTable.TABLE_NAME);
 		List<String> keys = new ArrayList<String>();
 		keys.add(MenuTable.RATING_COUNT);
 		keys.add(MenuTable.RATING_SUM);
 		query.setCachePolicy(ParseQuery.CachePolicy.NETWORK_ELSE_CACHE);
 		query.selectKeys(keys);
-		query.whereContainedIn(OBJECT_ID, menuManager.getMenuIds());
+		query.whereContainedIn(OBJECT_ID, menuIds);
 		return query;
 	}
 
@@ -0,0 +1,144 @@
+package com.ese2013.mub.util.parseDatabase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.parse.ParseException;
+import com.parse.ParseObject;
+import com.parse.ParseQuery;
+
+/**
+ * Downloads all results of a Parse query, page by page. The Parse-Server only
+ * returns a limited number of results per query, so the results are split into
+ * pages of PAGE_SIZE objects using skip/limit. The pages are downloaded
+ * concurrently by a small number of workers and handed to the PageHandler (in
+ * the calling thread) in the order of the results, each page as soon as it and
+ * all pages before it have arrived.
+ */
+public class PagedQuery {
+	/** Maximum number of results the Parse-Server returns for one query. */
+	public static final int PAGE_SIZE = 1000;
+	private static final int MAX_WORKERS = 4;
+	private static final String CREATED_AT = "createdAt";
+
+	private final QueryFactory queryFactory;
+	private final int pageSize, maxWorkers;
+
+	/**
+	 * Creates the query for one page. Every call must return a new query with
+	 * the same constraints, as the skip/limit is set on the returned query.
+	 */
+	public interface QueryFactory {
+		ParseQuery<ParseObject> createQuery();
+	}
+
+	/**
+	 * Handles one downloaded page. Always called in the thread which called
+	 * findAll(), so the handler does not need to be thread-safe.
+	 */
+	public interface PageHandler {
+		void handlePage(List<ParseObject> page) throws ParseException, java.text.ParseException;
+	}
+
+	/**
+	 * Creates a PagedQuery using the default page size and number of workers.
+	 *
+	 * @param queryFactory
+	 *            QueryFactory to create the queries. Must not be null.
+	 */
+	public PagedQuery(QueryFactory queryFactory) {
+		this(queryFactory, PAGE_SIZE, MAX_WORKERS);
+	}
+
+	/**
+	 * Creates a PagedQuery.
+	 *
+	 * @param queryFactory
+	 *            QueryFactory to create the queries. Must not be null.
+	 * @param pageSize
+	 *            int number of results per page, at most the number of
+	 *            results the Parse-Server returns for one query.
+	 * @param maxWorkers
+	 *            int maximum number of pages downloaded concurrently, must be
+	 *            at least 1.
+	 */
+	public PagedQuery(QueryFactory queryFactory, int pageSize, int maxWorkers) {
+		this.queryFactory = queryFactory;
+		this.pageSize = pageSize;
+		this.maxWorkers = maxWorkers;
+	}
+
+	/**
+	 * Downloads all results (synchronous) and passes them page by page to the
+	 * given handler. The pages are handled in the order of the results (by
+	 * creation time), as if they had been downloaded one after the other.
+	 *
+	 * @param handler
+	 *            PageHandler which gets all downloaded pages.
+	 * @throws ParseException
+	 *             if the Parse-Server reports an error for any page.
+	 * @throws java.text.ParseException
+	 *             if the handler reports an error.
+	 */
+	public void findAll(PageHandler handler) throws ParseException, java.text.ParseException {
+		int pageCount = (queryFactory.createQuery().count() + pageSize - 1) / pageSize;
+		if (pageCount <= 1) {
+			findRemainingPages(handler, 0);
+			return;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxWorkers, pageCount));
+		try {
+			List<Future<List<ParseObject>>> pages = new ArrayList<Future<List<ParseObject>>>(pageCount);
+			for (int i = 0; i < pageCount; i++) {
+				final int pageNumber = i;
+				pages.add(executor.submit(new Callable<List<ParseObject>>() {
+					@Override
+					public List<ParseObject> call() throws ParseException {
+						return findPage(pageNumber);
+					}
+				}));
+			}
+			List<ParseObject> page = null;
+			for (Future<List<ParseObject>> pendingPage : pages) {
+				page = pendingPage.get();
+				handler.handlePage(page);
+			}
+			// objects added after counting end up behind the last page
+			if (page.size() == pageSize)
+				findRemainingPages(handler, pageCount);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ParseException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof ParseException)
+				throw (ParseException) e.getCause();
+			throw new ParseException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void findRemainingPages(PageHandler handler, int firstPage) throws ParseException,
+			java.text.ParseException {
+		List<ParseObject> results;
+		int pageNumber = firstPage;
+		do {
+			results = findPage(pageNumber++);
+			handler.handlePage(results);
+		} while (results.size() == pageSize);
+	}
+
+	private List<ParseObject> findPage(int pageNumber) throws ParseException {
+		ParseQuery<ParseObject> query = queryFactory.createQuery();
+		query.orderByAscending(CREATED_AT);
+		query.setSkip(pageNumber * pageSize);
+		query.setLimit(pageSize);
+		return query.find();
+	}
+}
@@ -0,0 +1,122 @@
+package com.ese2013.mub.test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import com.ese2013.mub.util.BatchTranslator;
+import com.ese2013.mub.util.Translator;
+import com.memetix.mst.language.Language;
+
+public class BatchTranslatorTest extends TestCase {
+
+	/**
+	 * Translates by upper-casing and counts the calls, optionally failing or
+	 * leaving out the translation of the first text.
+	 */
+	private static class StubTranslator implements Translator {
+		private final AtomicInteger calls = new AtomicInteger();
+		private final AtomicInteger failures, incompletes;
+
+		private StubTranslator(int failures) {
+			this(failures, 0);
+		}
+
+		private StubTranslator(int failures, int incompletes) {
+			this.failures = new AtomicInteger(failures);
+			this.incompletes = new AtomicInteger(incompletes);
+		}
+
+		@Override
+		public String[] translate(String[] texts, Language from, Language to) throws Exception {
+			calls.incrementAndGet();
+			if (failures.getAndDecrement() > 0)
+				throw new Exception("temporarily unavailable");
+			String[] result = new String[texts.length];
+			for (int i = 0; i < texts.length; i++)
+				result[i] = texts[i].toUpperCase();
+			if (incompletes.getAndDecrement() > 0)
+				result[0] = null;
+			return result;
+		}
+	}
+
+	private static String[] createTexts(int count) {
+		String[] texts = new String[count];
+		for (int i = 0; i < count; i++)
+			texts[i] = "menu " + i;
+		return texts;
+	}
+
+	public void testTranslatesInChunks() throws Exception {
+		StubTranslator stub = new StubTranslator(0);
+		String[] texts = createTexts(250);
+		String[] translated = new BatchTranslator(stub, 100, 5000, 3, 1, 0).translate(texts, Language.GERMAN,
+				Language.ENGLISH);
+
+		assertEquals(3, stub.calls.get());
+		assertEquals(texts.length, translated.length);
+		for (int i = 0; i < texts.length; i++)
+			assertEquals(texts[i].toUpperCase(), translated[i]);
+	}
+
+	public void testChunksAreBoundedByCharacters() throws Exception {
+		StubTranslator stub = new StubTranslator(0);
+		// each text has 6 characters, so 2 texts fit into 12 characters
+		new BatchTranslator(stub, 100, 12, 3, 1, 0).translate(createTexts(10), Language.GERMAN, Language.ENGLISH);
+		assertEquals(5, stub.calls.get());
+	}
+
+	public void testEmptyInputMakesNoCall() throws Exception {
+		StubTranslator stub = new StubTranslator(0);
+		assertEquals(0, new BatchTranslator(stub).translate(new String[0], Language.GERMAN, Language.ENGLISH).length);
+		assertEquals(0, stub.calls.get());
+	}
+
+	public void testRetriesFailedChunk() throws Exception {
+		StubTranslator stub = new StubTranslator(2);
+		String[] translated = new BatchTranslator(stub, 100, 5000, 1, 3, 0).translate(createTexts(5), Language.GERMAN,
+				Language.ENGLISH);
+		assertEquals(3, stub.calls.get());
+		assertEquals("MENU 4", translated[4]);
+	}
+
+	public void testFailsAfterMaxAttempts() {
+		StubTranslator stub = new StubTranslator(Integer.MAX_VALUE);
+		try {
+			new BatchTranslator(stub, 100, 5000, 1, 3, 0).translate(createTexts(5), Language.GERMAN, Language.ENGLISH);
+			fail("Exception expected");
+		} catch (Exception e) {
+			assertEquals("temporarily unavailable", e.getMessage());
+		}
+		assertEquals(3, stub.calls.get());
+	}
+
+	public void testRetriesIncompleteChunk() throws Exception {
+		StubTranslator stub = new StubTranslator(0, 1);
+		String[] translated = new BatchTranslator(stub, 100, 5000, 1, 3, 0).translate(createTexts(5),
+				Language.GERMAN, Language.ENGLISH);
+		assertEquals(2, stub.calls.get());
+		assertEquals("MENU 0", translated[0]);
+	}
+
+	public void testFailsOnIncompleteChunk() {
+		StubTranslator stub = new StubTranslator(0, Integer.MAX_VALUE);
+		try {
+			new BatchTranslator(stub, 100, 5000, 1, 2, 0).translate(createTexts(5), Language.GERMAN, Language.ENGLISH);
+			fail("Exception expected");
+		} catch (Exception e) {
+			assertTrue(e instanceof IllegalStateException);
+		}
+		assertEquals(2, stub.calls.get());
+	}
+
+	public void testWaitsBeforeRetries() throws Exception {
+		StubTranslator stub = new StubTranslator(2);
+		long start = System.currentTimeMillis();
+		new BatchTranslator(stub, 100, 5000, 1, 3, 50).translate(createTexts(5), Language.GERMAN, Language.ENGLISH);
+		// 50ms before the first and 100ms before the second retry
+		assertTrue(System.currentTimeMillis() - start >= 150);
+		assertEquals(3, stub.calls.get());
+	}
+}
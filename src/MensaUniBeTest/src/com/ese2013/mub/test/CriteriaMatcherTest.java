@@ -3,17 +3,22 @@ package com.ese2013.mub.test;
 import static com.ese2013.mub.test.Util.assertNotEquals;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import junit.framework.TestCase;
+import android.util.Log;
 
 import com.ese2013.mub.model.Day;
 import com.ese2013.mub.model.Mensa;
 import com.ese2013.mub.model.Menu;
+import com.ese2013.mub.model.MenuIndex;
 import com.ese2013.mub.model.WeeklyMenuplan;
 import com.ese2013.mub.service.Criteria;
+import com.ese2013.mub.service.CriteriaAutomaton;
 import com.ese2013.mub.service.CriteriaMatcher;
 
 public class CriteriaMatcherTest extends TestCase {
@@ -130,6 +135,185 @@ public class CriteriaMatcherTest extends TestCase {
 		assertFalse(crit1.getMap().containsKey(menu7));
 	}
 
+	public void testMatchIgnoresCaseAndDiacritics() {
+		Mensa mensa = new Mensa.MensaBuilder().setId(0).setName("Mensa").build();
+		WeeklyMenuplan plan = new WeeklyMenuplan();
+		Menu menu1 = new Menu.MenuBuilder().setId("a").setDescription("Berner R\u00f6sti mit Spiegelei")
+				.setTitle("Menu").build();
+		Menu menu2 = new Menu.MenuBuilder().setId("b").setDescription("Cr\u00e8me br\u00fbl\u00e9e, Kaffee")
+				.setTitle("Menu").build();
+		plan.add(menu1, Day.today());
+		plan.add(menu2, Day.today());
+		mensa.setMenuplan(plan);
+		List<Mensa> mensas = new ArrayList<Mensa>();
+		mensas.add(mensa);
+
+		Set<String> criteria = new LinkedHashSet<String>();
+		criteria.add("ROSTI");
+		criteria.add("creme brulee");
+		criteria.add("piegel");
+		criteria.add("br\u00fbl\u00e9e, kaf");
+		criteria.add("rosti kaffee");
+
+		List<Criteria> matched = new CriteriaMatcher().match(criteria, mensas);
+		assertEquals(4, matched.size());
+		assertTrue(matched.get(0).getMap().containsKey(menu1));
+		assertTrue(matched.get(1).getMap().containsKey(menu2));
+		assertTrue(matched.get(2).getMap().containsKey(menu1));
+		assertTrue(matched.get(3).getMap().containsKey(menu2));
+	}
+
+	public void testMatchOnlyGivenMensasOfIndex() {
+		Mensa mensa1 = new Mensa.MensaBuilder().setId(0).setName("Mensa no. 1").build();
+		Mensa mensa2 = new Mensa.MensaBuilder().setId(1).setName("Mensa no. 2").build();
+		WeeklyMenuplan plan1 = new WeeklyMenuplan();
+		WeeklyMenuplan plan2 = new WeeklyMenuplan();
+		Menu menu = new Menu.MenuBuilder().setId("a").setDescription("Pommes und Schnitzel").setTitle("Menu").build();
+		plan1.add(menu, Day.today());
+		plan2.add(menu, Day.today());
+		mensa1.setMenuplan(plan1);
+		mensa2.setMenuplan(plan2);
+		List<Mensa> all = new ArrayList<Mensa>();
+		all.add(mensa1);
+		all.add(mensa2);
+		MenuIndex index = new MenuIndex(all, Day.today());
+		assertEquals(2, index.size());
+
+		Set<String> criteria = new LinkedHashSet<String>();
+		criteria.add("Schnitzel");
+		List<Mensa> favorites = new ArrayList<Mensa>();
+		favorites.add(mensa2);
+
+		List<Criteria> matched = new CriteriaMatcher().match(criteria, index, favorites);
+		assertEquals(1, matched.size());
+		assertEquals(1, matched.get(0).getMap().get(menu).size());
+		assertEquals(mensa2, matched.get(0).getMap().get(menu).get(0));
+		assertEquals(2, new CriteriaMatcher().match(criteria, index, all).get(0).getMap().get(menu).size());
+	}
+
+	public void testIndexFindsTokensAndPhrases() {
+		Mensa mensa = new Mensa.MensaBuilder().setId(0).setName("Mensa").build();
+		WeeklyMenuplan plan = new WeeklyMenuplan();
+		plan.add(new Menu.MenuBuilder().setId("a").setDescription("Poulet-Curry mit Reis").setTitle("Menu").build(),
+				Day.today());
+		plan.add(new Menu.MenuBuilder().setId("b").setDescription("Reisauflauf, Curry").setTitle("Menu").build(),
+				Day.today());
+		mensa.setMenuplan(plan);
+		List<Mensa> mensas = new ArrayList<Mensa>();
+		mensas.add(mensa);
+		MenuIndex index = new MenuIndex(mensas, Day.today());
+
+		assertTrue(index.getTokens().contains("curry"));
+		assertEquals(2, index.getPostings("curry").cardinality());
+		assertTrue(index.getPostings("gibtsnicht").isEmpty());
+		assertEquals(2, index.find("reis").cardinality());
+		assertEquals(1, index.find("curry mit").cardinality());
+		assertEquals(1, index.find("uf, cu").cardinality());
+		assertEquals(2, index.find(" ").cardinality());
+		assertTrue(index.find("reis curry").isEmpty());
+		assertTrue(MenuIndex.isWithinToken("curry"));
+		assertFalse(MenuIndex.isWithinToken("curry mit"));
+	}
+
+	public void testAutomatonFindsOverlappingCriteria() {
+		Set<String> criteria = new LinkedHashSet<String>();
+		criteria.add("he");
+		criteria.add("she");
+		criteria.add("his");
+		criteria.add("hers");
+		criteria.add("Curry");
+		CriteriaAutomaton automaton = new CriteriaAutomaton(criteria);
+
+		BitSet found = automaton.findAll(MenuIndex.normalize("ushers"));
+		assertTrue(found.get(0));
+		assertTrue(found.get(1));
+		assertFalse(found.get(2));
+		assertTrue(found.get(3));
+		assertFalse(found.get(4));
+		assertTrue(automaton.findAll(MenuIndex.normalize("Poulet-CURRY")).get(4));
+		assertTrue(automaton.findAll("").isEmpty());
+
+		assertSame(CriteriaAutomaton.forCriteria(criteria), CriteriaAutomaton.forCriteria(criteria));
+		Set<String> changed = new LinkedHashSet<String>(criteria);
+		changed.add("vegi");
+		assertEquals(6, CriteriaAutomaton.forCriteria(changed).size());
+	}
+
+	public void testMatchWeekWithManyCriteria() {
+		String[] words = { "Poulet", "Curry", "Reis", "Vegi", "Schnitzel", "Pommes", "Salat", "Rindsgeschnetzeltes",
+				"Kartoffelstock", "Rahmsauce", "Gem\u00fcse", "Tofu", "Spaghetti", "Bolognese", "R\u00f6sti",
+				"Spiegelei", "Lachs", "Kr\u00e4uter", "Butter", "Nudeln" };
+		Random random = new Random(42);
+		Day monday = Day.today().getMondayOfWeek();
+		List<Day> week = new ArrayList<Day>();
+		List<Mensa> mensas = new ArrayList<Mensa>();
+		for (int m = 0; m < 15; m++) {
+			WeeklyMenuplan plan = new WeeklyMenuplan();
+			for (int d = 0; d < 5; d++) {
+				Day day = Day.fromEpochDay(monday.toEpochDay() + d);
+				if (m == 0)
+					week.add(day);
+				for (int i = 0; i < 4; i++) {
+					StringBuilder description = new StringBuilder();
+					for (int w = 0; w < 8; w++)
+						description.append(words[random.nextInt(words.length)]).append(w % 3 == 2 ? "\n" : " ");
+					plan.add(new Menu.MenuBuilder().setId(m + "-" + d + "-" + i)
+							.setDescription(description.toString()).build(), day);
+				}
+			}
+			Mensa mensa = new Mensa.MensaBuilder().setId(m).setName("Mensa " + m).build();
+			mensa.setMenuplan(plan);
+			mensas.add(mensa);
+		}
+
+		Set<String> criteria = new LinkedHashSet<String>();
+		for (String word : words)
+			criteria.add(word);
+		while (criteria.size() < 300) {
+			String word = words[random.nextInt(words.length)];
+			int start = random.nextInt(word.length() - 2);
+			criteria.add(word.substring(start, start + 3 + random.nextInt(word.length() - start - 2)) + " "
+					+ words[random.nextInt(words.length)].substring(0, 2).toLowerCase());
+		}
+
+		List<MenuIndex> indexes = new ArrayList<MenuIndex>();
+		for (Day day : week)
+			indexes.add(new MenuIndex(mensas, day));
+		CriteriaMatcher matcher = new CriteriaMatcher();
+
+		long naiveTime = Long.MAX_VALUE, automatonTime = Long.MAX_VALUE;
+		for (int round = 0; round < 5; round++) {
+			long start = System.nanoTime();
+			int naiveMatches = 0;
+			for (MenuIndex index : indexes)
+				naiveMatches += matchNaive(criteria, index);
+			naiveTime = Math.min(naiveTime, System.nanoTime() - start);
+
+			start = System.nanoTime();
+			int automatonMatches = 0;
+			for (MenuIndex index : indexes)
+				for (Criteria crit : matcher.match(criteria, index, mensas))
+					for (List<Mensa> menuMensas : crit.getMap().values())
+						automatonMatches += menuMensas.size();
+			automatonTime = Math.min(automatonTime, System.nanoTime() - start);
+
+			assertEquals(naiveMatches, automatonMatches);
+		}
+
+		Log.i("CriteriaMatcherTest", criteria.size() + " criteria over a week: contains " + naiveTime / 1000
+				+ " us, automaton " + automatonTime / 1000 + " us");
+	}
+
+	/** Counts the matching (criteria, entry) pairs by comparing every pair. */
+	private static int matchNaive(Set<String> criteria, MenuIndex index) {
+		int matches = 0;
+		for (String crit : criteria)
+			for (int i = 0; i < index.size(); i++)
+				if (MenuIndex.normalize(index.getMenu(i).getDescription()).contains(MenuIndex.normalize(crit)))
+					matches++;
+		return matches;
+	}
+
 	public void testCriteriaEquals() {
 		Criteria crit1 = new Criteria();
 		crit1.setCriteriaName("Fleisch");
@@ -1,10 +1,13 @@
 package com.ese2013.mub.test;
 
 import static com.ese2013.mub.test.Util.assertNotEquals;
+import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Locale;
 
 import junit.framework.TestCase;
+import android.os.Debug;
+import android.util.Log;
 
 import com.ese2013.mub.model.Day;
 
@@ -37,4 +40,143 @@ public class DayTest extends TestCase {
 		day2 = new Day(4, 11, 2012);
 		assertNotEquals(day1, day2);
 	}
-}
\ No newline at end of file
+
+	public void testEpochDay() {
+		assertEquals(0, new Day(1, 1, 1970).toEpochDay());
+		assertEquals(16008, new Day(30, 10, 2013).toEpochDay());
+		assertEquals(new Day(29, 2, 2012), Day.fromEpochDay(new Day(29, 2, 2012).toEpochDay()));
+		assertEquals(new Day(31, 12, 1969), Day.fromEpochDay(-1));
+	}
+
+	public void testGetMondayOfWeek() {
+		Day monday = new Day(4, 11, 2013);
+		assertEquals(monday, monday.getMondayOfWeek());
+		assertEquals(monday, new Day(7, 11, 2013).getMondayOfWeek());
+		assertEquals(monday, new Day(10, 11, 2013).getMondayOfWeek());
+		assertEquals(new Day(29, 12, 1969), new Day(1, 1, 1970).getMondayOfWeek());
+	}
+
+	public void testWeekNumberMatchesCalendar() {
+		// covers years starting on every day of the week and leap years
+		for (long epochDay = new Day(1, 1, 2000).toEpochDay(); epochDay < new Day(1, 1, 2030).toEpochDay(); epochDay++) {
+			Day day = Day.fromEpochDay(epochDay);
+			assertEquals(day.toString(), legacyWeekNumber(day), day.getWeekNumber());
+		}
+		assertEquals(1, new Day(30, 12, 2013).getWeekNumber());
+		assertEquals(53, new Day(1, 1, 2016).getWeekNumber());
+	}
+
+	public void testDayOfWeek() {
+		assertEquals(0, new Day(4, 11, 2013).getDayOfWeek());
+		assertEquals(6, new Day(10, 11, 2013).getDayOfWeek());
+		assertEquals(3, new Day(1, 1, 1970).getDayOfWeek());
+		assertEquals(2, new Day(31, 12, 1969).getDayOfWeek());
+	}
+
+	public void testDayOfWeekString() {
+		Locale defaultLocale = Locale.getDefault();
+		try {
+			Locale.setDefault(Locale.ENGLISH);
+			assertEquals("Monday", new Day(4, 11, 2013).getDayOfWeekString());
+			assertEquals("Sunday", new Day(10, 11, 2013).getDayOfWeekString());
+			Locale.setDefault(Locale.GERMAN);
+			assertEquals("Montag", new Day(4, 11, 2013).getDayOfWeekString());
+		} finally {
+			Locale.setDefault(defaultLocale);
+		}
+	}
+
+	public void testFormat() {
+		Locale defaultLocale = Locale.getDefault();
+		try {
+			Locale.setDefault(Locale.ENGLISH);
+			Day day = new Day(6, 12, 2013);
+			assertEquals("Friday, 06. December 2013", day.toString());
+			assertEquals("06.12.2013", day.format("dd.MM.yyyy"));
+			assertEquals(day.format("dd.MM.yyyy"), day.format(new SimpleDateFormat("dd.MM.yyyy", Locale.ENGLISH)));
+		} finally {
+			Locale.setDefault(defaultLocale);
+		}
+	}
+
+	public void testCompareTo() {
+		Day day = new Day(31, 12, 2013);
+		assertEquals(0, day.compareTo(new Day(31, 12, 2013)));
+		assertTrue(day.compareTo(new Day(1, 1, 2014)) < 0);
+		assertTrue(day.compareTo(new Day(1, 12, 2013)) > 0);
+		assertTrue(day.compareTo(new Day(31, 12, 1969)) > 0);
+	}
+
+	public void testFromEpochDayIsPooled() {
+		Day day = Day.fromEpochDay(16008);
+		assertSame(day, Day.fromEpochDay(16008));
+		assertSame(Day.today(), Day.today());
+		assertEquals(new Day(30, 10, 2013), day);
+		assertEquals(new Day(30, 10, 2013).hashCode(), day.hashCode());
+	}
+
+	/**
+	 * Compares the week numbers and day of week names of the new Day with the
+	 * former implementation, which created a Calendar resp. a SimpleDateFormat
+	 * on every call.
+	 */
+	public void testAllocationBenchmark() {
+		final int days = 365, rounds = 20;
+		Day[] plan = new Day[days];
+		for (int i = 0; i < days; i++)
+			plan[i] = Day.fromEpochDay(16000 + i);
+		// warm up, also fills the formatter caches
+		runLegacy(plan);
+		runDay(plan);
+
+		Debug.startAllocCounting();
+		Debug.resetThreadAllocCount();
+		long start = System.nanoTime();
+		int legacyResult = 0;
+		for (int r = 0; r < rounds; r++)
+			legacyResult += runLegacy(plan);
+		long legacyTime = System.nanoTime() - start;
+		int legacyAllocations = Debug.getThreadAllocCount();
+
+		Debug.resetThreadAllocCount();
+		start = System.nanoTime();
+		int dayResult = 0;
+		for (int r = 0; r < rounds; r++)
+			dayResult += runDay(plan);
+		long dayTime = System.nanoTime() - start;
+		int dayAllocations = Debug.getThreadAllocCount();
+		Debug.stopAllocCounting();
+
+		assertEquals(legacyResult, dayResult);
+		Log.i("DayTest", "Calendar: " + legacyTime / 1000 + " us, " + legacyAllocations + " allocations; Day: "
+				+ dayTime / 1000 + " us, " + dayAllocations + " allocations");
+		assertTrue(dayAllocations < legacyAllocations / 10);
+	}
+
+	private static int runLegacy(Day[] plan) {
+		int result = 0;
+		for (Day day : plan) {
+			result += legacyWeekNumber(day);
+			result += new SimpleDateFormat("EEEE", Locale.getDefault()).format(day.getDate()).length();
+		}
+		return result;
+	}
+
+	private static int runDay(Day[] plan) {
+		int result = 0;
+		for (Day day : plan) {
+			result += day.getWeekNumber();
+			result += day.getDayOfWeekString().length();
+		}
+		return result;
+	}
+
+	private static int legacyWeekNumber(Day day) {
+		Calendar cal = Calendar.getInstance(Locale.GERMAN);
+		// not every platform has ISO week data for Locale.GERMAN
+		cal.setFirstDayOfWeek(Calendar.MONDAY);
+		cal.setMinimalDaysInFirstWeek(4);
+		cal.setTime(day.getDate());
+		return cal.get(Calendar.WEEK_OF_YEAR);
+	}
+}
@@ -0,0 +1,60 @@
+package com.ese2013.mub.test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+import android.util.JsonReader;
+
+import com.ese2013.mub.map.util.DirectionsJSONParser;
+import com.ese2013.mub.map.util.PolylineBuffer;
+
+public class DirectionsJSONParserTest extends TestCase {
+
+	private static PolylineBuffer parse(String json) throws IOException {
+		JsonReader reader = new JsonReader(new StringReader(json.replace('\'', '"')));
+		try {
+			return new DirectionsJSONParser().parse(reader);
+		} finally {
+			reader.close();
+		}
+	}
+
+	public void testParsesStepsOfAllLegs() throws IOException {
+		String json = "{'geocoded_waypoints':[{'place_id':'a','types':['street_address']}],"
+				+ "'routes':[{'bounds':{'northeast':{'lat':43.3,'lng':-120.2}},'legs':["
+				+ "{'distance':{'text':'1 km','value':1000},'steps':["
+				+ "{'html_instructions':'Head <b>north</b>','polyline':{'points':'_p~iF~ps|U_ulLnnqC'},'travel_mode':'WALKING'}]},"
+				+ "{'steps':[{'polyline':{'points':'_ulLnnqC'},'start_location':{'lat':40.7,'lng':-120.95}}]}],"
+				+ "'overview_polyline':{'points':'ignored'},'warnings':[],'waypoint_order':[]}],'status':'OK'}";
+		PolylineBuffer path = parse(json);
+
+		assertEquals(3, path.size());
+		assertEquals(38.5, path.getLatitude(0), 1e-9);
+		assertEquals(-120.2, path.getLongitude(0), 1e-9);
+		assertEquals(40.7, path.getLatitude(1), 1e-9);
+		assertEquals(-120.95, path.getLongitude(1), 1e-9);
+		// every polyline is encoded on its own, not relative to the last one
+		assertEquals(2.2, path.getLatitude(2), 1e-9);
+		assertEquals(-0.75, path.getLongitude(2), 1e-9);
+	}
+
+	public void testOnlyFirstRouteIsUsed() throws IOException {
+		String json = "{'routes':[{'legs':[{'steps':[{'polyline':{'points':'_p~iF~ps|U'}}]}]},"
+				+ "{'legs':[{'steps':[{'polyline':{'points':'_p~iF~ps|U_ulLnnqC'}}]}]}],'status':'OK'}";
+		assertEquals(1, parse(json).size());
+	}
+
+	public void testNoRoutes() throws IOException {
+		assertTrue(parse("{'routes':[],'status':'ZERO_RESULTS'}").size() == 0);
+		assertTrue(parse("{'error_message':'The provided API key is invalid.','status':'REQUEST_DENIED'}").size() == 0);
+	}
+
+	public void testInvalidResponse() {
+		try {
+			parse("{'routes':{'legs':[]}}");
+			fail("IOException expected");
+		} catch (IOException e) {
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package com.ese2013.mub.test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import junit.framework.TestCase;
+
+import com.ese2013.mub.model.ModelChangeEvent;
+import com.ese2013.mub.model.ModelChangeEvent.Type;
+import com.ese2013.mub.util.EventBus;
+import com.ese2013.mub.util.EventBus.Delivery;
+import com.ese2013.mub.util.Subscriber;
+
+public class EventBusTest extends TestCase {
+	private QueueExecutor mainThread, background;
+	private EventBus<Type, ModelChangeEvent> bus;
+	private RecordingSubscriber subscriber;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		mainThread = new QueueExecutor();
+		background = new QueueExecutor();
+		bus = new EventBus<Type, ModelChangeEvent>(Type.class, mainThread, background);
+		subscriber = new RecordingSubscriber();
+	}
+
+	public void testOnlySubscribedTypesAreDelivered() {
+		bus.subscribe(subscriber, EnumSet.of(Type.MENUS), Delivery.MAIN_THREAD, false);
+		bus.post(new ModelChangeEvent(Type.RATINGS));
+		bus.post(new ModelChangeEvent(Type.MENUS));
+		mainThread.runAll();
+		assertEquals(1, subscriber.events.size());
+		assertTrue(subscriber.events.get(0).contains(Type.MENUS));
+	}
+
+	public void testEventIsDeliveredOnceForSeveralChannels() {
+		bus.subscribe(subscriber, EnumSet.of(Type.MENUS, Type.STATUS), Delivery.MAIN_THREAD, false);
+		bus.post(new ModelChangeEvent(EnumSet.of(Type.MENUS), 42));
+		assertEquals(1, mainThread.runAll());
+		assertEquals(1, subscriber.events.size());
+	}
+
+	public void testDeliveryIsAsynchronous() {
+		bus.subscribe(subscriber, EnumSet.of(Type.MENUS), Delivery.BACKGROUND, false);
+		bus.post(new ModelChangeEvent(Type.MENUS));
+		assertTrue(subscriber.events.isEmpty());
+		assertEquals(0, mainThread.runAll());
+		assertEquals(1, background.runAll());
+		assertEquals(1, subscriber.events.size());
+	}
+
+	public void testBurstIsCoalesced() {
+		bus.subscribe(subscriber, EnumSet.allOf(Type.class));
+		bus.post(new ModelChangeEvent(EnumSet.of(Type.MENUS), 1));
+		bus.post(new ModelChangeEvent(Type.RATINGS));
+		bus.post(new ModelChangeEvent(EnumSet.noneOf(Type.class), 2));
+		assertEquals(1, mainThread.runAll());
+		assertEquals(1, subscriber.events.size());
+		ModelChangeEvent event = subscriber.events.get(0);
+		assertTrue(event.contains(Type.MENUS));
+		assertTrue(event.contains(Type.RATINGS));
+		assertFalse(event.contains(Type.FAVORITES));
+		assertEquals(2, event.getStatusMessage());
+
+		bus.post(new ModelChangeEvent(Type.FAVORITES));
+		assertEquals(1, mainThread.runAll());
+		assertEquals(2, subscriber.events.size());
+		assertFalse(subscriber.events.get(1).contains(Type.MENUS));
+	}
+
+	public void testWithoutCoalescingEveryEventIsDelivered() {
+		bus.subscribe(subscriber, EnumSet.allOf(Type.class), Delivery.MAIN_THREAD, false);
+		bus.post(new ModelChangeEvent(Type.MENUS));
+		bus.post(new ModelChangeEvent(Type.RATINGS));
+		assertEquals(2, mainThread.runAll());
+		assertEquals(2, subscriber.events.size());
+	}
+
+	public void testUnsubscribeDropsPendingEvents() {
+		bus.subscribe(subscriber, EnumSet.of(Type.MENUS));
+		bus.post(new ModelChangeEvent(Type.MENUS));
+		bus.unsubscribe(subscriber);
+		bus.post(new ModelChangeEvent(Type.MENUS));
+		assertEquals(1, mainThread.runAll());
+		assertTrue(subscriber.events.isEmpty());
+	}
+
+	public void testSubscribeAgainReplacesTypes() {
+		bus.subscribe(subscriber, EnumSet.of(Type.MENUS));
+		bus.subscribe(subscriber, EnumSet.of(Type.RATINGS));
+		bus.post(new ModelChangeEvent(Type.MENUS));
+		bus.post(new ModelChangeEvent(Type.RATINGS));
+		mainThread.runAll();
+		assertEquals(1, subscriber.events.size());
+		assertTrue(subscriber.events.get(0).contains(Type.RATINGS));
+	}
+
+	private static class RecordingSubscriber implements Subscriber<ModelChangeEvent> {
+		private List<ModelChangeEvent> events = new ArrayList<ModelChangeEvent>();
+
+		@Override
+		public void onEvent(ModelChangeEvent event) {
+			events.add(event);
+		}
+	}
+
+	private static class QueueExecutor implements Executor {
+		private List<Runnable> queue = new ArrayList<Runnable>();
+
+		@Override
+		public void execute(Runnable command) {
+			queue.add(command);
+		}
+
+		/**
+		 * Runs the queued commands, returns how many were run.
+		 */
+		private int runAll() {
+			List<Runnable> commands = queue;
+			queue = new ArrayList<Runnable>();
+			for (Runnable command : commands)
+				command.run();
+			return commands.size();
+		}
+	}
+}
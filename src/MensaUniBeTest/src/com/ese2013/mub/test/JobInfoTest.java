@@ -0,0 +1,57 @@
+package com.ese2013.mub.test;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import junit.framework.TestCase;
+
+import com.ese2013.mub.service.JobInfo;
+
+public class JobInfoTest extends TestCase {
+	private static final long MINUTE = 60 * 1000;
+
+	private static long time(int year, int month, int day, int hour, int minute) {
+		return new GregorianCalendar(year, month, day, hour, minute).getTimeInMillis();
+	}
+
+	public void testNextRunTimeDaily() {
+		JobInfo job = new JobInfo.Builder(1).setTime(10, 0).build();
+		assertEquals(time(2013, Calendar.NOVEMBER, 20, 10, 0),
+				job.getNextRunTime(time(2013, Calendar.NOVEMBER, 20, 9, 15)));
+		assertEquals(time(2013, Calendar.NOVEMBER, 21, 10, 0),
+				job.getNextRunTime(time(2013, Calendar.NOVEMBER, 20, 10, 0)));
+		assertEquals(time(2014, Calendar.JANUARY, 1, 10, 0),
+				job.getNextRunTime(time(2013, Calendar.DECEMBER, 31, 23, 59)));
+	}
+
+	public void testNextRunTimeWeekly() {
+		JobInfo job = new JobInfo.Builder(1).setDayOfWeek(Calendar.SUNDAY).setTime(20, 0).build();
+		// Wednesday
+		assertEquals(time(2013, Calendar.NOVEMBER, 24, 20, 0),
+				job.getNextRunTime(time(2013, Calendar.NOVEMBER, 20, 12, 0)));
+		// Sunday before and after the start time
+		assertEquals(time(2013, Calendar.NOVEMBER, 24, 20, 0),
+				job.getNextRunTime(time(2013, Calendar.NOVEMBER, 24, 8, 0)));
+		assertEquals(time(2013, Calendar.DECEMBER, 1, 20, 0),
+				job.getNextRunTime(time(2013, Calendar.NOVEMBER, 24, 21, 0)));
+	}
+
+	public void testBackoffDelay() {
+		JobInfo job = new JobInfo.Builder(1).setBackoff(5 * MINUTE, 60 * MINUTE).build();
+		assertEquals(5 * MINUTE, job.getBackoffDelay(1));
+		assertEquals(10 * MINUTE, job.getBackoffDelay(2));
+		assertEquals(40 * MINUTE, job.getBackoffDelay(4));
+		assertEquals(60 * MINUTE, job.getBackoffDelay(5));
+		assertEquals(60 * MINUTE, job.getBackoffDelay(1000));
+	}
+
+	public void testConstraints() {
+		JobInfo job = new JobInfo.Builder(3).setRequiresNetwork(true).setRequiresIdle(true)
+				.setOverrideDeadline(MINUTE).build();
+		assertEquals(3, job.getId());
+		assertTrue(job.requiresNetwork());
+		assertFalse(job.requiresCharging());
+		assertTrue(job.requiresIdle());
+		assertEquals(MINUTE, job.getOverrideDeadline());
+	}
+}
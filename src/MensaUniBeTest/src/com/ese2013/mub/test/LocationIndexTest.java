@@ -0,0 +1,102 @@
+package com.ese2013.mub.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import android.location.Location;
+
+import com.ese2013.mub.map.util.LocationIndex;
+
+public class LocationIndexTest extends TestCase {
+	private static final double EARTH_RADIUS_METERS = 6371000;
+
+	private static Location createLocation(double latitude, double longitude) {
+		Location location = new Location("");
+		location.setLatitude(latitude);
+		location.setLongitude(longitude);
+		return location;
+	}
+
+	private static double distance(Location a, double latitude, double longitude) {
+		double dLat = Math.toRadians(latitude - a.getLatitude()), dLng = Math.toRadians(longitude - a.getLongitude());
+		double h = Math.sin(dLat / 2) * Math.sin(dLat / 2) + Math.cos(Math.toRadians(a.getLatitude()))
+				* Math.cos(Math.toRadians(latitude)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+		return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(h)));
+	}
+
+	private static List<Location> sortByDistance(List<Location> locations, final double latitude,
+			final double longitude) {
+		List<Location> sorted = new ArrayList<Location>(locations);
+		Collections.sort(sorted, new Comparator<Location>() {
+			@Override
+			public int compare(Location lhs, Location rhs) {
+				return Double.compare(distance(lhs, latitude, longitude), distance(rhs, latitude, longitude));
+			}
+		});
+		return sorted;
+	}
+
+	private static List<Location> createRandomLocations(Random random, int count) {
+		List<Location> locations = new ArrayList<Location>();
+		for (int i = 0; i < count; i++)
+			locations.add(createLocation(46.9 + random.nextDouble() * 0.1, 7.4 + random.nextDouble() * 0.1));
+		return locations;
+	}
+
+	public void testNearestMatchesFullScan() {
+		Random random = new Random(42);
+		List<Location> locations = createRandomLocations(random, 500);
+		LocationIndex<Location> index = new LocationIndex<Location>(locations);
+		assertEquals(500, index.size());
+		for (int i = 0; i < 100; i++) {
+			double latitude = 46.88 + random.nextDouble() * 0.14, longitude = 7.38 + random.nextDouble() * 0.14;
+			List<Location> expected = sortByDistance(locations, latitude, longitude).subList(0, 5);
+			assertEquals(expected, index.getNearest(latitude, longitude, 5));
+		}
+	}
+
+	public void testWithinMatchesFullScan() {
+		Random random = new Random(7);
+		List<Location> locations = createRandomLocations(random, 500);
+		LocationIndex<Location> index = new LocationIndex<Location>(locations);
+		for (int i = 0; i < 100; i++) {
+			double latitude = 46.9 + random.nextDouble() * 0.1, longitude = 7.4 + random.nextDouble() * 0.1;
+			double radius = random.nextDouble() * 2000;
+			List<Location> expected = new ArrayList<Location>();
+			for (Location location : sortByDistance(locations, latitude, longitude))
+				if (distance(location, latitude, longitude) <= radius)
+					expected.add(location);
+			assertEquals(expected, index.getWithin(latitude, longitude, radius));
+		}
+	}
+
+	public void testAcrossDateLine() {
+		Location east = createLocation(0, 179.99), west = createLocation(0, -179.99), far = createLocation(0, 170);
+		List<Location> locations = new ArrayList<Location>();
+		locations.add(far);
+		locations.add(west);
+		locations.add(east);
+		LocationIndex<Location> index = new LocationIndex<Location>(locations);
+
+		assertEquals(west, index.getNearest(0, -179.999, 1).get(0));
+		// about 2.2 km across the 180th meridian
+		assertEquals(2, index.getWithin(0, 179.999, 3000).size());
+	}
+
+	public void testEmptyAndSmallQueries() {
+		LocationIndex<Location> empty = new LocationIndex<Location>(new ArrayList<Location>());
+		assertTrue(empty.getNearest(46.95, 7.44, 3).isEmpty());
+		assertTrue(empty.getWithin(46.95, 7.44, 1000).isEmpty());
+
+		List<Location> locations = new ArrayList<Location>();
+		locations.add(createLocation(46.95, 7.44));
+		locations.add(createLocation(46.96, 7.44));
+		LocationIndex<Location> index = new LocationIndex<Location>(locations);
+		assertEquals(2, index.getNearest(46.95, 7.44, 10).size());
+		assertTrue(index.getNearest(46.95, 7.44, 0).isEmpty());
+	}
+}
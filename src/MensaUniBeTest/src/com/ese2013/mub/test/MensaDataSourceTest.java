@@ -1,12 +1,17 @@
 package com.ese2013.mub.test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import android.test.AndroidTestCase;
+import android.util.Log;
 
+import com.ese2013.mub.model.DailyMenuplan;
 import com.ese2013.mub.model.Day;
 import com.ese2013.mub.model.Mensa;
 import com.ese2013.mub.model.Menu;
@@ -41,6 +46,14 @@ public class MensaDataSourceTest extends AndroidTestCase {
 		assertEquals("Loaded mensas should be the same as stored", loadedMensas, mensas);
 	}
 
+	public void testConnectionStaysUsableWhileBorrowed() {
+		List<Mensa> mensas = createMensaList();
+		dataSource.open();
+		dataSource.storeMensaList(mensas);
+		dataSource.close();
+		assertEquals(mensas, dataSource.loadMensaList());
+	}
+
 	public void testStoreAndLoadFavorites() {
 		List<Mensa> mensas = createMensaList();
 
@@ -88,6 +101,139 @@ public class MensaDataSourceTest extends AndroidTestCase {
 		assertEquals(m2.getMenuplan(), dataSource.loadMenuplan(m2.getId(), menuManager));
 	}
 
+	public void testStoreModel() {
+		List<Mensa> mensas = createMensaList();
+		List<WeeklyMenuplan> plans = createWeeklyplans();
+		mensas.get(0).setMenuplan(plans.get(0));
+		mensas.get(1).setMenuplan(new WeeklyMenuplan());
+		mensas.get(2).setMenuplan(plans.get(1));
+		dataSource.storeModel(mensas);
+
+		assertEquals(mensas, dataSource.loadMensaList());
+		MenuManager menuManager = new MenuManager();
+		for (Mensa m : mensas)
+			assertEquals(m.getMenuplan(), dataSource.loadMenuplan(m.getId(), menuManager));
+	}
+
+	public void testSyncWatermarkSurvivesStoringMenus() {
+		List<Mensa> mensas = createMensaList();
+		for (Mensa m : mensas)
+			m.setMenuplan(new WeeklyMenuplan());
+		assertEquals(0, dataSource.getSyncWatermark());
+		dataSource.storeModel(mensas, 1234);
+		assertEquals(1234, dataSource.getSyncWatermark());
+		dataSource.storeModel(mensas);
+		assertEquals(1234, dataSource.getSyncWatermark());
+		dataSource.cleanUpAllTables();
+		assertEquals(0, dataSource.getSyncWatermark());
+	}
+
+	public void testStoreRatings() {
+		List<Mensa> mensas = createMensaList();
+		for (Mensa m : mensas)
+			m.setMenuplan(new WeeklyMenuplan());
+		mensas.get(0).setMenuplan(createWeeklyplans().get(0));
+		dataSource.storeModel(mensas);
+		assertEquals(0, dataSource.getRatingsUpdateTime());
+
+		Menu rating = new Menu.MenuBuilder().setId("a").setRatingSum(9).setRatingCount(2).build();
+		dataSource.storeRatings(Arrays.asList(rating));
+		assertTrue(dataSource.getRatingsUpdateTime() > 0);
+
+		Menu loaded = dataSource.loadFullModel(new MenuManager()).get(0).getMenuplan()
+				.getDailymenuplan(new Day(23, 11, 2013)).getMenus().get(0);
+		assertEquals("a", loaded.getId());
+		assertEquals(9, loaded.getRatingSum());
+		assertEquals(2, loaded.getRatingCount());
+	}
+
+	public void testStoreAndLoadTranslations() {
+		Map<String, String> translations = new HashMap<String, String>();
+		translations.put("Pouletbrust mit Reis", "Chicken breast with rice");
+		translations.put("Salat\n\"Hausgemacht\"", "Salad\n\"Homemade\"");
+		dataSource.storeTranslations(translations, "en");
+
+		Map<String, String> loaded = dataSource.loadTranslations(
+				Arrays.asList("Pouletbrust mit Reis", "Salat\n\"Hausgemacht\"", "Unbekannt"), "en");
+		assertEquals(translations, loaded);
+		assertTrue(dataSource.loadTranslations(Arrays.asList("Pouletbrust mit Reis"), "fr").isEmpty());
+	}
+
+	public void testLoadMenusOfDay() {
+		List<Mensa> mensas = createLargeModel(3, 5, 4);
+		mensas.get(1).setIsFavorite(true);
+		dataSource.storeModel(mensas);
+		dataSource.storeFavorites(mensas);
+
+		Day day = new Day(20, 11, 2013);
+		List<Mensa> loaded = dataSource.loadMenusOfDay(day, false);
+		assertEquals(3, loaded.size());
+		for (int i = 0; i < loaded.size(); i++) {
+			assertEquals(mensas.get(i).getId(), loaded.get(i).getId());
+			assertEquals(1, loaded.get(i).getMenuplan().getDays().size());
+			assertEquals(mensas.get(i).getMenuplan().getDailymenuplan(day).getMenus(), loaded.get(i).getMenuplan()
+					.getDailymenuplan(day).getMenus());
+		}
+
+		List<Mensa> favorites = dataSource.loadMenusOfDay(day, true);
+		assertEquals(1, favorites.size());
+		assertEquals(mensas.get(1).getId(), favorites.get(0).getId());
+		assertTrue(dataSource.loadMenusOfDay(new Day(30, 11, 2013), false).isEmpty());
+	}
+
+	public void testLoadFullModel() {
+		List<Mensa> mensas = createMensaList();
+		List<WeeklyMenuplan> plans = createWeeklyplans();
+		mensas.get(0).setMenuplan(plans.get(0));
+		mensas.get(1).setMenuplan(new WeeklyMenuplan());
+		mensas.get(2).setMenuplan(plans.get(1));
+		mensas.get(2).setIsFavorite(true);
+		dataSource.storeModel(mensas);
+		dataSource.storeFavorites(mensas);
+
+		List<Mensa> loadedMensas = dataSource.loadFullModel(new MenuManager());
+		assertEquals(mensas, loadedMensas);
+		assertSame(loadedMensas.get(0).getMenuplan().getDailymenuplan(new Day(23, 11, 2013)).getMenus().get(0),
+				loadedMensas.get(2).getMenuplan().getDailymenuplan(new Day(23, 11, 2013)).getMenus().get(0));
+	}
+
+	public void testStoreModelThroughput() {
+		List<Mensa> mensas = createLargeModel(10, 5, 6);
+		int menus = 10 * 5 * 6;
+		int rows = menus * 2;
+		MenuManager menuManager = new MenuManager();
+
+		long start = System.nanoTime();
+		dataSource.storeMensaList(mensas);
+		dataSource.deleteMenus();
+		for (Mensa m : mensas)
+			dataSource.storeWeeklyMenuplan(m);
+		double singleRowsPerSecond = rows / ((System.nanoTime() - start) / 1e9);
+		assertEquals(menus, countStoredMenus(mensas, menuManager));
+
+		dataSource.cleanUpAllTables();
+		start = System.nanoTime();
+		dataSource.storeModel(mensas);
+		double bulkRowsPerSecond = rows / ((System.nanoTime() - start) / 1e9);
+		assertEquals(menus, countStoredMenus(mensas, new MenuManager()));
+
+		// only logged, the timings are not reliable enough on emulators
+		Log.i("MensaDataSourceTest", "single inserts: " + (int) singleRowsPerSecond + " rows/s, bulk: "
+				+ (int) bulkRowsPerSecond + " rows/s");
+
+		menuManager = new MenuManager();
+		for (Mensa m : mensas)
+			assertEquals(m.getMenuplan(), dataSource.loadMenuplan(m.getId(), menuManager));
+	}
+
+	private int countStoredMenus(List<Mensa> mensas, MenuManager menuManager) {
+		int count = 0;
+		for (Mensa m : mensas)
+			for (DailyMenuplan dailyPlan : dataSource.loadMenuplan(m.getId(), menuManager))
+				count += dailyPlan.getMenus().size();
+		return count;
+	}
+
 	public void testGetWeekOfStoredMenus() {
 		List<Mensa> mensas = createMensaList();
 		List<WeeklyMenuplan> plans = createWeeklyplans();
@@ -131,6 +277,26 @@ public class MensaDataSourceTest extends AndroidTestCase {
 		return mensas;
 	}
 
+	private static ArrayList<Mensa> createLargeModel(int mensaCount, int dayCount, int menusPerDay) {
+		ArrayList<Mensa> mensas = new ArrayList<Mensa>();
+		for (int i = 0; i < mensaCount; i++) {
+			Mensa mensa = new Mensa.MensaBuilder().setId(i).setName("Mensa " + i).setStreet("Street " + i)
+					.setZip("3000 Bern").build();
+			WeeklyMenuplan plan = new WeeklyMenuplan();
+			for (int d = 0; d < dayCount; d++) {
+				Day day = new Day(18 + d, 11, 2013);
+				for (int j = 0; j < menusPerDay; j++) {
+					String id = i + "-" + d + "-" + j;
+					plan.add(new Menu.MenuBuilder().setId(id).setTitle("Menu " + id).setDescription("Description " + id)
+							.build(), day);
+				}
+			}
+			mensa.setMenuplan(plan);
+			mensas.add(mensa);
+		}
+		return mensas;
+	}
+
 	private static ArrayList<WeeklyMenuplan> createWeeklyplans() {
 		ArrayList<WeeklyMenuplan> plans = new ArrayList<WeeklyMenuplan>();
 		ArrayList<Menu> menus = new ArrayList<Menu>();
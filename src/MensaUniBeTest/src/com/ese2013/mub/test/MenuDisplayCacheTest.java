@@ -0,0 +1,138 @@
+package com.ese2013.mub.test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+
+import junit.framework.TestCase;
+
+import com.ese2013.mub.model.Day;
+import com.ese2013.mub.model.Mensa;
+import com.ese2013.mub.model.Menu;
+import com.ese2013.mub.model.Menu.MenuBuilder;
+import com.ese2013.mub.model.MenuDisplay;
+import com.ese2013.mub.model.MenuDisplay.Category;
+import com.ese2013.mub.model.MenuDisplayCache;
+import com.ese2013.mub.model.WeeklyMenuplan;
+
+public class MenuDisplayCacheTest extends TestCase {
+	private Calendar now;
+	private Day yesterday, today, tomorrow;
+	private Menu vegi, daily, standard;
+	private List<Mensa> mensas;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		now = Calendar.getInstance();
+		now.set(2013, Calendar.DECEMBER, 11, 12, 30);
+		today = new Day(11, 12, 2013);
+		yesterday = new Day(10, 12, 2013);
+		tomorrow = new Day(12, 12, 2013);
+		vegi = new MenuBuilder().setId("1").setTitle("Vegi").setDescription("Tofu").setTranslatedTitle("Veggie")
+				.setTranslatedDescription("tofu").setRatingSum(7).setRatingCount(2).build();
+		daily = new MenuBuilder().setId("2").setTitle("Tagesgericht").setDescription("Pasta").build();
+		standard = new MenuBuilder().setId("3").setTitle("Natuerlich Fleisch").setDescription("Steak").build();
+
+		WeeklyMenuplan plan = new WeeklyMenuplan();
+		plan.add(vegi, yesterday);
+		plan.add(daily, today);
+		plan.add(standard, tomorrow);
+		Mensa mensa = new Mensa.MensaBuilder().setId(1).setName("Unitobler").build();
+		mensa.setMenuplan(plan);
+		mensas = new ArrayList<Mensa>();
+		mensas.add(mensa);
+	}
+
+	public void testCategory() {
+		assertEquals(Category.VEGETARIAN, MenuDisplay.getCategory("Vegetarisch"));
+		assertEquals(Category.SIMPLE, MenuDisplay.getCategory("Einfach gut"));
+		assertEquals(Category.SIMPLE, MenuDisplay.getCategory("Warmes Sch\u00fcsselgericht"));
+		assertEquals(Category.STANDARD, MenuDisplay.getCategory("Natuerlich Fleisch"));
+	}
+
+	public void testOriginalTexts() {
+		MenuDisplayCache cache = new MenuDisplayCache(mensas, false, Locale.GERMAN, now);
+		MenuDisplay display = cache.get(vegi, yesterday);
+		assertSame(vegi, display.getMenu());
+		assertEquals("VEGI", display.getTitle());
+		assertEquals("Tofu", display.getDescription());
+		assertEquals(Category.VEGETARIAN, display.getCategory());
+		assertEquals("2", display.getRatingCountText());
+		assertEquals(vegi.getAverageRating(), display.getAverageRating(), 0f);
+	}
+
+	public void testTranslatedTexts() {
+		MenuDisplay display = new MenuDisplayCache(mensas, true, Locale.ENGLISH, now).get(vegi, yesterday);
+		assertEquals("VEGGIE", display.getTitle());
+		assertEquals("tofu", display.getDescription());
+		assertEquals(Category.VEGETARIAN, display.getCategory());
+	}
+
+	public void testDisplaysArePrecomputed() {
+		MenuDisplayCache cache = new MenuDisplayCache(mensas, false, Locale.GERMAN, now);
+		assertSame(cache.get(daily, today), cache.get(daily, today));
+		assertSame(today, cache.get(daily, today).getDay());
+	}
+
+	public void testSameMenuOnDifferentDays() {
+		Mensa other = new Mensa.MensaBuilder().setId(2).setName("vonRoll").build();
+		WeeklyMenuplan plan = new WeeklyMenuplan();
+		plan.add(standard, yesterday);
+		other.setMenuplan(plan);
+		mensas.add(other);
+
+		MenuDisplayCache cache = new MenuDisplayCache(mensas, false, Locale.GERMAN, now);
+		assertTrue(cache.get(standard, yesterday).isRateable());
+		assertFalse(cache.get(standard, tomorrow).isRateable());
+		assertNotSame(cache.get(standard, yesterday), cache.get(standard, tomorrow));
+	}
+
+	public void testRateable() {
+		MenuDisplayCache cache = new MenuDisplayCache(mensas, false, Locale.GERMAN, now);
+		assertTrue(cache.get(vegi, yesterday).isRateable());
+		assertTrue(cache.get(daily, today).isRateable());
+		assertFalse(cache.get(standard, tomorrow).isRateable());
+	}
+
+	public void testValidity() {
+		MenuDisplayCache cache = new MenuDisplayCache(mensas, false, Locale.GERMAN, now);
+		long time = now.getTimeInMillis();
+		assertTrue(cache.isValidFor(false, Locale.GERMAN, time));
+		assertFalse(cache.isValidFor(true, Locale.GERMAN, time));
+		assertFalse(cache.isValidFor(false, Locale.ENGLISH, time));
+
+		Calendar midnight = (Calendar) now.clone();
+		midnight.set(2013, Calendar.DECEMBER, 11, 23, 59, 59);
+		assertTrue(cache.isValidFor(false, Locale.GERMAN, midnight.getTimeInMillis()));
+		midnight.set(2013, Calendar.DECEMBER, 12, 0, 0, 1);
+		assertFalse(cache.isValidFor(false, Locale.GERMAN, midnight.getTimeInMillis()));
+	}
+
+	public void testUpdateRating() {
+		MenuDisplayCache cache = new MenuDisplayCache(mensas, false, Locale.GERMAN, now);
+		MenuDisplay before = cache.get(daily, today);
+		assertSame(before, cache.updateRating(before));
+
+		daily.setUserRating(4);
+		MenuDisplay after = cache.updateRating(before);
+		assertNotSame(before, after);
+		assertEquals("0", before.getRatingCountText());
+		assertEquals("1", after.getRatingCountText());
+		assertEquals(4f, after.getAverageRating(), 0f);
+		assertSame(before.getTitle(), after.getTitle());
+		assertSame(after, cache.get(daily, today));
+	}
+
+	public void testUpdateRatings() {
+		MenuDisplayCache cache = new MenuDisplayCache(mensas, false, Locale.GERMAN, now);
+		assertFalse(cache.updateRatings());
+		vegi.setRatingSum(20);
+		vegi.setRatingCount(4);
+		assertTrue(cache.updateRatings());
+		assertEquals("4", cache.get(vegi, yesterday).getRatingCountText());
+		assertTrue(cache.get(vegi, yesterday).hasCurrentRating());
+		assertFalse(cache.updateRatings());
+	}
+}
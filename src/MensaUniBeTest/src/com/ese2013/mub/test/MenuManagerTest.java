@@ -1,11 +1,17 @@
 package com.ese2013.mub.test;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import junit.framework.TestCase;
 
+import com.ese2013.mub.model.Day;
+import com.ese2013.mub.model.Mensa;
 import com.ese2013.mub.model.Menu;
 import com.ese2013.mub.model.MenuManager;
+import com.ese2013.mub.model.WeeklyMenuplan;
 
 public class MenuManagerTest extends TestCase {
 
@@ -53,6 +59,28 @@ public class MenuManagerTest extends TestCase {
 		assertTrue(menuManager.getMenuIds().contains("a"));
 	}
 
+	public void testUpdateMenu() {
+		Menu menu = menuManager.createMenu("a", "title 1", "description 1", "translated title", "translated desc.");
+		menuManager.setTranslationsAvailable(true);
+
+		Menu menu2 = menuManager.updateMenu("a", "title 1", "description 1");
+		assertSame(menu, menu2);
+		assertEquals("translated title", menu.getTranslatedTitle());
+		assertTrue(menuManager.translationsAvailable());
+
+		menu2 = menuManager.updateMenu("a", "title 2", "description 2");
+		assertSame(menu, menu2);
+		assertEquals("title 2", menu.getTitle());
+		assertEquals("description 2", menu.getDescription());
+		assertEquals("", menu.getTranslatedTitle());
+		assertEquals("", menu.getTranslatedDescription());
+		assertFalse(menuManager.translationsAvailable());
+
+		Menu menu3 = menuManager.updateMenu("b", "title 3", "description 3");
+		assertSame(menu3, menuManager.getMenu("b"));
+		assertEquals("title 3", menu3.getTitle());
+	}
+
 	public void testGetIds() {
 		menuManager.createMenu("a", "title 1", "description 1");
 		menuManager.createMenu("b", "title 2", "description 2", "translated title", "translated desc.");
@@ -70,4 +98,43 @@ public class MenuManagerTest extends TestCase {
 		assertSame(menu, menuManager.getMenu("a"));
 		assertSame(menu2, menuManager.getMenu("b"));
 	}
-}
\ No newline at end of file
+
+	public void testRetainMenus() {
+		menuManager.createMenu("a", "title 1", "description 1");
+		menuManager.createMenu("b", "title 2", "description 2");
+
+		menuManager.retainMenus(new HashSet<String>(Arrays.asList("b")));
+		assertNull(menuManager.getMenu("a"));
+		assertNotNull(menuManager.getMenu("b"));
+	}
+
+	public void testCopyMensas() {
+		MenuManager otherManager = new MenuManager();
+		Menu menu = otherManager.createMenu("a", "title 1", "description 1", "translated title", "translated desc.");
+		menu.setRatingSum(7);
+		menu.setRatingCount(2);
+		Day day = new Day(4, 11, 2013);
+		WeeklyMenuplan plan = new WeeklyMenuplan();
+		plan.add(menu, day);
+		Mensa mensa = new Mensa.MensaBuilder().setId(1).setName("Unitobler").setIsFavorite(true).build();
+		mensa.setMenuplan(plan);
+
+		List<Mensa> copies = menuManager.copyMensas(Arrays.asList(mensa));
+		assertEquals(1, copies.size());
+		Mensa copy = copies.get(0);
+		assertNotSame(mensa, copy);
+		assertEquals(mensa, copy);
+		assertTrue(copy.isFavorite());
+
+		Menu copiedMenu = copy.getMenuplan().getDailymenuplan(day).getMenus().get(0);
+		assertNotSame(menu, copiedMenu);
+		assertSame(copiedMenu, menuManager.getMenu("a"));
+		assertEquals("translated title", copiedMenu.getTranslatedTitle());
+		assertEquals(2, copiedMenu.getRatingCount());
+
+		// the copy can be changed without changing the original
+		copy.getMenuplan().add(menuManager.createMenu("b", "title 2", "description 2"), day);
+		assertEquals(1, plan.getDailymenuplan(day).getMenus().size());
+		assertEquals(1, otherManager.getMenus().size());
+	}
+}
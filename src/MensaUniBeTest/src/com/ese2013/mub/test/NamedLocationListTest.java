@@ -0,0 +1,79 @@
+package com.ese2013.mub.test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import android.location.Location;
+
+import com.ese2013.mub.map.util.NamedLocation;
+import com.ese2013.mub.map.util.NamedLocationList;
+import com.ese2013.mub.map.util.PolylineBuffer;
+import com.ese2013.mub.map.util.Route;
+import com.ese2013.mub.map.util.RouteCache;
+import com.ese2013.mub.model.Mensa;
+import com.google.android.gms.maps.model.LatLng;
+
+public class NamedLocationListTest extends TestCase {
+	private NamedLocationList list;
+	private Location origin;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		List<Mensa> mensas = new ArrayList<Mensa>();
+		mensas.add(createMensa(1, "Unitobler", 46.9535, 7.4397));
+		mensas.add(createMensa(2, "Gesellschaftsstrasse", 46.9558, 7.4338));
+		mensas.add(createMensa(3, "vonRoll", 46.9553, 7.4350));
+		mensas.add(createMensa(4, "Irchel", 47.3743, 8.5510));
+		list = new NamedLocationList();
+		list.addMensas(mensas);
+		origin = new Location("");
+		origin.setLatitude(46.9540);
+		origin.setLongitude(7.4390);
+	}
+
+	private static Mensa createMensa(int id, String name, double latitude, double longitude) {
+		return new Mensa.MensaBuilder().setId(id).setName(name).setLatitude(latitude).setLongitude(longitude).build();
+	}
+
+	public void testGetNamedLocationById() {
+		assertEquals("vonRoll", list.getNamedLocation(3).getName());
+		assertEquals(3, list.getNamedLocation(3).getMensaId());
+		assertNull(list.getNamedLocation(5));
+	}
+
+	public void testClosestMensas() {
+		assertEquals(1, list.getClosestMensa(origin).getMensaId());
+		List<NamedLocation> closest = list.getClosestMensas(origin, 3);
+		assertEquals(3, closest.size());
+		assertEquals(1, closest.get(0).getMensaId());
+		assertEquals(3, closest.get(1).getMensaId());
+		assertEquals(2, closest.get(2).getMensaId());
+	}
+
+	public void testMensasWithinSortedByWalkingDistance() throws Exception {
+		File file = File.createTempFile("routes", ".cache");
+		file.delete();
+		RouteCache routeCache = new RouteCache(file);
+
+		List<NamedLocation> within = list.getMensasWithin(origin, 1000, routeCache);
+		assertEquals(3, within.size());
+		assertEquals(1, within.get(0).getMensaId());
+
+		// the walking route to Unitobler is a long detour
+		PolylineBuffer detour = new PolylineBuffer();
+		detour.add(46.9540, 7.4390);
+		detour.add(46.9600, 7.4390);
+		detour.add(46.9535, 7.4397);
+		routeCache.put(new Route(new LatLng(46.9540, 7.4390), 1, Route.TRAVEL_MODE_WALKING,
+				System.currentTimeMillis(), detour));
+		within = list.getMensasWithin(origin, 1000, routeCache);
+		assertEquals(3, within.get(0).getMensaId());
+		assertEquals(2, within.get(1).getMensaId());
+		assertEquals(1, within.get(2).getMensaId());
+
+		assertTrue(list.getMensasWithin(origin, 10, routeCache).isEmpty());
+	}
+}
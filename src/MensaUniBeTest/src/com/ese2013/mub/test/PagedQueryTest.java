@@ -0,0 +1,130 @@
+package com.ese2013.mub.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import junit.framework.TestCase;
+
+import com.ese2013.mub.util.parseDatabase.PagedQuery;
+import com.parse.ParseException;
+import com.parse.ParseObject;
+import com.parse.ParseQuery;
+
+public class PagedQueryTest extends TestCase {
+	private static final int PAGE_SIZE = 10;
+
+	/**
+	 * Creates fake queries over the given number of rows, remembers the page
+	 * returned for every skip. The first pages take the longest, so they
+	 * arrive after the later ones when downloaded concurrently.
+	 */
+	private static class FakeQueryFactory implements PagedQuery.QueryFactory {
+		private final int rowCount, count;
+		private final Map<Integer, List<ParseObject>> pages = Collections
+				.synchronizedMap(new TreeMap<Integer, List<ParseObject>>());
+
+		/**
+		 * @param rowCount
+		 *            int number of rows found by the queries.
+		 * @param count
+		 *            int number of rows reported by count().
+		 */
+		private FakeQueryFactory(int rowCount, int count) {
+			this.rowCount = rowCount;
+			this.count = count;
+		}
+
+		@Override
+		public ParseQuery<ParseObject> createQuery() {
+			return new ParseQuery<ParseObject>("Row") {
+				private int skip, limit = PAGE_SIZE;
+
+				@Override
+				public void setSkip(int skip) {
+					this.skip = skip;
+				}
+
+				@Override
+				public void setLimit(int limit) {
+					this.limit = limit;
+				}
+
+				@Override
+				public ParseQuery<ParseObject> orderByAscending(String key) {
+					return this;
+				}
+
+				@Override
+				public int count() {
+					return count;
+				}
+
+				@Override
+				public List<ParseObject> find() throws ParseException {
+					try {
+						Thread.sleep(Math.max(0, 100 - 2 * skip));
+					} catch (InterruptedException e) {
+						throw new ParseException(e);
+					}
+					int size = Math.max(0, Math.min(limit, rowCount - skip));
+					List<ParseObject> page = new ArrayList<ParseObject>(Collections.nCopies(size, (ParseObject) null));
+					pages.put(skip, page);
+					return page;
+				}
+			};
+		}
+
+		private List<List<ParseObject>> getPagesBySkip() {
+			return new ArrayList<List<ParseObject>>(pages.values());
+		}
+	}
+
+	private static class RecordingHandler implements PagedQuery.PageHandler {
+		private final List<List<ParseObject>> pages = new ArrayList<List<ParseObject>>();
+		private int rows;
+
+		@Override
+		public void handlePage(List<ParseObject> page) {
+			pages.add(page);
+			rows += page.size();
+		}
+	}
+
+	private static void assertSamePages(List<List<ParseObject>> expected, List<List<ParseObject>> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++)
+			assertSame(expected.get(i), actual.get(i));
+	}
+
+	public void testPagesAreHandledInOrder() throws Exception {
+		FakeQueryFactory factory = new FakeQueryFactory(45, 45);
+		RecordingHandler handler = new RecordingHandler();
+		new PagedQuery(factory, PAGE_SIZE, 4).findAll(handler);
+
+		assertEquals(45, handler.rows);
+		assertEquals(5, handler.pages.size());
+		assertSamePages(factory.getPagesBySkip(), handler.pages);
+	}
+
+	public void testSinglePage() throws Exception {
+		FakeQueryFactory factory = new FakeQueryFactory(7, 7);
+		RecordingHandler handler = new RecordingHandler();
+		new PagedQuery(factory, PAGE_SIZE, 4).findAll(handler);
+
+		assertEquals(7, handler.rows);
+		assertEquals(1, handler.pages.size());
+	}
+
+	public void testRowsAddedAfterCountingAreFound() throws Exception {
+		// 20 rows when counting, 35 when downloading the pages
+		FakeQueryFactory factory = new FakeQueryFactory(35, 20);
+		RecordingHandler handler = new RecordingHandler();
+		new PagedQuery(factory, PAGE_SIZE, 4).findAll(handler);
+
+		assertEquals(35, handler.rows);
+		assertSamePages(factory.getPagesBySkip(), handler.pages);
+	}
+}
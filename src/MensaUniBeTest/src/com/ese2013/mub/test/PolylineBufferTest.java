@@ -0,0 +1,184 @@
+package com.ese2013.mub.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import android.os.Debug;
+import android.util.Log;
+
+import com.ese2013.mub.map.util.PolylineBuffer;
+import com.google.android.gms.maps.model.LatLng;
+
+public class PolylineBufferTest extends TestCase {
+	/** Example of the documentation of the encoded polyline format. */
+	private static final String EXAMPLE = "_p~iF~ps|U_ulLnnqC_mqNvxq`@";
+
+	public void testDecode() {
+		PolylineBuffer buffer = new PolylineBuffer();
+		buffer.decode(EXAMPLE);
+		assertEquals(3, buffer.size());
+		assertEquals(38.5, buffer.getLatitude(0), 1e-9);
+		assertEquals(-120.2, buffer.getLongitude(0), 1e-9);
+		assertEquals(40.7, buffer.getLatitude(1), 1e-9);
+		assertEquals(-120.95, buffer.getLongitude(1), 1e-9);
+		assertEquals(43.252, buffer.getLatitude(2), 1e-9);
+		assertEquals(-126.453, buffer.getLongitude(2), 1e-9);
+	}
+
+	public void testDecodeAppendsAndGrows() {
+		PolylineBuffer buffer = new PolylineBuffer(1);
+		buffer.decode(EXAMPLE);
+		buffer.decode(EXAMPLE);
+		assertEquals(6, buffer.size());
+		assertEquals(38.5, buffer.getLatitude(3), 1e-9);
+
+		buffer.clear();
+		assertEquals(0, buffer.size());
+		buffer.decode(encode(createZigzag(1000, 0)));
+		assertEquals(1000, buffer.size());
+	}
+
+	public void testSimplifyKeepsCorners() {
+		PolylineBuffer buffer = new PolylineBuffer();
+		// 1 km east, then 1 km north, with a point every 10 m
+		for (int i = 0; i <= 100; i++)
+			buffer.add(46.95, 7.43 + i * 0.000131);
+		for (int i = 1; i <= 100; i++)
+			buffer.add(46.95 + i * 0.00009, 7.43 + 100 * 0.000131);
+
+		PolylineBuffer simplified = buffer.simplify(1);
+		assertEquals(3, simplified.size());
+		assertEquals(buffer.getLongitude(0), simplified.getLongitude(0), 1e-9);
+		assertEquals(buffer.getLatitude(100), simplified.getLatitude(1), 1e-9);
+		assertEquals(buffer.getLongitude(100), simplified.getLongitude(1), 1e-9);
+		assertEquals(buffer.getLatitude(200), simplified.getLatitude(2), 1e-9);
+	}
+
+	public void testSimplifyRespectsTolerance() {
+		// zigzag with an amplitude of about 5 m
+		PolylineBuffer buffer = createZigzag(50, 0.000045);
+		assertEquals(2, buffer.simplify(10).size());
+		assertEquals(50, buffer.simplify(1).size());
+		assertEquals(buffer, buffer.simplify(0));
+
+		PolylineBuffer two = new PolylineBuffer();
+		two.add(46.95, 7.43);
+		two.add(46.96, 7.44);
+		assertEquals(two, two.simplify(100));
+	}
+
+	/**
+	 * Compares decoding a long route into a PolylineBuffer with the former
+	 * decoder, which created a List of LatLng per step and copied it into the
+	 * path.
+	 */
+	public void testDecoderBenchmark() {
+		final int steps = 200, pointsPerStep = 100, rounds = 20;
+		List<String> encodedSteps = new ArrayList<String>();
+		for (int i = 0; i < steps; i++)
+			encodedSteps.add(encode(createZigzag(pointsPerStep, 0.0003)));
+		// warm up
+		decodeLegacy(encodedSteps);
+		decodeBuffer(encodedSteps, new PolylineBuffer());
+
+		Debug.startAllocCounting();
+		Debug.resetThreadAllocCount();
+		long start = System.nanoTime();
+		int legacyPoints = 0;
+		for (int r = 0; r < rounds; r++)
+			legacyPoints += decodeLegacy(encodedSteps).size();
+		long legacyTime = System.nanoTime() - start;
+		int legacyAllocations = Debug.getThreadAllocCount();
+
+		PolylineBuffer buffer = new PolylineBuffer();
+		Debug.resetThreadAllocCount();
+		start = System.nanoTime();
+		int bufferPoints = 0;
+		for (int r = 0; r < rounds; r++) {
+			buffer.clear();
+			decodeBuffer(encodedSteps, buffer);
+			bufferPoints += buffer.size();
+		}
+		long bufferTime = System.nanoTime() - start;
+		int bufferAllocations = Debug.getThreadAllocCount();
+		Debug.stopAllocCounting();
+
+		assertEquals(legacyPoints, bufferPoints);
+		Log.i("PolylineBufferTest", "LatLng lists: " + pointsPerSecond(legacyPoints, legacyTime) + " points/s, "
+				+ legacyAllocations + " allocations; PolylineBuffer: " + pointsPerSecond(bufferPoints, bufferTime)
+				+ " points/s, " + bufferAllocations + " allocations");
+		assertTrue(bufferAllocations < legacyAllocations / 10);
+	}
+
+	private static long pointsPerSecond(int points, long nanos) {
+		return points * 1000000000L / Math.max(nanos, 1);
+	}
+
+	private static void decodeBuffer(List<String> encodedSteps, PolylineBuffer buffer) {
+		for (String encoded : encodedSteps)
+			buffer.decode(encoded);
+	}
+
+	private static List<LatLng> decodeLegacy(List<String> encodedSteps) {
+		List<LatLng> path = new ArrayList<LatLng>();
+		for (String encoded : encodedSteps) {
+			List<LatLng> poly = new ArrayList<LatLng>();
+			int index = 0, len = encoded.length();
+			int lat = 0, lng = 0;
+			while (index < len) {
+				int b, shift = 0, result = 0;
+				do {
+					b = encoded.charAt(index++) - 63;
+					result |= (b & 0x1f) << shift;
+					shift += 5;
+				} while (b >= 0x20);
+				lat += ((result & 1) != 0 ? ~(result >> 1) : (result >> 1));
+				shift = 0;
+				result = 0;
+				do {
+					b = encoded.charAt(index++) - 63;
+					result |= (b & 0x1f) << shift;
+					shift += 5;
+				} while (b >= 0x20);
+				lng += ((result & 1) != 0 ? ~(result >> 1) : (result >> 1));
+				poly.add(new LatLng(lat / 1E5, lng / 1E5));
+			}
+			path.addAll(poly);
+		}
+		return path;
+	}
+
+	/**
+	 * Creates a line going east with every other point moved north by the
+	 * given amplitude in degrees.
+	 */
+	private static PolylineBuffer createZigzag(int points, double amplitude) {
+		PolylineBuffer buffer = new PolylineBuffer();
+		for (int i = 0; i < points; i++)
+			buffer.add(46.95 + (i % 2) * amplitude, 7.43 + i * 0.0001);
+		return buffer;
+	}
+
+	private static String encode(PolylineBuffer buffer) {
+		StringBuilder sb = new StringBuilder();
+		int lastLat = 0, lastLng = 0;
+		for (int i = 0; i < buffer.size(); i++) {
+			int lat = (int) Math.round(buffer.getLatitude(i) * 1E5), lng = (int) Math.round(buffer.getLongitude(i) * 1E5);
+			encodeValue(lat - lastLat, sb);
+			encodeValue(lng - lastLng, sb);
+			lastLat = lat;
+			lastLng = lng;
+		}
+		return sb.toString();
+	}
+
+	private static void encodeValue(int value, StringBuilder sb) {
+		value = value < 0 ? ~(value << 1) : value << 1;
+		while (value >= 0x20) {
+			sb.append((char) ((0x20 | (value & 0x1f)) + 63));
+			value >>= 5;
+		}
+		sb.append((char) (value + 63));
+	}
+}
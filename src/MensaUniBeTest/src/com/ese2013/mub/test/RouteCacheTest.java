@@ -0,0 +1,83 @@
+package com.ese2013.mub.test;
+
+import java.io.File;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+import com.ese2013.mub.map.util.PolylineBuffer;
+import com.ese2013.mub.map.util.Route;
+import com.ese2013.mub.map.util.RouteCache;
+import com.google.android.gms.maps.model.LatLng;
+
+public class RouteCacheTest extends TestCase {
+	private static final LatLng UNITOBLER = new LatLng(46.9535, 7.4397);
+	private File file;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		file = File.createTempFile("routes", ".cache");
+		file.delete();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		file.delete();
+		super.tearDown();
+	}
+
+	private static Route createRoute(LatLng origin, int mensaId, String travelMode, long creationTime) {
+		PolylineBuffer path = new PolylineBuffer();
+		path.add(origin.latitude, origin.longitude);
+		path.add(46.9521, 7.4385);
+		path.add(46.9510, 7.4360);
+		return new Route(origin, mensaId, travelMode, creationTime, path);
+	}
+
+	public void testReuseWithinTolerance() {
+		RouteCache cache = new RouteCache(file);
+		Route route = createRoute(UNITOBLER, 2, "walking", System.currentTimeMillis());
+		cache.put(route);
+
+		// about 20 m east and 30 m north
+		assertSame(route, cache.get(new LatLng(46.9535, 7.4400), 2, "walking"));
+		assertSame(route, cache.get(new LatLng(46.9538, 7.4397), 2, "walking"));
+		// about 110 m north
+		assertNull(cache.get(new LatLng(46.9545, 7.4397), 2, "walking"));
+		assertNull(cache.get(UNITOBLER, 3, "walking"));
+		assertNull(cache.get(UNITOBLER, 2, "driving"));
+	}
+
+	public void testOldRoutesAreNotReused() {
+		RouteCache cache = new RouteCache(file);
+		cache.put(createRoute(UNITOBLER, 2, "walking", System.currentTimeMillis() - RouteCache.MAX_AGE - 1));
+		assertNull(cache.get(UNITOBLER, 2, "walking"));
+	}
+
+	public void testSaveAndLoadFromDisk() throws IOException {
+		RouteCache cache = new RouteCache(file);
+		Route route = createRoute(UNITOBLER, 2, "bicycle", System.currentTimeMillis());
+		cache.put(route);
+		cache.saveToDisk();
+		assertTrue(file.exists());
+
+		RouteCache loaded = new RouteCache(file);
+		assertNull(loaded.get(UNITOBLER, 2, "bicycle"));
+		loaded.loadFromDisk();
+		Route loadedRoute = loaded.get(UNITOBLER, 2, "bicycle");
+		assertNotNull(loadedRoute);
+		assertEquals(route.getCreationTime(), loadedRoute.getCreationTime());
+		assertEquals(route.getPath(), loadedRoute.getPath());
+	}
+
+	public void testLeastRecentlyUsedRoutesAreEvicted() {
+		RouteCache cache = new RouteCache(file);
+		long now = System.currentTimeMillis();
+		cache.put(createRoute(UNITOBLER, 0, "walking", now));
+		for (int i = 1; i <= 100; i++)
+			cache.put(createRoute(UNITOBLER, i, "walking", now));
+		assertNull(cache.get(UNITOBLER, 0, "walking"));
+		assertNotNull(cache.get(UNITOBLER, 100, "walking"));
+	}
+}
@@ -0,0 +1,231 @@
+package com.ese2013.mub.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import android.util.JsonReader;
+
+import com.ese2013.mub.map.util.JsonDataRequest;
+import com.ese2013.mub.map.util.PolylineBuffer;
+import com.ese2013.mub.map.util.Route;
+import com.ese2013.mub.map.util.RouteCache;
+import com.ese2013.mub.map.util.RouteRequestCallback;
+import com.ese2013.mub.map.util.RouteRequestCoordinator;
+import com.google.android.gms.maps.model.LatLng;
+
+public class RouteRequestCoordinatorTest extends TestCase {
+	private static final String DIRECTIONS = "{\"routes\":[{\"legs\":[{\"steps\":[{\"polyline\":"
+			+ "{\"points\":\"_p~iF~ps|U_ulLnnqC\"}}]}]}],\"status\":\"OK\"}";
+	private static final LatLng UNITOBLER = new LatLng(46.9535, 7.4397), VONROLL = new LatLng(46.9553, 7.4350),
+			MENSA = new LatLng(46.9510, 7.4360);
+	private static final long DEBOUNCE = 100;
+
+	private static final Executor DIRECT = new Executor() {
+		@Override
+		public void execute(Runnable command) {
+			command.run();
+		}
+	};
+
+	private File file;
+	private RouteCache routeCache;
+	private FakeTransport transport;
+	private RecordingCallback callback;
+	private RouteRequestCoordinator coordinator;
+
+	/**
+	 * Creates fake JsonDataRequests which answer with a fixed response after
+	 * the given latency, and counts the started, cancelled and aborted
+	 * requests.
+	 */
+	private static class FakeTransport implements RouteRequestCoordinator.RequestFactory {
+		private final long latency;
+		private final String response;
+		private final AtomicInteger started = new AtomicInteger(), interrupted = new AtomicInteger(),
+				aborted = new AtomicInteger();
+		private final List<String> urls = Collections.synchronizedList(new ArrayList<String>());
+
+		private FakeTransport(long latency, String response) {
+			this.latency = latency;
+			this.response = response;
+		}
+
+		@Override
+		public JsonDataRequest createRequest(final String url) {
+			return new JsonDataRequest(url) {
+				@Override
+				public JsonReader executeStreaming() throws IOException {
+					started.incrementAndGet();
+					urls.add(url);
+					try {
+						Thread.sleep(latency);
+					} catch (InterruptedException e) {
+						interrupted.incrementAndGet();
+						throw new InterruptedIOException();
+					}
+					return new JsonReader(new StringReader(response));
+				}
+
+				@Override
+				public void abort() {
+					aborted.incrementAndGet();
+				}
+			};
+		}
+	}
+
+	private static class RecordingCallback implements RouteRequestCallback {
+		private final List<Route> routes = Collections.synchronizedList(new ArrayList<Route>());
+		private final CountDownLatch delivered = new CountDownLatch(1);
+
+		@Override
+		public void onDirectionsDownloadFinished(Route route) {
+			routes.add(route);
+			delivered.countDown();
+		}
+
+		private void await() throws InterruptedException {
+			assertTrue(delivered.await(5, TimeUnit.SECONDS));
+		}
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		file = File.createTempFile("routes", ".cache");
+		file.delete();
+		routeCache = new RouteCache(file);
+		callback = new RecordingCallback();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (coordinator != null)
+			coordinator.shutdown();
+		file.delete();
+		new File(file.getPath() + ".tmp").delete();
+		super.tearDown();
+	}
+
+	private void createCoordinator(long latency) {
+		createCoordinator(latency, DIRECTIONS);
+	}
+
+	private void createCoordinator(long latency, String response) {
+		transport = new FakeTransport(latency, response);
+		coordinator = new RouteRequestCoordinator(routeCache, transport, DEBOUNCE, DIRECT, callback);
+	}
+
+	public void testBurstOfUpdatesIsDebounced() throws Exception {
+		createCoordinator(50);
+		// five location updates a few meters apart, faster than the debounce
+		LatLng origin = null;
+		for (int i = 0; i < 5; i++) {
+			origin = new LatLng(46.9535 + i * 0.00002, 7.4397);
+			assertNull(coordinator.request(origin, MENSA, 2, "walking"));
+			Thread.sleep(DEBOUNCE / 4);
+		}
+		callback.await();
+		Thread.sleep(2 * DEBOUNCE);
+
+		assertEquals(1, transport.started.get());
+		assertTrue(transport.urls.get(0).contains("origin=" + origin.latitude + ","));
+		assertEquals(1, callback.routes.size());
+		assertEquals(2, callback.routes.get(0).getPath().size());
+	}
+
+	public void testSupersededRequestIsCancelled() throws Exception {
+		createCoordinator(1000);
+		coordinator.request(UNITOBLER, MENSA, 2, "walking");
+		Thread.sleep(DEBOUNCE + 200);
+		assertEquals(1, transport.started.get());
+
+		coordinator.request(UNITOBLER, MENSA, 3, "walking");
+		callback.await();
+		Thread.sleep(200);
+
+		assertEquals(2, transport.started.get());
+		assertEquals(1, transport.interrupted.get());
+		assertEquals(1, transport.aborted.get());
+		assertEquals(1, callback.routes.size());
+		assertEquals(3, callback.routes.get(0).getMensaId());
+	}
+
+	public void testIdenticalInFlightRequestIsCoalesced() throws Exception {
+		createCoordinator(500);
+		coordinator.request(UNITOBLER, MENSA, 2, "walking");
+		Thread.sleep(DEBOUNCE + 100);
+		// about 20 m away from the first origin, same Mensa and travel mode
+		coordinator.request(new LatLng(46.9537, 7.4397), MENSA, 2, "walking");
+		callback.await();
+		Thread.sleep(DEBOUNCE + 100);
+
+		assertEquals(1, transport.started.get());
+		assertEquals(0, transport.interrupted.get());
+		assertEquals(1, callback.routes.size());
+	}
+
+	public void testOnlyLatestResultIsDelivered() throws Exception {
+		createCoordinator(300);
+		coordinator.request(UNITOBLER, MENSA, 2, "walking");
+		Thread.sleep(DEBOUNCE + 100);
+		coordinator.request(VONROLL, MENSA, 2, "walking");
+		Thread.sleep(DEBOUNCE / 2);
+		coordinator.request(VONROLL, MENSA, 2, "bicycle");
+		callback.await();
+		Thread.sleep(500);
+
+		assertEquals(1, callback.routes.size());
+		assertEquals("bicycle", callback.routes.get(0).getTravelMode());
+	}
+
+	public void testCachedRouteIsReturnedDirectly() throws Exception {
+		createCoordinator(300);
+		PolylineBuffer path = new PolylineBuffer();
+		path.add(MENSA.latitude, MENSA.longitude);
+		Route cached = new Route(UNITOBLER, 2, "walking", System.currentTimeMillis(), path);
+		routeCache.put(cached);
+
+		coordinator.request(VONROLL, MENSA, 2, "walking");
+		assertSame(cached, coordinator.request(UNITOBLER, MENSA, 2, "walking"));
+		Thread.sleep(DEBOUNCE + 400);
+
+		assertEquals(0, transport.started.get());
+		assertTrue(callback.routes.isEmpty());
+	}
+
+	public void testCancelledRequestIsNotDelivered() throws Exception {
+		createCoordinator(200);
+		coordinator.request(UNITOBLER, MENSA, 2, "walking");
+		Thread.sleep(DEBOUNCE + 50);
+		coordinator.cancel();
+		Thread.sleep(400);
+
+		assertEquals(1, transport.interrupted.get());
+		assertEquals(1, transport.aborted.get());
+		assertTrue(callback.routes.isEmpty());
+	}
+
+	public void testMalformedRouteFinishesDownload() throws Exception {
+		createCoordinator(50, DIRECTIONS.replace("_p~iF~ps|U_ulLnnqC", "_"));
+		coordinator.request(UNITOBLER, MENSA, 2, "walking");
+		callback.await();
+		assertNull(callback.routes.get(0));
+
+		// the failed download must not be taken for one still in flight
+		coordinator.request(UNITOBLER, MENSA, 2, "walking");
+		Thread.sleep(DEBOUNCE + 200);
+		assertEquals(2, transport.started.get());
+	}
+}
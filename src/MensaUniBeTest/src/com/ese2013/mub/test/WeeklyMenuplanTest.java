@@ -6,6 +6,7 @@ import java.util.List;
 
 import junit.framework.TestCase;
 
+import com.ese2013.mub.model.DailyMenuplan;
 import com.ese2013.mub.model.Day;
 import com.ese2013.mub.model.Menu;
 import com.ese2013.mub.model.Menu.MenuBuilder;
@@ -114,6 +115,57 @@ public class WeeklyMenuplanTest extends TestCase {
 		assertNotEquals(plan, otherPlan);
 	}
 
+	public void testMergeDays() {
+		Day day1 = new Day(4, 11, 2013);
+		Day day2 = new Day(5, 11, 2013);
+		Day day3 = new Day(6, 11, 2013);
+		plan.add(createMenu("a", "title 1"), day1);
+		plan.add(createMenu("b", "title 2"), day2);
+
+		WeeklyMenuplan changes = new WeeklyMenuplan();
+		Menu menu = createMenu("c", "title 3");
+		changes.add(menu, day2);
+		Menu menu2 = createMenu("d", "title 4");
+		changes.add(menu2, day3);
+		plan.mergeDays(changes);
+
+		assertEquals(1, plan.getDailymenuplan(day1).getMenus().size());
+		List<Menu> menus = plan.getDailymenuplan(day2).getMenus();
+		assertEquals(2, menus.size());
+		assertEquals("b", menus.get(0).getId());
+		assertEquals(menu, menus.get(1));
+		assertEquals(menu2, plan.getDailymenuplan(day3).getMenus().get(0));
+	}
+
+	public void testMergeDaysReplacesChangedMenus() {
+		Day day = new Day(4, 11, 2013);
+		plan.add(createMenu("a", "title 1"), day);
+		plan.add(createMenu("b", "title 2"), day);
+		DailyMenuplan oldDay = plan.getDailymenuplan(day);
+
+		WeeklyMenuplan changes = new WeeklyMenuplan();
+		Menu changedMenu = createMenu("a", "new title");
+		changes.add(changedMenu, day);
+		plan.mergeDays(changes);
+
+		List<Menu> menus = plan.getDailymenuplan(day).getMenus();
+		assertEquals(2, menus.size());
+		assertSame(changedMenu, menus.get(0));
+		assertEquals("b", menus.get(1).getId());
+		// the old plan of the day is not modified
+		assertEquals("title 1", oldDay.getMenus().get(0).getTitle());
+	}
+
+	public void testRemoveDaysBefore() {
+		Day oldDay = new Day(1, 11, 2013);
+		Day monday = new Day(4, 11, 2013);
+		plan.add(createMenu("a", "title 1"), oldDay);
+		plan.add(createMenu("b", "title 2"), monday);
+		plan.removeDaysBefore(monday);
+		assertNull(plan.getDailymenuplan(oldDay));
+		assertNotNull(plan.getDailymenuplan(monday));
+	}
+
 	private static Menu createMenu(String id, String title) {
 		return new MenuBuilder().setId(id).setTitle(title).setDescription("some description").build();
 	}
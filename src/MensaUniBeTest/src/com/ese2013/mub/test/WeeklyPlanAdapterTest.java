@@ -0,0 +1,89 @@
+package com.ese2013.mub.test;
+
+import android.test.AndroidTestCase;
+
+import com.ese2013.mub.WeeklyPlanAdapter;
+import com.ese2013.mub.model.Day;
+import com.ese2013.mub.model.Menu;
+import com.ese2013.mub.model.Menu.MenuBuilder;
+import com.ese2013.mub.model.WeeklyMenuplan;
+
+public class WeeklyPlanAdapterTest extends AndroidTestCase {
+	private Day today, tomorrow;
+	private Menu menu1, menu2, menu3;
+	private WeeklyPlanAdapter adapter;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		today = Day.today();
+		tomorrow = Day.fromEpochDay(today.toEpochDay() + 1);
+		menu1 = createMenu("a", "title 1");
+		menu2 = createMenu("b", "title 2");
+		menu3 = createMenu("c", "title 3");
+		WeeklyMenuplan plan = new WeeklyMenuplan();
+		plan.add(menu1, today);
+		plan.add(menu2, today);
+		plan.add(menu3, tomorrow);
+		adapter = new WeeklyPlanAdapter(getContext(), plan);
+	}
+
+	public void testOnlyTodayIsExpanded() {
+		assertEquals(2, adapter.getSectionCount());
+		assertTrue(adapter.isExpanded(0));
+		assertFalse(adapter.isExpanded(1));
+		// header and two menus of today, header of tomorrow
+		assertEquals(4, adapter.getCount());
+		assertNull(adapter.getItem(0));
+		assertEquals(menu1, adapter.getItem(1));
+		assertEquals(menu2, adapter.getItem(2));
+		assertNull(adapter.getItem(3));
+	}
+
+	public void testOnlyHeadersAreEnabled() {
+		assertTrue(adapter.isEnabled(0));
+		assertFalse(adapter.isEnabled(1));
+		assertFalse(adapter.isEnabled(2));
+		assertTrue(adapter.isEnabled(3));
+	}
+
+	public void testClickOnHeaderToggles() {
+		adapter.onItemClick(null, null, 3, adapter.getItemId(3));
+		assertTrue(adapter.isExpanded(1));
+		assertEquals(5, adapter.getCount());
+		assertEquals(menu3, adapter.getItem(4));
+
+		adapter.onItemClick(null, null, 0, adapter.getItemId(0));
+		assertFalse(adapter.isExpanded(0));
+		assertEquals(3, adapter.getCount());
+		assertEquals(menu3, adapter.getItem(2));
+	}
+
+	public void testClickOnMenuOrListHeaderIsIgnored() {
+		adapter.onItemClick(null, null, 1, adapter.getItemId(1));
+		adapter.onItemClick(null, null, 0, -1);
+		assertTrue(adapter.isExpanded(0));
+		assertFalse(adapter.isExpanded(1));
+		assertEquals(4, adapter.getCount());
+	}
+
+	public void testShows() {
+		WeeklyMenuplan plan = new WeeklyMenuplan();
+		plan.add(menu1, today);
+		plan.add(menu2, today);
+		plan.add(menu3, tomorrow);
+		assertTrue(adapter.shows(plan));
+
+		plan.add(createMenu("d", "title 4"), tomorrow);
+		assertFalse(adapter.shows(plan));
+
+		WeeklyMenuplan shorterPlan = new WeeklyMenuplan();
+		shorterPlan.add(menu1, today);
+		shorterPlan.add(menu2, today);
+		assertFalse(adapter.shows(shorterPlan));
+	}
+
+	private static Menu createMenu(String id, String title) {
+		return new MenuBuilder().setId(id).setTitle(title).setDescription("some description").build();
+	}
+}